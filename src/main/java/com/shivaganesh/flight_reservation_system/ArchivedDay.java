@@ -0,0 +1,54 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+
+//What archiving one departure date moved out of the heap and what it costs on disk.
+//See FlightService.archiveDeparted and FlightArchiver.
+
+public class ArchivedDay {
+
+    private final LocalDate date;
+    private final int flights;
+    private final int reservations;
+    private final long segmentBytes;
+    private final long estimatedHeapBytes;
+
+    ArchivedDay(LocalDate date, int flights, int reservations, long segmentBytes, long estimatedHeapBytes) {
+        this.date = date;
+        this.flights = flights;
+        this.reservations = reservations;
+        this.segmentBytes = segmentBytes;
+        this.estimatedHeapBytes = estimatedHeapBytes;
+    }
+
+    // departure date of the archived flights
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public int getReservations() {
+        return reservations;
+    }
+
+    // size of the segment file written for the date
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    // what the flights, reservations and their index entries held on the heap, estimated from fixed
+    // per-object sizes (see FlightArchive.heapBytes) and not measured; the heap is only freed once the
+    // garbage collector gets to them
+    public long getEstimatedHeapBytes() {
+        return estimatedHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Archived %s: %,d flights, %,d reservations, %,d KB on disk, ~%,d KB heap (estimated)",
+                date, flights, reservations, segmentBytes >> 10, estimatedHeapBytes >> 10);
+    }
+}
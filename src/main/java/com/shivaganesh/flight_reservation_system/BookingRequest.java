@@ -0,0 +1,60 @@
+package com.shivaganesh.flight_reservation_system;
+
+//One line of a group or agency booking, see FlightService.bookFlights
+
+public class BookingRequest {
+
+    private final String customerName;
+    private final String flightNumber;
+    private final int seats;
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    // validations
+    public BookingRequest(String customerName, String flightNumber, int seats) {
+
+        if (customerName == null || customerName.isBlank()) {
+            throw new IllegalArgumentException("Err: customerName must not be blank");
+        }
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("Err: flightNumber must not be blank");
+        }
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Err: seats must be > 0");
+        }
+
+        this.customerName = customerName;
+        this.flightNumber = flightNumber;
+        this.seats = seats;
+    }
+
+    public BookingRequest(String customerName, Flight flight, int seats) {
+        this(customerName, requireFlight(flight).getFlightNumber(), seats);
+    }
+
+    private static Flight requireFlight(Flight flight) {
+        if (flight == null) {
+            throw new IllegalArgumentException("Err: flight must not be null");
+        }
+        return flight;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingRequest{" +
+                "customerName='" + customerName + '\'' +
+                ", flightNumber='" + flightNumber + '\'' +
+                ", seats=" + seats +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.shivaganesh.flight_reservation_system;
+
+//One typeahead suggestion: a destination or customer name as it was first spelled, and what it is ranked
+//by. See FlightService.completeDestinations and completeCustomers.
+
+public class Completion {
+
+    private final String name;
+    private final long count;
+
+    Completion(String name, long count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // seats still on sale to the destination, or bookings the customer holds
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + count + ")";
+    }
+}
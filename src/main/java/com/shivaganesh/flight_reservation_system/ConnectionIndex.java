@@ -0,0 +1,387 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Every flight with a route as a connection (origin, destination, departure, arrival), kept in one
+//departure-ordered sequence for connection scan (CSA): a single pass over the departures in time order
+//finds the earliest arrival at every place, no graph to walk or priority queue to keep.
+//
+//The sequence is split into one immutable Day per departure date, so adding a flight copies only that
+//day's connections. Writers (FlightService, under its lock) replace days copy-on-write; a search scans
+//whatever array it read first without locking. Times are epoch seconds of the LocalDateTimes taken as one
+//clock, the same way the rest of the service treats them.
+//
+//Seat counts are not copied in. A scan reads the live seat state only of the connections it actually
+//takes, so a flight that sells out (or gets seats back) drops out of (or comes back into) the next
+//search without the index changing at all.
+
+final class ConnectionIndex {
+
+    static final int MAX_LEGS = 4;
+    // an itinerary has to land within this long of the requested departure
+    static final Duration MAX_TRIP = Duration.ofHours(48);
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    // the connections departing on one date, ordered by departure
+    private static final class Day {
+        private final long epochDay;
+        private final long[] departures;
+        private final long[] arrivals;
+        private final int[] origins;
+        private final int[] destinations;
+        private final Flight[] flights;
+
+        private Day(long epochDay, int size) {
+            this.epochDay = epochDay;
+            this.departures = new long[size];
+            this.arrivals = new long[size];
+            this.origins = new int[size];
+            this.destinations = new int[size];
+            this.flights = new Flight[size];
+        }
+
+        private void set(int i, Flight flight, DestinationIds places) {
+            departures[i] = seconds(flight);
+            arrivals[i] = flight.getArrivalTime().toEpochSecond(ZoneOffset.UTC);
+            origins[i] = places.intern(flight.getOrigin());
+            destinations[i] = places.intern(flight.getDestination());
+            flights[i] = flight;
+        }
+
+        private void copy(int from, Day to, int at, int count) {
+            System.arraycopy(departures, from, to.departures, at, count);
+            System.arraycopy(arrivals, from, to.arrivals, at, count);
+            System.arraycopy(origins, from, to.origins, at, count);
+            System.arraycopy(destinations, from, to.destinations, at, count);
+            System.arraycopy(flights, from, to.flights, at, count);
+        }
+    }
+
+    // per-thread search state, reused so a search allocates only its results
+    private static final class Scratch {
+        // (legs * places + place) -> earliest arrival and the record that got there, valid where the
+        // stamp matches the current search
+        private int stamp;
+        private int[] stamps = new int[0];
+        private long[] arrivals = new long[0];
+        private int[] records = new int[0];
+        // one record per taken connection: the flight and the record of the leg before it, -1 for the first
+        private Flight[] recordFlights = new Flight[256];
+        private int[] recordPrevious = new int[256];
+        private int recordCount;
+
+        private void reset(int slots) {
+            if (stamps.length < slots) {
+                stamps = new int[slots];
+                arrivals = new long[slots];
+                records = new int[slots];
+                stamp = 0;
+            }
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            recordCount = 0;
+        }
+
+        private int record(Flight flight, int previous) {
+            if (recordCount == recordFlights.length) {
+                recordFlights = Arrays.copyOf(recordFlights, recordCount * 2);
+                recordPrevious = Arrays.copyOf(recordPrevious, recordCount * 2);
+            }
+            recordFlights[recordCount] = flight;
+            recordPrevious[recordCount] = previous;
+            return recordCount++;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // the owning FlightService's ids; a search sizes its scratch by how many there are
+    private final DestinationIds places;
+    // ordered by date, replaced on write
+    private volatile Day[] days = new Day[0];
+    private int size;
+
+    ConnectionIndex(DestinationIds places) {
+        this.places = places;
+    }
+
+    // callers serialize adds (FlightService does it under its lock); flights without a route are skipped
+    void add(Flight flight) {
+        if (!flight.hasRoute()) {
+            return;
+        }
+        Day[] current = days;
+        long epochDay = flight.getDepartureEpochDay();
+        int at = findDay(current, epochDay);
+        Day[] updated;
+        if (at >= 0) {
+            Day day = current[at];
+            long departure = seconds(flight);
+            int pos = day.departures.length;
+            while (pos > 0 && day.departures[pos - 1] > departure) {
+                pos--;
+            }
+            Day grown = new Day(epochDay, day.departures.length + 1);
+            day.copy(0, grown, 0, pos);
+            grown.set(pos, flight, places);
+            day.copy(pos, grown, pos + 1, day.departures.length - pos);
+            updated = current.clone();
+            updated[at] = grown;
+        } else {
+            Day day = new Day(epochDay, 1);
+            day.set(0, flight, places);
+            updated = insertDay(current, -at - 1, day);
+        }
+        size++;
+        days = updated;
+    }
+
+    // groups the batch by date and sorts each date once, then merges it into that date's connections
+    void addAll(List<Flight> flights) {
+        Map<Long, List<Flight>> byDay = new HashMap<>();
+        for (Flight flight : flights) {
+            if (flight.hasRoute()) {
+                byDay.computeIfAbsent(flight.getDepartureEpochDay(), d -> new ArrayList<>()).add(flight);
+            }
+        }
+        if (byDay.isEmpty()) {
+            return;
+        }
+        Day[] updated = days;
+        for (Map.Entry<Long, List<Flight>> entry : byDay.entrySet()) {
+            Day added = sortedDay(entry.getKey(), entry.getValue(), places);
+            int at = findDay(updated, entry.getKey());
+            if (at >= 0) {
+                if (updated == days) {
+                    updated = updated.clone();
+                }
+                updated[at] = merge(updated[at], added);
+            } else {
+                updated = insertDay(updated, -at - 1, added);
+            }
+            size += added.departures.length;
+        }
+        days = updated;
+    }
+
+    // drops the dates before epochDay, for flights that were archived
+    void removeBefore(long epochDay) {
+        Day[] current = days;
+        int at = findDay(current, epochDay);
+        int keep = at >= 0 ? at : -at - 1;
+        if (keep == 0) {
+            return;
+        }
+        for (int d = 0; d < keep; d++) {
+            size -= current[d].departures.length;
+        }
+        days = Arrays.copyOfRange(current, keep, current.length);
+    }
+
+    // departures within a day fit in 17 bits, so (second of day, index) sorts as one long
+    private static Day sortedDay(long epochDay, List<Flight> flights, DestinationIds places) {
+        long dayStart = epochDay * SECONDS_PER_DAY;
+        long[] keys = new long[flights.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((seconds(flights.get(i)) - dayStart) << 32) | i;
+        }
+        Arrays.sort(keys);
+        Day day = new Day(epochDay, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            day.set(i, flights.get((int) keys[i]), places);
+        }
+        return day;
+    }
+
+    private static Day merge(Day a, Day b) {
+        Day merged = new Day(a.epochDay, a.departures.length + b.departures.length);
+        int i = 0;
+        int j = 0;
+        for (int m = 0; m < merged.departures.length; m++) {
+            if (j == b.departures.length || (i < a.departures.length && a.departures[i] <= b.departures[j])) {
+                a.copy(i++, merged, m, 1);
+            } else {
+                b.copy(j++, merged, m, 1);
+            }
+        }
+        return merged;
+    }
+
+    private static Day[] insertDay(Day[] current, int at, Day day) {
+        Day[] updated = new Day[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, at);
+        updated[at] = day;
+        System.arraycopy(current, at, updated, at + 1, current.length - at);
+        return updated;
+    }
+
+    // Arrays.binarySearch contract: the index, or -(insertion point) - 1
+    private static int findDay(Day[] days, long epochDay) {
+        int lo = 0;
+        int hi = days.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long d = days[mid].epochDay;
+            if (d < epochDay) {
+                lo = mid + 1;
+            } else if (d > epochDay) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -lo - 1;
+    }
+
+    private static int lowerBound(long[] values, long value) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long seconds(Flight flight) {
+        return flight.getDepartureTime().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // the best itinerary for each number of legs up to maxLegs that lands earlier than all itineraries with
+    // fewer legs, fewest legs first. Ids are from the index's DestinationIds, times epoch seconds
+    List<Itinerary> search(int origin, int destination, long earliestDeparture, int maxLegs,
+                           long minConnectionSeconds, int seats) {
+        int places = this.places.size();
+        Scratch s = SCRATCH.get();
+        s.reset((maxLegs + 1) * places);
+        int[] stamps = s.stamps;
+        long[] arrivals = s.arrivals;
+        int[] records = s.records;
+        int stamp = s.stamp;
+
+        long latestArrival = earliestDeparture + MAX_TRIP.getSeconds();
+        // nothing departing after the earliest direct arrival can beat it, or anything with more legs
+        long cutoff = latestArrival;
+
+        Day[] snapshot = days;
+        int d = findDay(snapshot, Math.floorDiv(earliestDeparture, SECONDS_PER_DAY));
+        d = d >= 0 ? d : -d - 1;
+        int i = d < snapshot.length ? lowerBound(snapshot[d].departures, earliestDeparture) : 0;
+        scan:
+        for (; d < snapshot.length; d++, i = 0) {
+            Day day = snapshot[d];
+            long[] departures = day.departures;
+            for (; i < departures.length; i++) {
+                long departure = departures[i];
+                if (departure >= cutoff) {
+                    break scan;
+                }
+                long arrival = day.arrivals[i];
+                int from = day.origins[i];
+                int to = day.destinations[i];
+                // places interned after this search started cannot have been reached
+                if (arrival > latestArrival || from >= places || to >= places || to == origin) {
+                    continue;
+                }
+
+                // 0: seats not checked yet, 1: bookable, -1: not enough seats
+                int bookable = 0;
+                if (from == origin) {
+                    bookable = bookable(day.flights[i], seats);
+                    if (bookable > 0 && relax(s, places + to, arrival, day.flights[i], -1) && to == destination) {
+                        cutoff = Math.min(cutoff, arrival);
+                    }
+                    continue;
+                }
+                if (from == destination) {
+                    continue;
+                }
+                // earliest arrival at "from" with at most k legs, and the record that got there
+                long reached = UNREACHED;
+                int reachedRecord = -1;
+                for (int k = 1; k < maxLegs; k++) {
+                    int at = k * places + from;
+                    if (stamps[at] == stamp && arrivals[at] < reached) {
+                        reached = arrivals[at];
+                        reachedRecord = records[at];
+                    }
+                    if (reached == UNREACHED || reached + minConnectionSeconds > departure) {
+                        continue;
+                    }
+                    int next = (k + 1) * places + to;
+                    if (stamps[next] == stamp && arrivals[next] <= arrival) {
+                        continue;
+                    }
+                    if (bookable == 0) {
+                        bookable = bookable(day.flights[i], seats);
+                    }
+                    if (bookable < 0) {
+                        break;
+                    }
+                    relax(s, next, arrival, day.flights[i], reachedRecord);
+                }
+            }
+        }
+
+        List<Itinerary> result = new ArrayList<>(maxLegs);
+        long best = UNREACHED;
+        int bestLegs = 0;
+        for (int k = 1; k <= maxLegs; k++) {
+            int at = k * places + destination;
+            if (stamps[at] != stamp || arrivals[at] >= best) {
+                continue;
+            }
+            List<Flight> legs = legs(s, records[at]);
+            if (legs.size() > bestLegs) {
+                result.add(new Itinerary(legs));
+                best = arrivals[at];
+                bestLegs = legs.size();
+            }
+        }
+        // don't keep the flights alive from a thread local
+        Arrays.fill(s.recordFlights, 0, s.recordCount, null);
+        return result;
+    }
+
+    private static int bookable(Flight flight, int seats) {
+        return flight.getAvailableSeats() >= seats ? 1 : -1;
+    }
+
+    private static boolean relax(Scratch s, int at, long arrival, Flight flight, int previous) {
+        if (s.stamps[at] == s.stamp && s.arrivals[at] <= arrival) {
+            return false;
+        }
+        s.stamps[at] = s.stamp;
+        s.arrivals[at] = arrival;
+        s.records[at] = s.record(flight, previous);
+        return true;
+    }
+
+    private static List<Flight> legs(Scratch s, int record) {
+        List<Flight> legs = new ArrayList<>(MAX_LEGS);
+        for (int r = record; r >= 0; r = s.recordPrevious[r]) {
+            legs.add(s.recordFlights[r]);
+        }
+        Collections.reverse(legs);
+        return legs;
+    }
+}
@@ -0,0 +1,58 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+//Merges several departure-ordered flight iterators (one per destination) into one departure-ordered
+//iterator. Only the head of each source is held, so the first result costs one step per source.
+
+final class DepartureMerge implements Iterator<Flight> {
+
+    private static final Comparator<Head> ORDER = Comparator
+            .<Head, LocalDateTime>comparing(h -> h.flight.getDepartureTime())
+            .thenComparing(h -> h.flight.getFlightNumber());
+
+    private static final class Head {
+        private final Iterator<Flight> source;
+        private Flight flight;
+
+        private Head(Iterator<Flight> source) {
+            this.source = source;
+            this.flight = source.next();
+        }
+    }
+
+    private final PriorityQueue<Head> heads;
+
+    DepartureMerge(List<Iterator<Flight>> sources) {
+        heads = new PriorityQueue<>(Math.max(1, sources.size()), ORDER);
+        for (Iterator<Flight> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public Flight next() {
+        Head head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        Flight f = head.flight;
+        if (head.source.hasNext()) {
+            head.flight = head.source.next();
+            heads.add(head);
+        }
+        return f;
+    }
+}
@@ -0,0 +1,149 @@
+package com.shivaganesh.flight_reservation_system;
+
+//Small int ids for destinations, so indexes can compare ints instead of strings. Every table is owned by
+//the one that hands its ids out: each FlightService (for its search cache and itinerary index) and each
+//inventory has its own, so ids only cover the places of that service's flights and nothing is shared
+//between services, ShardedFlightService partitions or tests.
+//
+//Destinations are matched the way FlightService always has: surrounding spaces ignored, case folded
+//char by char. find() works on the caller's raw string without trimming or lower-casing it, so looking
+//a destination up allocates nothing. New ids are added under a lock into an open-addressing table
+//that readers probe without locking; entries are immutable and the table is replaced when it grows.
+
+final class DestinationIds {
+
+    static final int UNKNOWN = -1;
+
+    private static final class Entry {
+        private final String name; // trimmed and case folded
+        private final int hash;
+        private final int id;
+
+        private Entry(String name, int hash, int id) {
+            this.name = name;
+            this.hash = hash;
+            this.id = id;
+        }
+    }
+
+    private volatile Entry[] table = new Entry[64];
+    // written under "this"
+    private volatile int size;
+
+    // the id of this destination, or UNKNOWN if it was never interned here
+    int find(String destination) {
+        int from = start(destination);
+        int to = end(destination, from);
+        return find(table, destination, from, to, hash(destination, from, to));
+    }
+
+    // ids handed out so far, every id is below this
+    int size() {
+        return size;
+    }
+
+    // the id of this destination, assigning the next free one the first time it is seen
+    int intern(String destination) {
+        int from = start(destination);
+        int to = end(destination, from);
+        int hash = hash(destination, from, to);
+        int id = find(table, destination, from, to, hash);
+        if (id != UNKNOWN) {
+            return id;
+        }
+        synchronized (this) {
+            Entry[] current = table;
+            id = find(current, destination, from, to, hash);
+            if (id != UNKNOWN) {
+                return id;
+            }
+            if ((size + 1) * 2 > current.length) {
+                current = rehash(current, current.length * 2);
+            }
+            id = size++;
+            place(current, new Entry(fold(destination, from, to), hash, id));
+            table = current;
+            return id;
+        }
+    }
+
+    private static int find(Entry[] entries, String destination, int from, int to, int hash) {
+        int mask = entries.length - 1;
+        int length = to - from;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Entry e = entries[i];
+            if (e == null) {
+                return UNKNOWN;
+            }
+            if (e.hash == hash && e.name.length() == length
+                    && destination.regionMatches(true, from, e.name, 0, length)) {
+                return e.id;
+            }
+        }
+    }
+
+    private static Entry[] rehash(Entry[] entries, int capacity) {
+        Entry[] grown = new Entry[capacity];
+        for (Entry e : entries) {
+            if (e != null) {
+                place(grown, e);
+            }
+        }
+        return grown;
+    }
+
+    private static void place(Entry[] entries, Entry e) {
+        int mask = entries.length - 1;
+        int i = e.hash & mask;
+        while (entries[i] != null) {
+            i = (i + 1) & mask;
+        }
+        entries[i] = e;
+    }
+
+    // whether two names are the same place under these rules, without interning either
+    static boolean samePlace(String a, String b) {
+        int aFrom = start(a);
+        int aLength = end(a, aFrom) - aFrom;
+        int bFrom = start(b);
+        return end(b, bFrom) - bFrom == aLength && a.regionMatches(true, aFrom, b, bFrom, aLength);
+    }
+
+    // same rules as String.trim(), NameTrie matches names the same way
+    static int start(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    static int end(String s, int from) {
+        int i = s.length();
+        while (i > from && s.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    // the folding String.regionMatches(true, ...) uses, so equal hashes line up with matching names
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int hash(String s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + fold(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static String fold(String s, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = fold(s.charAt(i));
+        }
+        return new String(chars);
+    }
+}
@@ -2,13 +2,25 @@ package com.shivaganesh.flight_reservation_system;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Flight {
 
    private final String flightNumber;
    private final String destination;
    private final LocalDateTime departureTime;
-   private int availableSeats;
+   // where the flight leaves from and when it lands; both null for flights created without a route,
+   // which searchFlights finds as before but itinerary search cannot use
+   private final String origin;
+   private final LocalDateTime arrivalTime;
+   // version in the high 32 bits, available seats in the low 32, always swapped as one word with
+   // compare-and-set: bookings never oversell, and a reader never locks yet always gets a seat count
+   // together with the version that wrote it. Every change bumps the version
+   private final AtomicLong seatState;
+   // which seats are free and what each fare class sold, null for a flight sold by seat count only
+   private final SeatMap seatMap;
+   // precomputed search key, so indexes compare longs instead of dates
+   private final long departureEpochDay;
 
     public String getFlightNumber() {
         return flightNumber;
@@ -22,19 +34,158 @@ public class Flight {
         return departureTime;
     }
 
+    // null when the flight was created without a route
+    public String getOrigin() {
+        return origin;
+    }
+
+    // null when the flight was created without a route
+    public LocalDateTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public boolean hasRoute() {
+        return origin != null;
+    }
+
+    // null for a flight sold by seat count only
+    public SeatLayout getSeatLayout() {
+        return seatMap == null ? null : seatMap.layout();
+    }
+
+    // seats the fare class (or cabin) can still sell, see SeatLayout
+    public int getAvailableSeats(String fareClass) {
+        if (seatMap == null) {
+            throw new IllegalStateException("Err: flight " + flightNumber + " has no seat map");
+        }
+        int fare = fareClass == null ? -1 : seatMap.layout().fareClass(fareClass);
+        if (fare < 0) {
+            throw new IllegalArgumentException("Err: no fare class " + fareClass + " on flight " + flightNumber);
+        }
+        return seatMap.fareAvailable(fare);
+    }
+
+    // whether "12A" is still free
+    public boolean isSeatFree(String seatNumber) {
+        if (seatMap == null) {
+            throw new IllegalStateException("Err: flight " + flightNumber + " has no seat map");
+        }
+        int seat = seatMap.layout().seatOrdinal(seatNumber);
+        if (seat < 0) {
+            throw new IllegalArgumentException("Err: no seat " + seatNumber + " on flight " + flightNumber);
+        }
+        return seatMap.isFree(seat);
+    }
+
+    SeatMap seatMap() {
+        return seatMap;
+    }
+
     public int getAvailableSeats() {
-        return availableSeats;
+        return seatsOf(seatState());
+    }
+
+    // how many times the seat count has changed since the flight was created or restored; two reads
+    // with the same version saw the same seats. Wraps around after 2^32 changes
+    public int getVersion() {
+        return versionOf(seatState());
+    }
+
+    // seats and version read together, see seatsOf / versionOf
+    long seatState() {
+        return seatState.get();
+    }
+
+    static int seatsOf(long state) {
+        return (int) state;
+    }
+
+    static int versionOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    // what tryReserveSeats returns when the seats were not there; no state is -1, seat counts are never negative
+    static final long NOT_RESERVED = -1;
+
+    // the state after a change to "seats", one version on from "state"
+    static long nextState(long state, int seats) {
+        return ((long) (versionOf(state) + 1) << 32) | (seats & 0xFFFFFFFFL);
+    }
+
+    long getDepartureEpochDay() {
+        return departureEpochDay;
     }
 
     public void setAvailableSeats(int availableSeats) {
         if (availableSeats < 0) {
             throw new IllegalArgumentException("availableSeats must be >= 0");
         }
-        this.availableSeats = availableSeats;
+        if (seatMap != null) {
+            throw new IllegalStateException("Err: the seat count of a flight with a seat map follows its seat map");
+        }
+        while (true) {
+            long state = seatState.get();
+            if (seatState.compareAndSet(state, nextState(state, availableSeats))) {
+                return;
+            }
+        }
+    }
+
+    // takes the seats only if enough are left, retrying when another booking got in first. Returns the
+    // state this change set (what events about it report), NOT_RESERVED if the seats were not there
+    long tryReserveSeats(int seats) {
+        while (true) {
+            long state = seatState.get();
+            int available = seatsOf(state);
+            if (seats > available) {
+                return NOT_RESERVED;
+            }
+            long next = nextState(state, available - seats);
+            if (seatState.compareAndSet(state, next)) {
+                return next;
+            }
+        }
+    }
+
+    // gives back seats taken by tryReserveSeats, e.g. when a batch booking is rolled back;
+    // returns the state this change set
+    long releaseSeats(int seats) {
+        while (true) {
+            long state = seatState.get();
+            long next = nextState(state, seatsOf(state) + seats);
+            if (seatState.compareAndSet(state, next)) {
+                return next;
+            }
+        }
     }
     
     // here, checking the validation
   public Flight(String flightNumber, String destination, LocalDateTime departureTime, int availableSeats) {
+  this(flightNumber, null, destination, departureTime, null, seatState(availableSeats), null);
+}
+
+  // a flight with a route, which itinerary search can chain into connections
+  public Flight(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                LocalDateTime arrivalTime, int availableSeats) {
+  this(flightNumber, requireOrigin(origin), destination, departureTime, requireArrival(arrivalTime),
+          seatState(availableSeats), null);
+}
+
+  // a flight with a route whose seats are assigned from a seat map; all seats start free
+  public Flight(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                LocalDateTime arrivalTime, SeatLayout seatLayout) {
+  this(flightNumber, requireOrigin(origin), destination, departureTime, requireArrival(arrivalTime),
+          seatState(requireLayout(seatLayout).capacity()), new SeatMap(seatLayout));
+}
+
+  // for views whose seat count is kept outside the object (see MappedFlight), they override the seat methods
+  Flight(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+         LocalDateTime arrivalTime) {
+  this(flightNumber, origin, destination, departureTime, arrivalTime, null, null);
+}
+
+  private Flight(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                 LocalDateTime arrivalTime, AtomicLong seatState, SeatMap seatMap) {
   if (flightNumber == null || flightNumber.isBlank()) {
       throw new IllegalArgumentException("Err: flightNumber must not be blank");
   }
@@ -44,21 +195,61 @@ public class Flight {
   if (departureTime == null) {
       throw new IllegalArgumentException("Err: departureTime must not be null");
   }
-  if (availableSeats < 0) {
-      throw new IllegalArgumentException("Err: availableSeats must be >= 0");
+  if ((origin == null) != (arrivalTime == null)) {
+      throw new IllegalArgumentException("Err: origin and arrivalTime must be given together");
+  }
+  if (arrivalTime != null && !arrivalTime.isAfter(departureTime)) {
+      throw new IllegalArgumentException("Err: arrivalTime must be after departureTime");
   }
-  
+
   this.flightNumber = flightNumber;
+  this.origin = origin;
   this.destination = destination;
   this.departureTime = departureTime;
-  this.availableSeats = availableSeats;
+  this.arrivalTime = arrivalTime;
+  this.seatState = seatState;
+  this.seatMap = seatMap;
+  if (origin != null && DestinationIds.samePlace(origin, destination)) {
+      throw new IllegalArgumentException("Err: origin and destination must differ");
+  }
+  this.departureEpochDay = departureTime.toLocalDate().toEpochDay();
+}
+
+  private static String requireOrigin(String origin) {
+  if (origin == null || origin.isBlank()) {
+      throw new IllegalArgumentException("Err: origin must not be blank");
+  }
+  return origin;
+}
+
+  private static SeatLayout requireLayout(SeatLayout seatLayout) {
+  if (seatLayout == null) {
+      throw new IllegalArgumentException("Err: seatLayout must not be null");
+  }
+  return seatLayout;
+}
+
+  private static LocalDateTime requireArrival(LocalDateTime arrivalTime) {
+  if (arrivalTime == null) {
+      throw new IllegalArgumentException("Err: arrivalTime must not be null");
+  }
+  return arrivalTime;
+}
+
+  private static AtomicLong seatState(int availableSeats) {
+  if (availableSeats < 0) {
+      throw new IllegalArgumentException("Err: availableSeats must be >= 0");
+  }
+  return new AtomicLong(availableSeats);
 }
 
   //for returning readable text in the console for better output
     @Override
     public String toString() {
-        return "Flight{" + "flightNumber='" + flightNumber + '\'' +", destination='" + destination + '\'' 
-        		+", departureTime=" + departureTime +", availableSeats=" + availableSeats + '}';
+        String route = origin == null ? "" : ", origin='" + origin + '\'';
+        String arrival = arrivalTime == null ? "" : ", arrivalTime=" + arrivalTime;
+        return "Flight{" + "flightNumber='" + flightNumber + '\'' + route +", destination='" + destination + '\''
+        		+", departureTime=" + departureTime + arrival +", availableSeats=" + getAvailableSeats() + '}';
     }
 
   //Two Flight objects are consider as equal if they have the same flight number.
@@ -0,0 +1,539 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+//Departed flights and their reservations, moved off the heap into one read-only segment file per departure
+//date (segment-2025-12-20-0.seg; archiving a date again, e.g. for a late booking, adds -1, -2, ...).
+//
+//A segment is written to a temp file, forced and renamed into place, and after that only read:
+//
+//  header          magic, version, epoch day, counts and the offsets of the two tables
+//  flights         number, destination, departure, route, seat layout and seats left of every flight
+//  bookings        every reservation, grouped by customer
+//  flight table    offset of every flight record
+//  customer table  (hash of the normalized name, offset of its first booking, bookings), sorted by hash
+//  customer filter bloom filter over the customer hashes, 10 bits per customer, with its own crc32
+//  crc32 of everything before it
+//
+//Opening the archive reads nothing. A lookup reads the customer filter of every segment once and keeps it
+//on the heap (about 1.25 bytes per archived customer and date); only segments whose filter may hold the
+//customer are mapped, their crc checked on the first mapping, and their customer table binary searched
+//inside the mapped file, decoding only that customer's bookings and their flights. At most MAPPED_SEGMENTS
+//stay mapped, the oldest mapping is dropped for the garbage collector to unmap. Flights decoded from it
+//are read-only copies: their seat counts are as archived and a seat map does not mark which seats were
+//sold. Version 1 segments (no filter) are still read, they are mapped on every lookup.
+
+public class FlightArchive {
+
+    private static final int MAGIC = 0x46415243; // "FARC"
+    private static final int VERSION = 2;
+    // magic, version, epoch day, flight, reservation and customer counts, flight and customer table offsets,
+    // then (from version 2) the filter's offset, length in longs and crc32
+    private static final int HEADER_BYTES = 48;
+    private static final int V1_HEADER_BYTES = 36;
+    private static final int FILTER_BITS_PER_CUSTOMER = 10;
+    private static final int FILTER_HASHES = 4;
+    private static final long[] NO_FILTER = new long[0];
+    static final int MAPPED_SEGMENTS = 64;
+    private static final int CUSTOMER_ENTRY_BYTES = 16;
+    private static final byte ROUTE = 1;
+    private static final byte SEAT_MAP = 2;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{4}-\\d{2}-\\d{2})-(\\d+)\\.seg");
+
+    // rough retained sizes with compressed oops, for ArchivedDay.getEstimatedHeapBytes
+    private static final long FLIGHT_BYTES = 56 + 24;          // Flight and its AtomicLong seat state
+    private static final long FLIGHT_INDEX_BYTES = 32 + 4 + 4; // number map node, list and search bucket slots
+    private static final long CONNECTION_BYTES = 8 + 8 + 4 + 4 + 4;
+    private static final long RESERVATION_BYTES = 40;
+    private static final long RESERVATION_INDEX_BYTES = 32 + 16 + 24; // id map node, boxed id, customer queue node
+
+    private static final class Segment {
+        private final Path file;
+        private final LocalDate date;
+        private final int sequence;
+        private volatile ByteBuffer mapped;
+        private volatile long[] filter;
+        private boolean verified;
+
+        private Segment(Path file, LocalDate date, int sequence) {
+            this.file = file;
+            this.date = date;
+            this.sequence = sequence;
+        }
+
+        // read once with a plain read, NO_FILTER for a version 1 segment
+        private long[] filter() throws IOException {
+            long[] bits = filter;
+            if (bits != null) {
+                return bits;
+            }
+            synchronized (this) {
+                if (filter == null) {
+                    filter = readFilter(file);
+                }
+                return filter;
+            }
+        }
+
+        // mapped on first use (the crc checked the first time only), read with absolute gets or on
+        // duplicates after that; true in newlyMapped[0] if this call mapped it
+        private ByteBuffer map(boolean[] newlyMapped) throws IOException {
+            ByteBuffer buffer = mapped;
+            if (buffer != null) {
+                return buffer;
+            }
+            synchronized (this) {
+                if (mapped == null) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                    if (buffer.capacity() < V1_HEADER_BYTES + 8 || buffer.getInt(0) != MAGIC) {
+                        throw new IOException("Err: not a flight archive segment: " + file);
+                    }
+                    if (buffer.getInt(4) != 1 && buffer.getInt(4) != VERSION) {
+                        throw new IOException("Err: unsupported archive segment version: " + file);
+                    }
+                    if (!verified) {
+                        CRC32 crc = new CRC32();
+                        crc.update(buffer.duplicate().limit(buffer.capacity() - 8));
+                        if (buffer.getLong(buffer.capacity() - 8) != crc.getValue()) {
+                            throw new IOException("Err: archive segment checksum mismatch: " + file);
+                        }
+                        verified = true;
+                    }
+                    mapped = buffer;
+                    newlyMapped[0] = true;
+                }
+                return mapped;
+            }
+        }
+
+        // a lookup still holding the buffer keeps the mapping alive until it is done
+        private void unmap() {
+            mapped = null;
+        }
+    }
+
+    private static final Comparator<Segment> BY_DATE =
+            Comparator.comparing((Segment s) -> s.date).thenComparingInt(s -> s.sequence);
+
+    private final Path directory;
+    // ordered by date, replaced on write so a lookup always sees a whole list
+    private volatile List<Segment> segments = List.of();
+    // segments mapped by lookups, oldest mapping first
+    private final ArrayDeque<Segment> mappedSegments = new ArrayDeque<>();
+
+    private FlightArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    //opens (or creates) the archive in a directory; segments are only read when a lookup needs them
+    public static FlightArchive open(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "Err: directory must not be null");
+        Files.createDirectories(directory);
+        FlightArchive archive = new FlightArchive(directory);
+        List<Segment> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher m = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (m.matches()) {
+                    found.add(new Segment(file, LocalDate.parse(m.group(1)), Integer.parseInt(m.group(2))));
+                }
+            }
+        }
+        found.sort(BY_DATE);
+        archive.segments = List.copyOf(found);
+        return archive;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // dates with at least one segment, oldest first
+    public List<LocalDate> getDates() {
+        return segments.stream().map(s -> s.date).distinct().toList();
+    }
+
+    // writes one new segment; flights of the reservations that are not in the list are written too
+    synchronized ArchivedDay write(LocalDate date, List<Flight> flights, List<Reservation> reservations)
+            throws IOException {
+        List<Flight> all = new ArrayList<>(flights);
+        Map<Flight, Integer> flightIndex = new IdentityHashMap<>();
+        for (int i = 0; i < all.size(); i++) {
+            flightIndex.put(all.get(i), i);
+        }
+        Map<String, List<Reservation>> byCustomer = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            if (flightIndex.putIfAbsent(reservation.getFlight(), all.size()) == null) {
+                all.add(reservation.getFlight());
+            }
+            byCustomer.computeIfAbsent(FlightService.normalizeCustomer(reservation.getCustomerName()),
+                    c -> new ArrayList<>()).add(reservation);
+        }
+        List<String> customers = new ArrayList<>(byCustomer.keySet());
+        customers.sort(Comparator.comparingLong(FlightArchive::hash));
+
+        long heapBytes = 0;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + all.size() * 64 + reservations.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[HEADER_BYTES]);
+        int[] flightOffsets = new int[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            flightOffsets[i] = out.size();
+            writeFlight(out, all.get(i));
+            if (i < flights.size()) {
+                heapBytes += heapBytes(all.get(i));
+            }
+        }
+        int[] customerOffsets = new int[customers.size()];
+        for (int c = 0; c < customers.size(); c++) {
+            customerOffsets[c] = out.size();
+            for (Reservation reservation : byCustomer.get(customers.get(c))) {
+                writeReservation(out, reservation, flightIndex.get(reservation.getFlight()));
+                heapBytes += heapBytes(reservation);
+            }
+        }
+        int flightTable = out.size();
+        for (int offset : flightOffsets) {
+            out.writeInt(offset);
+        }
+        int customerTable = out.size();
+        long[] filter = new long[Math.max(1, (customers.size() * FILTER_BITS_PER_CUSTOMER + 63) / 64)];
+        for (int c = 0; c < customers.size(); c++) {
+            long hash = hash(customers.get(c));
+            out.writeLong(hash);
+            out.writeInt(customerOffsets[c]);
+            out.writeInt(byCustomer.get(customers.get(c)).size());
+            for (int k = 0; k < FILTER_HASHES; k++) {
+                int bit = filterBit(hash, k, filter.length);
+                filter[bit >>> 6] |= 1L << bit;
+            }
+        }
+        int filterOffset = out.size();
+        for (long word : filter) {
+            out.writeLong(word);
+        }
+        out.flush();
+
+        byte[] body = bytes.toByteArray();
+        CRC32 filterCrc = new CRC32();
+        filterCrc.update(body, filterOffset, filter.length * Long.BYTES);
+        ByteBuffer.wrap(body).putInt(MAGIC).putInt(VERSION).putLong(date.toEpochDay()).putInt(all.size())
+                .putInt(reservations.size()).putInt(customers.size()).putInt(flightTable).putInt(customerTable)
+                .putInt(filterOffset).putInt(filter.length).putInt((int) filterCrc.getValue());
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        int sequence = 0;
+        for (Segment segment : segments) {
+            if (segment.date.equals(date)) {
+                sequence = Math.max(sequence, segment.sequence + 1);
+            }
+        }
+        Path file = directory.resolve(String.format("segment-%s-%d.seg", date, sequence));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(body);
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8).putLong(crc.getValue()).flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        Segment written = new Segment(file, date, sequence);
+        written.filter = filter;
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(written);
+        updated.sort(BY_DATE);
+        segments = List.copyOf(updated);
+        return new ArchivedDay(date, flights.size(), reservations.size(), body.length + 8L, heapBytes);
+    }
+
+    // every archived reservation of the customer (already normalized), oldest date first
+    List<Reservation> findByCustomer(String normalizedCustomer) {
+        long hash = hash(normalizedCustomer);
+        List<Reservation> found = new ArrayList<>();
+        for (Segment segment : segments) {
+            ByteBuffer buffer;
+            try {
+                if (!mightContain(segment.filter(), hash)) {
+                    continue;
+                }
+                boolean[] newlyMapped = new boolean[1];
+                buffer = segment.map(newlyMapped);
+                if (newlyMapped[0]) {
+                    mapped(segment);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int customers = buffer.getInt(24);
+            int table = buffer.getInt(32);
+            int lo = 0;
+            int hi = customers;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (buffer.getLong(table + mid * CUSTOMER_ENTRY_BYTES) < hash) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            Map<Integer, Flight> decoded = null;
+            // names with the same hash sit next to each other
+            for (int c = lo; c < customers && buffer.getLong(table + c * CUSTOMER_ENTRY_BYTES) == hash; c++) {
+                ByteBuffer in = buffer.duplicate().position(buffer.getInt(table + c * CUSTOMER_ENTRY_BYTES + 8));
+                int count = buffer.getInt(table + c * CUSTOMER_ENTRY_BYTES + 12);
+                for (int r = 0; r < count; r++) {
+                    long id = in.getLong();
+                    int flight = in.getInt();
+                    String customerName = readString(in);
+                    if (!FlightService.normalizeCustomer(customerName).equals(normalizedCustomer)) {
+                        break;
+                    }
+                    int seatsBooked = in.getInt();
+                    String fareClass = readString(in);
+                    int[] seats = new int[in.getInt()];
+                    for (int s = 0; s < seats.length; s++) {
+                        seats[s] = in.getInt();
+                    }
+                    if (decoded == null) {
+                        decoded = new HashMap<>();
+                    }
+                    Flight archived = decoded.computeIfAbsent(flight, i -> readFlight(buffer, i));
+                    found.add(new Reservation(id, customerName, archived, seatsBooked,
+                            seats.length == 0 ? null : seats, fareClass.isEmpty() ? null : fareClass));
+                }
+            }
+        }
+        return found;
+    }
+
+    // drops the oldest mapping once more than MAPPED_SEGMENTS are mapped
+    private void mapped(Segment segment) {
+        synchronized (mappedSegments) {
+            mappedSegments.addLast(segment);
+            if (mappedSegments.size() > MAPPED_SEGMENTS) {
+                mappedSegments.removeFirst().unmap();
+            }
+        }
+    }
+
+    // number of segments currently mapped, for tests
+    int mappedSegmentCount() {
+        synchronized (mappedSegments) {
+            return mappedSegments.size();
+        }
+    }
+
+    private static long[] readFilter(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.limit() < V1_HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException("Err: not a flight archive segment: " + file);
+            }
+            if (header.getInt(4) == 1) {
+                return NO_FILTER;
+            }
+            if (header.getInt(4) != VERSION || header.limit() < HEADER_BYTES) {
+                throw new IOException("Err: unsupported archive segment version: " + file);
+            }
+            long offset = header.getInt(36);
+            long words = header.getInt(40);
+            if (offset < HEADER_BYTES || words <= 0 || offset + words * Long.BYTES > channel.size() - 8) {
+                throw new IOException("Err: archive segment checksum mismatch: " + file);
+            }
+            ByteBuffer bytes = ByteBuffer.allocate((int) words * Long.BYTES);
+            readFully(channel, bytes, offset);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.array());
+            if ((int) crc.getValue() != header.getInt(44)) {
+                throw new IOException("Err: archive segment checksum mismatch: " + file);
+            }
+            long[] filter = new long[(int) words];
+            bytes.flip().asLongBuffer().get(filter);
+            return filter;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            int read = channel.read(into, position + into.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+    private static boolean mightContain(long[] filter, long hash) {
+        if (filter == NO_FILTER) {
+            return true;
+        }
+        for (int k = 0; k < FILTER_HASHES; k++) {
+            int bit = filterBit(hash, k, filter.length);
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // double hashing over the 64 bit name hash
+    private static int filterBit(long hash, int k, int words) {
+        return (int) Long.remainderUnsigned(hash + k * ((hash >>> 32) | 1), words * 64L);
+    }
+
+    private static void writeFlight(DataOutputStream out, Flight flight) throws IOException {
+        writeString(out, flight.getFlightNumber());
+        writeString(out, flight.getDestination());
+        out.writeLong(flight.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(flight.getDepartureTime().getNano());
+        SeatLayout layout = flight.getSeatLayout();
+        out.writeByte((flight.hasRoute() ? ROUTE : 0) | (layout != null ? SEAT_MAP : 0));
+        if (flight.hasRoute()) {
+            writeString(out, flight.getOrigin());
+            out.writeLong(flight.getArrivalTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(flight.getArrivalTime().getNano());
+        }
+        if (layout != null) {
+            writeString(out, layout.toString());
+        }
+        out.writeInt(flight.getAvailableSeats());
+    }
+
+    private static Flight readFlight(ByteBuffer buffer, int index) {
+        int table = buffer.getInt(28);
+        ByteBuffer in = buffer.duplicate().position(buffer.getInt(table + index * 4));
+        String flightNumber = readString(in);
+        String destination = readString(in);
+        LocalDateTime departure = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        byte flags = in.get();
+        String origin = null;
+        LocalDateTime arrival = null;
+        SeatLayout layout = null;
+        if ((flags & ROUTE) != 0) {
+            origin = readString(in);
+            arrival = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        }
+        if ((flags & SEAT_MAP) != 0) {
+            layout = SeatLayout.parse(readString(in));
+        }
+        int availableSeats = in.getInt();
+        if (layout != null) {
+            Flight flight = new Flight(flightNumber, origin, destination, departure, arrival, layout);
+            flight.tryReserveSeats(layout.capacity() - availableSeats);
+            return flight;
+        }
+        return origin == null
+                ? new Flight(flightNumber, destination, departure, availableSeats)
+                : new Flight(flightNumber, origin, destination, departure, arrival, availableSeats);
+    }
+
+    private static void writeReservation(DataOutputStream out, Reservation reservation, int flight) throws IOException {
+        out.writeLong(reservation.getId());
+        out.writeInt(flight);
+        writeString(out, reservation.getCustomerName());
+        out.writeInt(reservation.getSeatsBooked());
+        writeString(out, reservation.getFareClass() == null ? "" : reservation.getFareClass());
+        int[] seats = reservation.seats();
+        out.writeInt(seats == null ? 0 : seats.length);
+        if (seats != null) {
+            for (int seat : seats) {
+                out.writeInt(seat);
+            }
+        }
+    }
+
+    // length-prefixed UTF-8, so a mapped buffer can be read without a stream around it
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > 0xFFFF) {
+            throw new IllegalArgumentException("Err: value too long to archive: " + value.substring(0, 32) + "...");
+        }
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] utf8 = new byte[in.getShort() & 0xFFFF];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // 64 bit FNV-1a of the normalized customer name
+    private static long hash(String normalizedCustomer) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalizedCustomer.length(); i++) {
+            h ^= normalizedCustomer.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // the flight, its strings, seat map and index entries; an estimate, strings shared between flights
+    // are counted once per flight
+    static long heapBytes(Flight flight) {
+        long bytes = FLIGHT_BYTES + FLIGHT_INDEX_BYTES + stringBytes(flight.getFlightNumber())
+                + stringBytes(flight.getDestination());
+        if (flight.hasRoute()) {
+            bytes += stringBytes(flight.getOrigin()) + CONNECTION_BYTES;
+        }
+        SeatLayout layout = flight.getSeatLayout();
+        if (layout != null) {
+            bytes += 16 + 16 + 8L * layout.words() + 16 + 4L * layout.fareClasses();
+        }
+        return bytes;
+    }
+
+    static long heapBytes(Reservation reservation) {
+        long bytes = RESERVATION_BYTES + RESERVATION_INDEX_BYTES + stringBytes(reservation.getCustomerName());
+        if (reservation.seats() != null) {
+            bytes += align(16 + 4L * reservation.seats().length);
+        }
+        return bytes;
+    }
+
+    // String plus its byte[], Latin-1 text
+    private static long stringBytes(String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,94 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Background thread that keeps moving departed flights into a FlightService's archive: every run archives
+//the departure dates before today, so a flight leaves memory the day after it departed. The per-date
+//reports of every run are kept for getReports().
+
+public class FlightArchiver implements Closeable {
+
+    private final FlightService flightService;
+    private final Clock clock;
+    private final List<ArchivedDay> reports = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    private FlightArchiver(FlightService flightService, Clock clock) {
+        this.flightService = flightService;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flight-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    //the service must have an archive set; the first run starts right away
+    public static FlightArchiver start(FlightService flightService, Duration interval) {
+        return start(flightService, interval, Clock.systemDefaultZone());
+    }
+
+    public static FlightArchiver start(FlightService flightService, Duration interval, Clock clock) {
+        Objects.requireNonNull(flightService, "Err: flightService must not be null");
+        Objects.requireNonNull(interval, "Err: interval must not be null");
+        Objects.requireNonNull(clock, "Err: clock must not be null");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Err: interval must be > 0");
+        }
+        if (!flightService.hasArchive()) {
+            throw new IllegalStateException("Err: no archive set, see FlightService.setArchive");
+        }
+        FlightArchiver archiver = new FlightArchiver(flightService, clock);
+        archiver.scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archiver.archiveNow();
+            } catch (IOException | RuntimeException e) {
+                // whatever was not written stayed in memory, the next run will try again
+                System.err.println("Error while archiving departed flights: " + e.getMessage());
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        return archiver;
+    }
+
+    //one run now, on the calling thread
+    public List<ArchivedDay> archiveNow() throws IOException {
+        List<ArchivedDay> archived = flightService.archiveDeparted(LocalDate.now(clock));
+        reports.addAll(archived);
+        return archived;
+    }
+
+    // every date archived so far, in the order it happened
+    public List<ArchivedDay> getReports() {
+        return List.copyOf(reports);
+    }
+
+    // sum of ArchivedDay.getEstimatedHeapBytes over every report, an estimate and not a measurement
+    public long getEstimatedHeapBytes() {
+        long total = 0;
+        for (ArchivedDay day : reports) {
+            total += day.getEstimatedHeapBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        // lets a run that is writing a segment finish, no further runs start
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.shivaganesh.flight_reservation_system;
+
+//One change to the seat inventory, as delivered by FlightEventFeed. Immutable.
+//Sequence numbers are per feed, start at 1 and have no holes unless the subscriber was told about a gap.
+
+public class FlightEvent {
+
+    public enum Type {
+        FLIGHT_ADDED,
+        // a bulk load (addFlights): one event for the whole batch, without a flight number; getSeats() is
+        // the number of flights added
+        FLIGHTS_ADDED,
+        // a reservation was made (bookFlight, bookFlights or a confirmed hold)
+        SEATS_BOOKED,
+        // the last seats were taken, by a booking or a hold
+        SOLD_OUT,
+        // seats went back on sale: a cancellation, or a hold released or expired
+        SEATS_RELEASED
+    }
+
+    private final long sequence;
+    // null for the internal gap marker
+    private final Type type;
+    private final String flightNumber;
+    private final int seats;
+    private final int availableSeats;
+    private final int version;
+    private final long reservationId;
+
+    FlightEvent(long sequence, Type type, String flightNumber, int seats, int availableSeats, int version,
+                long reservationId) {
+        this.sequence = sequence;
+        this.type = type;
+        this.flightNumber = flightNumber;
+        this.seats = seats;
+        this.availableSeats = availableSeats;
+        this.version = version;
+        this.reservationId = reservationId;
+    }
+
+    // stands in for events the feed had to reject while full; never handed to listeners
+    static FlightEvent gap(long sequence, long missed) {
+        return new FlightEvent(sequence, null, null, (int) Math.min(missed, Integer.MAX_VALUE), 0, 0, 0);
+    }
+
+    boolean isGap() {
+        return type == null;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // null for FLIGHTS_ADDED
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    // seats booked or released by this change, the flight's seats for FLIGHT_ADDED, the number of flights
+    // for FLIGHTS_ADDED, 0 for SOLD_OUT
+    public int getSeats() {
+        return seats;
+    }
+
+    // the flight's available seats right after the change, 0 for FLIGHTS_ADDED
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    // the flight's version (Flight.getVersion) that had availableSeats; a later version means a later
+    // state of the flight, even if events of one flight arrive out of order
+    public int getVersion() {
+        return version;
+    }
+
+    // the reservation booked or cancelled, 0 if the change was not about a reservation
+    public long getReservationId() {
+        return reservationId;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", flightNumber='" + flightNumber + '\'' +
+                ", seats=" + seats +
+                ", availableSeats=" + availableSeats +
+                ", version=" + version +
+                ", reservationId=" + reservationId +
+                '}';
+    }
+}
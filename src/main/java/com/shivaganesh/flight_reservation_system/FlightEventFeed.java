@@ -0,0 +1,164 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//In-process publish/subscribe feed of a FlightService's seat inventory changes, see FlightEvent.
+//
+//A bounded ring in the style of the LMAX Disruptor: publishers (the booking threads) claim the next
+//sequence with one compare-and-set on the cursor and store an immutable event in its slot. Each
+//subscription has its own thread that reads the ring in batches and checks every slot's sequence, so
+//it can tell an event not yet written from one that was overwritten.
+//
+//Publishing never waits. DROP subscribers are simply overtaken when they fall a ring behind.
+//BACKPRESSURE subscribers hold the ring back instead; a publish that would overwrite one of their
+//unread events is rejected, and the next successful publish puts a gap marker in front of itself so
+//every subscriber learns how many events it missed.
+
+public class FlightEventFeed {
+
+    static final int DEFAULT_CAPACITY = 16384;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<FlightEvent> slots;
+
+    // last claimed sequence, 0 before the first event
+    private final AtomicLong cursor = new AtomicLong();
+    // rejections not yet covered by a gap marker
+    private final AtomicLong pendingGap = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+
+    // last sequence each BACKPRESSURE subscription has consumed; replaced when one comes or goes
+    private volatile AtomicLong[] gates = new AtomicLong[0];
+    // lowest of the gates as last seen, Long.MAX_VALUE without any; may be behind, never ahead
+    private volatile long gatedAt = Long.MAX_VALUE;
+
+    public FlightEventFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FlightEventFeed(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Err: capacity must be a power of two >= 2");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // sequence of the newest event, 0 if none yet
+    public long getLastSequence() {
+        return cursor.get();
+    }
+
+    // events dropped because a BACKPRESSURE subscriber had the ring full
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    // delivers every event published from now on
+    public FlightEventSubscription subscribe(FlightEventListener listener, SubscriberPolicy policy) {
+        return subscribe(listener, policy, 0);
+    }
+
+    // resumes at fromSequence (e.g. the last one processed + 1); events no longer in the ring are
+    // reported through onGap. fromSequence <= 0 starts with the next event published
+    public FlightEventSubscription subscribe(FlightEventListener listener, SubscriberPolicy policy, long fromSequence) {
+        if (listener == null || policy == null) {
+            throw new IllegalArgumentException("Err: listener and policy must not be null");
+        }
+        FlightEventSubscription subscription;
+        synchronized (this) {
+            long from = fromSequence > 0 ? Math.min(fromSequence, cursor.get() + 1) : cursor.get() + 1;
+            subscription = new FlightEventSubscription(this, listener, policy, from);
+            if (policy == SubscriberPolicy.BACKPRESSURE) {
+                AtomicLong[] updated = Arrays.copyOf(gates, gates.length + 1);
+                updated[updated.length - 1] = subscription.position();
+                gates = updated;
+                gatedAt = Math.min(gatedAt, from - 1);
+            }
+        }
+        subscription.start();
+        return subscription;
+    }
+
+    synchronized void unsubscribe(FlightEventSubscription subscription) {
+        AtomicLong[] current = gates;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription.position()) {
+                AtomicLong[] updated = new AtomicLong[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                gates = updated;
+                gatedAt = lowestGate(updated);
+                return;
+            }
+        }
+    }
+
+    private static long lowestGate(AtomicLong[] current) {
+        long lowest = Long.MAX_VALUE;
+        for (AtomicLong gate : current) {
+            lowest = Math.min(lowest, gate.get());
+        }
+        return lowest;
+    }
+
+    // state is the packed seat state (Flight.seatState) the change itself set, as its compare-and-set
+    // returned it; read afterwards it could already be a later booking's
+    void publish(FlightEvent.Type type, Flight flight, int seats, long state, long reservationId) {
+        append(type, flight.getFlightNumber(), seats, state, reservationId);
+    }
+
+    // an event about a whole batch instead of one flight, e.g. FLIGHTS_ADDED with the number of flights
+    void publishBatch(FlightEvent.Type type, int count) {
+        append(type, null, count, 0, 0);
+    }
+
+    private void append(FlightEvent.Type type, String flightNumber, int seats, long state, long reservationId) {
+        int needed = pendingGap.get() > 0 ? 2 : 1;
+        long last;
+        while (true) {
+            long current = cursor.get();
+            last = current + needed;
+            // slot of "last" still holds last - capacity, which every gate must have read
+            if (last - capacity > gatedAt) {
+                long lowest = lowestGate(gates);
+                gatedAt = lowest;
+                if (last - capacity > lowest) {
+                    pendingGap.incrementAndGet();
+                    rejected.increment();
+                    return;
+                }
+            }
+            if (cursor.compareAndSet(current, last)) {
+                break;
+            }
+        }
+        if (needed == 2) {
+            // another publisher may have taken the count already, a marker of 0 is skipped
+            slots.set(index(last - 1), FlightEvent.gap(last - 1, pendingGap.getAndSet(0)));
+        }
+        slots.set(index(last), new FlightEvent(last, type, flightNumber, seats,
+                Flight.seatsOf(state), Flight.versionOf(state), reservationId));
+    }
+
+    int index(long sequence) {
+        return (int) sequence & mask;
+    }
+
+    FlightEvent slot(long sequence) {
+        return slots.get(index(sequence));
+    }
+
+    long cursor() {
+        return cursor.get();
+    }
+}
@@ -0,0 +1,17 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.List;
+
+//Receives a subscription's events on its own thread, see FlightEventFeed.subscribe.
+
+public interface FlightEventListener {
+
+    // the next events in sequence order; the list is reused after the call returns
+    void onEvents(List<FlightEvent> events);
+
+    // "missed" events were lost right before the next one delivered, because this subscriber fell
+    // behind (SubscriberPolicy.DROP) or the feed was full (SubscriberPolicy.BACKPRESSURE). Reload the
+    // state from FlightService if it matters
+    default void onGap(long missed) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//One subscriber of a FlightEventFeed: a daemon thread that reads the ring in batches of up to
+//MAX_BATCH events and hands them to the listener. If the listener throws, the subscription stops
+//and keeps the exception (getFailure); subscribe again from getNextSequence() to carry on.
+
+public class FlightEventSubscription implements AutoCloseable {
+
+    static final int MAX_BATCH = 256;
+    // idle back-off: spin, then yield, then park
+    private static final int SPINS = 64;
+    private static final int YIELDS = 16;
+    private static final long PARK_NANOS = 100_000;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final FlightEventFeed feed;
+    private final FlightEventListener listener;
+    private final SubscriberPolicy policy;
+    // last sequence handed to the listener (or skipped); the gate of a BACKPRESSURE subscription
+    private final AtomicLong position;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+
+    FlightEventSubscription(FlightEventFeed feed, FlightEventListener listener, SubscriberPolicy policy, long from) {
+        this.feed = feed;
+        this.listener = listener;
+        this.policy = policy;
+        this.position = new AtomicLong(from - 1);
+        this.thread = new Thread(this::run, "flight-events-" + THREADS.incrementAndGet());
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    AtomicLong position() {
+        return position;
+    }
+
+    public SubscriberPolicy getPolicy() {
+        return policy;
+    }
+
+    // where a new subscription would have to start to continue exactly after this one
+    public long getNextSequence() {
+        return position.get() + 1;
+    }
+
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<FlightEvent> batch = new ArrayList<>(MAX_BATCH);
+        long next = position.get() + 1;
+        int idle = 0;
+        try {
+            while (running) {
+                long missed = 0;
+                while (batch.size() < MAX_BATCH) {
+                    FlightEvent event = feed.slot(next);
+                    if (event != null && event.getSequence() == next && !event.isGap()) {
+                        batch.add(event);
+                        next++;
+                        continue;
+                    }
+                    if (event == null || event.getSequence() < next) {
+                        // not written yet; either past the newest event or a publisher is mid-write
+                        break;
+                    }
+                    // a gap marker, or this slot was overwritten because we fell a ring behind:
+                    // deliver what came before first
+                    if (!batch.isEmpty()) {
+                        break;
+                    }
+                    if (event.getSequence() == next) {
+                        missed += event.getSeats();
+                        next++;
+                    } else {
+                        long oldest = Math.max(next + 1, feed.cursor() - feed.getCapacity() + 1);
+                        missed += oldest - next;
+                        next = oldest;
+                    }
+                }
+                if (missed > 0) {
+                    listener.onGap(missed);
+                }
+                if (!batch.isEmpty()) {
+                    listener.onEvents(batch);
+                    batch.clear();
+                }
+                if (next - 1 != position.get()) {
+                    position.lazySet(next - 1);
+                    idle = 0;
+                } else {
+                    idle = idleWait(idle);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            running = false;
+            feed.unsubscribe(this);
+        }
+    }
+
+    private static int idleWait(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+
+    // stops delivery and waits for the listener to return; a BACKPRESSURE subscription stops holding
+    // the feed back
+    @Override
+    public void close() {
+        running = false;
+        if (Thread.currentThread() != thread) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        feed.unsubscribe(this);
+    }
+}
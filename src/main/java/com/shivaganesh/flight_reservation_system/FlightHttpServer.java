@@ -0,0 +1,395 @@
+package com.shivaganesh.flight_reservation_system;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Small JSON over HTTP front end for a shared FlightService, built on the JDK's com.sun.net.httpserver.
+//
+//  GET    /flights?destination=London&date=2025-12-21
+//  GET    /itineraries?origin=Paris&destination=London&departure=2025-12-21T06:00&maxLegs=2&minConnection=45
+//                              maxLegs defaults to 2, minConnection (minutes) to 60
+//  POST   /bookings            customer=..&flightNumber=..&seats=..  (form body or query string)
+//                              with fareClass=..&adjacent=true on a flight with a seat map
+//  GET    /reservations?customer=Alice
+//  GET    /completions/destinations?prefix=lo&limit=10
+//  GET    /completions/customers?prefix=al      typeahead, limit defaults to 10
+//  DELETE /reservations/{id}
+//  GET    /metrics             Prometheus text format, see FlightMetricsSnapshot
+//
+//Each request runs on its own virtual thread when the JVM has them (Java 21+); on older JVMs
+//a fixed pool of platform threads is used instead. Bad input answers 400, sold out 409, a body over
+//MAX_BODY_BYTES 413. Anything unexpected is logged and answers 500 without the details.
+//
+//Headers and body go out as separate writes, so with Nagle on every small response waits for the
+//client's delayed ACK (~40 ms). Launch with -Dsun.net.httpserver.nodelay=true (FlightReservationApp
+//sets it for --server); the JDK reads it once, when the first server is created.
+
+public class FlightHttpServer {
+
+    private static final int PLATFORM_THREADS = 64;
+
+    // form bodies are a few hundred bytes; a larger one is refused with 413 instead of buffered
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final FlightService flightService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public FlightHttpServer(FlightService flightService, int port) throws IOException {
+        this.flightService = Objects.requireNonNull(flightService, "Err: flightService must not be null");
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/flights", exchange -> handle(exchange, this::flights));
+        server.createContext("/itineraries", exchange -> handle(exchange, this::itineraries));
+        server.createContext("/bookings", exchange -> handle(exchange, this::bookings));
+        server.createContext("/reservations", exchange -> handle(exchange, this::reservations));
+        server.createContext("/completions", exchange -> handle(exchange, this::completions));
+        server.createContext("/metrics", this::metrics);
+    }
+
+    // virtual threads are looked up reflectively so the project still builds and runs on Java 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "flight-http-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newFixedThreadPool(PLATFORM_THREADS, factory);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Handler {
+        Response handle(HttpExchange exchange, Map<String, String> params) throws IOException;
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String json;
+
+        private Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    private static final class BodyTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private BodyTooLargeException() {
+            super("Request body larger than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle(exchange, params(exchange));
+        } catch (SeatsUnavailableException e) {
+            response = error(409, e.getMessage());
+        } catch (BodyTooLargeException e) {
+            response = error(413, e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // the details stay in the server log, clients only learn that it failed
+            System.err.println("Error while handling " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getPath() + ": " + e);
+            response = error(500, "Internal error");
+        }
+
+        byte[] body = response.json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        byte[] body = flightService.getMetrics().toPrometheusText().getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().close();
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Response flights(HttpExchange exchange, Map<String, String> params) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Use GET");
+        }
+        LocalDate date = LocalDate.parse(required(params, "date"));
+        List<Flight> flights = flightService.searchFlights(required(params, "destination"), date.atStartOfDay());
+        StringBuilder json = new StringBuilder(64 + flights.size() * 128).append('[');
+        for (int i = 0; i < flights.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendFlight(json, flights.get(i));
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private Response itineraries(HttpExchange exchange, Map<String, String> params) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Use GET");
+        }
+        LocalDateTime departure = LocalDateTime.parse(required(params, "departure"));
+        int maxLegs = intParam(params, "maxLegs", 2);
+        int minConnection = intParam(params, "minConnection", 60);
+        List<Itinerary> itineraries = flightService.searchItineraries(required(params, "origin"),
+                required(params, "destination"), departure, maxLegs, Duration.ofMinutes(minConnection));
+        StringBuilder json = new StringBuilder(64 + itineraries.size() * 384).append('[');
+        for (int i = 0; i < itineraries.size(); i++) {
+            Itinerary itinerary = itineraries.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"stops\":").append(itinerary.getStops());
+            json.append(",\"departureTime\":\"").append(itinerary.getDepartureTime()).append('"');
+            json.append(",\"arrivalTime\":\"").append(itinerary.getArrivalTime()).append('"');
+            json.append(",\"legs\":[");
+            List<Flight> legs = itinerary.getLegs();
+            for (int j = 0; j < legs.size(); j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                appendFlight(json, legs.get(j));
+            }
+            json.append("]}");
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private Response bookings(HttpExchange exchange, Map<String, String> params) {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return error(405, "Use POST");
+        }
+        int seats;
+        try {
+            seats = Integer.parseInt(required(params, "seats"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("seats must be a number");
+        }
+        String fareClass = params.get("fareClass");
+        boolean adjacent = Boolean.parseBoolean(params.get("adjacent"));
+        Reservation reservation = fareClass == null && !adjacent
+                ? flightService.bookFlight(required(params, "customer"), required(params, "flightNumber"), seats)
+                : flightService.bookSeats(required(params, "customer"), required(params, "flightNumber"),
+                        fareClass == null || fareClass.isBlank() ? null : fareClass, seats, adjacent);
+        StringBuilder json = new StringBuilder(256);
+        appendReservation(json, reservation);
+        return new Response(201, json.toString());
+    }
+
+    private Response reservations(HttpExchange exchange, Map<String, String> params) {
+        String path = exchange.getRequestURI().getPath();
+        if ("DELETE".equals(exchange.getRequestMethod())) {
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            long reservationId;
+            try {
+                reservationId = Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("reservation id must be a number");
+            }
+            StringBuilder json = new StringBuilder(256);
+            appendReservation(json, flightService.cancelReservation(reservationId));
+            return new Response(200, json.toString());
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Use GET or DELETE");
+        }
+        List<Reservation> reservations = flightService.findReservationsByCustomer(required(params, "customer"));
+        StringBuilder json = new StringBuilder(64 + reservations.size() * 192).append('[');
+        for (int i = 0; i < reservations.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendReservation(json, reservations.get(i));
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private Response completions(HttpExchange exchange, Map<String, String> params) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Use GET");
+        }
+        String path = exchange.getRequestURI().getPath();
+        String prefix = params.getOrDefault("prefix", "");
+        int limit = intParam(params, "limit", 10);
+        List<Completion> completions;
+        if (path.equals("/completions/destinations")) {
+            completions = flightService.completeDestinations(prefix, limit);
+        } else if (path.equals("/completions/customers")) {
+            completions = flightService.completeCustomers(prefix, limit);
+        } else {
+            return error(404, "Use /completions/destinations or /completions/customers");
+        }
+        StringBuilder json = new StringBuilder(16 + completions.size() * 48).append('[');
+        for (int i = 0; i < completions.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, completions.get(i).getName());
+            json.append(",\"count\":").append(completions.get(i).getCount()).append('}');
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    // query string plus a form-encoded body, body values win
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new BodyTooLargeException();
+            }
+            if (body.length > 0) {
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder(64).append("{\"error\":");
+        appendString(json, message == null ? "" : message);
+        return new Response(status, json.append('}').toString());
+    }
+
+    private static void appendFlight(StringBuilder json, Flight f) {
+        json.append("{\"flightNumber\":");
+        appendString(json, f.getFlightNumber());
+        if (f.hasRoute()) {
+            json.append(",\"origin\":");
+            appendString(json, f.getOrigin());
+        }
+        json.append(",\"destination\":");
+        appendString(json, f.getDestination());
+        json.append(",\"departureTime\":\"").append(f.getDepartureTime()).append('"');
+        if (f.hasRoute()) {
+            json.append(",\"arrivalTime\":\"").append(f.getArrivalTime()).append('"');
+        }
+        json.append(",\"availableSeats\":").append(f.getAvailableSeats()).append('}');
+    }
+
+    private static void appendReservation(StringBuilder json, Reservation r) {
+        json.append("{\"id\":").append(r.getId()).append(",\"customerName\":");
+        appendString(json, r.getCustomerName());
+        json.append(",\"seatsBooked\":").append(r.getSeatsBooked());
+        if (r.getFareClass() != null) {
+            json.append(",\"fareClass\":");
+            appendString(json, r.getFareClass());
+        }
+        List<String> seatNumbers = r.getSeatNumbers();
+        if (!seatNumbers.isEmpty()) {
+            json.append(",\"seats\":[");
+            for (int i = 0; i < seatNumbers.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendString(json, seatNumbers.get(i));
+            }
+            json.append(']');
+        }
+        json.append(",\"flight\":");
+        appendFlight(json, r.getFlight());
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,56 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+//Where FlightService keeps its flights and flight indexes.
+//HeapFlightInventory is the default; MappedFlightInventory keeps very large schedules in a memory-mapped file.
+//FlightService serializes add calls, lookups may run concurrently with them.
+
+public interface FlightInventory {
+
+    // the caller has already checked that no flight with this number exists
+    void add(Flight flight);
+
+    // adds a batch and builds its index entries in one step instead of per flight; the caller has
+    // checked the numbers are new and distinct
+    default void addAll(List<Flight> batch) {
+        for (Flight flight : batch) {
+            add(flight);
+        }
+    }
+
+    // the managed flight with this number, or null
+    Flight find(String flightNumber);
+
+    // flights to the destination (any case, surrounding spaces ignored) departing on that date
+    // that still have seats, ordered by departure time
+    List<Flight> searchAvailable(String destination, LocalDate date);
+
+    // the same flights handed to action in order instead of collected into a list; returns how many.
+    // Does not allocate on HeapFlightInventory
+    int forEachAvailable(String destination, LocalDate date, Consumer<? super Flight> action);
+
+    // flights to the destination departing in [from, to) that still have seats, ordered by departure
+    // time. Lazy: only the part of the index the caller actually consumes is visited
+    Iterator<Flight> scanAvailable(String destination, LocalDateTime from, LocalDateTime to);
+
+    List<Flight> all();
+
+    // the origins and destinations of the flights already held, for a FlightService taking the inventory
+    // over; repeats are fine
+    default List<String> places() {
+        List<String> places = new ArrayList<>();
+        for (Flight flight : all()) {
+            places.add(flight.getDestination());
+            if (flight.hasRoute()) {
+                places.add(flight.getOrigin());
+            }
+        }
+        return places;
+    }
+}
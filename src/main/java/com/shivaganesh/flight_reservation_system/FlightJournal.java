@@ -0,0 +1,464 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+//Append-only binary journal of addFlight/bookFlight/cancelReservation events.
+//Each record is framed as [length][crc32][type + payload], a torn record at the tail is dropped on open.
+//With GROUP_COMMIT the first waiting thread becomes the leader and writes + forces everything
+//appended so far, the others just wait for it, so many bookings share one fsync.
+
+class FlightJournal implements Closeable {
+
+    interface Visitor {
+        void flightAdded(Flight flight);
+
+        // a whole addFlights batch, from one record
+        void flightsAdded(List<Flight> flights);
+
+        // fareClass and assignedSeats are null unless the flight has a seat map
+        void seatsBooked(long reservationId, String customerName, String flightNumber, int seats,
+                         String fareClass, int[] assignedSeats);
+
+        void reservationCancelled(long reservationId);
+    }
+
+    private static final int MAGIC = 0x464A524E; // "FJRN"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int FRAME_BYTES = 8;
+
+    private static final byte FLIGHT_ADDED = 1;
+    private static final byte SEATS_BOOKED = 2;
+    private static final byte BATCH_BOOKED = 3;
+    private static final byte RESERVATION_CANCELLED = 4;
+    // FLIGHT_ADDED plus origin and arrival, for flights with a route
+    private static final byte ROUTED_FLIGHT_ADDED = 5;
+    // ROUTED_FLIGHT_ADDED with the seat layout instead of a seat count
+    private static final byte SEAT_MAPPED_FLIGHT_ADDED = 6;
+    // SEATS_BOOKED and BATCH_BOOKED with the fare class and seats of every booking
+    private static final byte ASSIGNED_SEATS_BOOKED = 7;
+    private static final byte ASSIGNED_BATCH_BOOKED = 8;
+    // an addFlights batch: the count, then each flight as its own FLIGHT_ADDED kind of record body
+    private static final byte FLIGHTS_ADDED = 9;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+
+    private final Object lock = new Object();
+    // records appended but not written yet, swapped with "spare" by the flushing leader
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private IOException failure;
+    private boolean closed;
+
+    private FlightJournal(FileChannel channel, FsyncPolicy policy) {
+        this.channel = channel;
+        this.policy = policy;
+    }
+
+    //opens (or creates) a journal for appending, replaying existing records into the visitor first
+    static FlightJournal open(Path file, FsyncPolicy policy, Visitor visitor) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            } else {
+                long validEnd = replay(channel, visitor);
+                // anything after the last complete record is a write that never finished
+                channel.truncate(validEnd);
+            }
+            channel.position(channel.size());
+            return new FlightJournal(channel, policy);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static void replay(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, visitor);
+        }
+    }
+
+    private static long replay(FileChannel channel, Visitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Err: not a flight journal");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Err: unsupported journal version");
+        }
+
+        long position = HEADER_BYTES;
+        long size = channel.size();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        CRC32 crc = new CRC32();
+        while (position + FRAME_BYTES <= size) {
+            frame.clear();
+            readFully(channel, frame, position);
+            frame.flip();
+            int length = frame.getInt();
+            int checksum = frame.getInt();
+            if (length <= 0 || position + FRAME_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(channel, body, position + FRAME_BYTES);
+            crc.reset();
+            crc.update(body.array(), 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(body.array(), visitor);
+            position += FRAME_BYTES + length;
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                return;
+            }
+        }
+    }
+
+    private static void apply(byte[] body, Visitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte type = in.readByte();
+        switch (type) {
+            case FLIGHT_ADDED, ROUTED_FLIGHT_ADDED, SEAT_MAPPED_FLIGHT_ADDED -> visitor.flightAdded(readFlight(type, in));
+            case FLIGHTS_ADDED -> {
+                int count = in.readInt();
+                List<Flight> flights = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    flights.add(readFlight(in.readByte(), in));
+                }
+                visitor.flightsAdded(flights);
+            }
+            case SEATS_BOOKED -> visitor.seatsBooked(in.readLong(), in.readUTF(), in.readUTF(), in.readInt(), null, null);
+            case BATCH_BOOKED -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    visitor.seatsBooked(in.readLong(), in.readUTF(), in.readUTF(), in.readInt(), null, null);
+                }
+            }
+            case ASSIGNED_SEATS_BOOKED -> readAssignedBooking(in, visitor);
+            case ASSIGNED_BATCH_BOOKED -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    readAssignedBooking(in, visitor);
+                }
+            }
+            case RESERVATION_CANCELLED -> visitor.reservationCancelled(in.readLong());
+            default -> throw new IOException("Err: unknown journal record type " + type);
+        }
+    }
+
+    private static Flight readFlight(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case FLIGHT_ADDED -> {
+                String flightNumber = in.readUTF();
+                String destination = in.readUTF();
+                LocalDateTime departure = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                return new Flight(flightNumber, destination, departure, in.readInt());
+            }
+            case ROUTED_FLIGHT_ADDED -> {
+                String flightNumber = in.readUTF();
+                String origin = in.readUTF();
+                String destination = in.readUTF();
+                LocalDateTime departure = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                LocalDateTime arrival = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                return new Flight(flightNumber, origin, destination, departure, arrival, in.readInt());
+            }
+            case SEAT_MAPPED_FLIGHT_ADDED -> {
+                String flightNumber = in.readUTF();
+                String origin = in.readUTF();
+                String destination = in.readUTF();
+                LocalDateTime departure = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                LocalDateTime arrival = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                return new Flight(flightNumber, origin, destination, departure, arrival,
+                        SeatLayout.parse(in.readUTF()));
+            }
+            default -> throw new IOException("Err: unknown flight record type " + type);
+        }
+    }
+
+    private static void readAssignedBooking(DataInputStream in, Visitor visitor) throws IOException {
+        long reservationId = in.readLong();
+        String customerName = in.readUTF();
+        String flightNumber = in.readUTF();
+        int seats = in.readInt();
+        String fareClass = in.readUTF();
+        int[] assigned = new int[in.readInt()];
+        for (int i = 0; i < assigned.length; i++) {
+            assigned[i] = in.readInt();
+        }
+        visitor.seatsBooked(reservationId, customerName, flightNumber, seats,
+                fareClass.isEmpty() ? null : fareClass, assigned.length == 0 ? null : assigned);
+    }
+
+    long appendFlightAdded(Flight flight) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeFlight(out, flight);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(bytes.toByteArray());
+    }
+
+    // like a booking batch, one record, so after a crash the flights are replayed all together or not at all
+    long appendFlightsAdded(List<Flight> flights) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + flights.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FLIGHTS_ADDED);
+            out.writeInt(flights.size());
+            for (Flight flight : flights) {
+                writeFlight(out, flight);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(bytes.toByteArray());
+    }
+
+    // the record type and the flight; a new seat-mapped flight has every seat free, so the layout is all
+    // there is to write for one
+    private static void writeFlight(DataOutputStream out, Flight flight) throws IOException {
+        if (flight.getSeatLayout() != null) {
+            out.writeByte(SEAT_MAPPED_FLIGHT_ADDED);
+        } else {
+            out.writeByte(flight.hasRoute() ? ROUTED_FLIGHT_ADDED : FLIGHT_ADDED);
+        }
+        out.writeUTF(flight.getFlightNumber());
+        if (flight.hasRoute()) {
+            out.writeUTF(flight.getOrigin());
+        }
+        out.writeUTF(flight.getDestination());
+        out.writeLong(flight.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(flight.getDepartureTime().getNano());
+        if (flight.hasRoute()) {
+            out.writeLong(flight.getArrivalTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(flight.getArrivalTime().getNano());
+        }
+        if (flight.getSeatLayout() != null) {
+            out.writeUTF(flight.getSeatLayout().toString());
+        } else {
+            out.writeInt(flight.getAvailableSeats());
+        }
+    }
+
+    long appendSeatsBooked(Reservation reservation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            boolean assigned = reservation.seats() != null;
+            out.writeByte(assigned ? ASSIGNED_SEATS_BOOKED : SEATS_BOOKED);
+            writeBooking(out, reservation);
+            if (assigned) {
+                writeAssignment(out, reservation);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(bytes.toByteArray());
+    }
+
+    // a batch is one record, so after a crash it is replayed completely or not at all
+    long appendBatchBooked(List<Reservation> batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + batch.size() * 40);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            boolean assigned = batch.stream().anyMatch(reservation -> reservation.seats() != null);
+            out.writeByte(assigned ? ASSIGNED_BATCH_BOOKED : BATCH_BOOKED);
+            out.writeInt(batch.size());
+            for (Reservation reservation : batch) {
+                writeBooking(out, reservation);
+                if (assigned) {
+                    writeAssignment(out, reservation);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(bytes.toByteArray());
+    }
+
+    long appendReservationCancelled(Reservation reservation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RESERVATION_CANCELLED);
+            out.writeLong(reservation.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(bytes.toByteArray());
+    }
+
+    private static void writeBooking(DataOutputStream out, Reservation reservation) throws IOException {
+        out.writeLong(reservation.getId());
+        out.writeUTF(reservation.getCustomerName());
+        out.writeUTF(reservation.getFlight().getFlightNumber());
+        out.writeInt(reservation.getSeatsBooked());
+    }
+
+    // fare class ("" for none) and seat ordinals (none for a flight without a seat map)
+    private static void writeAssignment(DataOutputStream out, Reservation reservation) throws IOException {
+        out.writeUTF(reservation.getFareClass() == null ? "" : reservation.getFareClass());
+        int[] seats = reservation.seats();
+        out.writeInt(seats == null ? 0 : seats.length);
+        if (seats != null) {
+            for (int seat : seats) {
+                out.writeInt(seat);
+            }
+        }
+    }
+
+    private long append(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Err: journal is closed");
+            }
+            if (pending.remaining() < FRAME_BYTES + body.length) {
+                pending = grow(pending, FRAME_BYTES + body.length);
+            }
+            pending.putInt(body.length).putInt((int) crc.getValue()).put(body);
+            long seq = ++appendedSeq;
+            if (policy == FsyncPolicy.EVERY_WRITE) {
+                try {
+                    flushPending(true);
+                } catch (IOException e) {
+                    failure = e;
+                    throw new UncheckedIOException(e);
+                }
+                durableSeq = seq;
+            }
+            return seq;
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return bigger.put(buffer);
+    }
+
+    // only called under the lock by EVERY_WRITE appends
+    private void flushPending(boolean force) throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+        if (force) {
+            channel.force(false);
+        }
+    }
+
+    //blocks until the record with this sequence number is written (and forced, unless the policy is NONE)
+    void awaitDurable(long seq) {
+        ByteBuffer batch;
+        long batchEnd;
+        synchronized (lock) {
+            while (true) {
+                if (durableSeq >= seq) {
+                    return;
+                }
+                if (failure != null) {
+                    throw new UncheckedIOException("Err: journal write failed", failure);
+                }
+                if (!flushing) {
+                    break;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Err: interrupted while waiting for the journal", e);
+                }
+            }
+            // this thread is the leader: take everything appended so far and write it outside the lock
+            flushing = true;
+            batch = pending;
+            pending = spare;
+            batchEnd = appendedSeq;
+        }
+
+        IOException error = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (policy != FsyncPolicy.NONE) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            flushing = false;
+            batch.clear();
+            spare = batch;
+            if (error == null) {
+                durableSeq = batchEnd;
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+        if (error != null) {
+            throw new UncheckedIOException("Err: journal write failed", error);
+        }
+    }
+
+    long lastSequence() {
+        synchronized (lock) {
+            return appendedSeq;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long last = lastSequence();
+        try {
+            if (last > 0) {
+                awaitDurable(last);
+            }
+        } finally {
+            synchronized (lock) {
+                closed = true;
+            }
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//Counters and latency histograms FlightService records on its hot paths. Everything here is lock free;
+//recording one operation costs two System.nanoTime() calls and a few atomic increments.
+
+final class FlightMetrics {
+
+    final LatencyHistogram search = new LatencyHistogram();
+    final LatencyHistogram bookSucceeded = new LatencyHistogram();
+    // "Not enough seats available": the seat counter lost, either sold out or beaten by another booking
+    final LatencyHistogram bookSoldOut = new LatencyHistogram();
+    // bad input or an unknown flight
+    final LatencyHistogram bookRejected = new LatencyHistogram();
+    // anything else, e.g. the journal record of the booking could not be written
+    final LatencyHistogram bookFailed = new LatencyHistogram();
+    final LatencyHistogram findReservations = new LatencyHistogram();
+    final LatencyHistogram itinerarySearch = new LatencyHistogram();
+    // holds the timing wheel could not expire, see FlightService.expireHold
+    final LongAdder holdExpiryFailures = new LongAdder();
+
+    FlightMetricsSnapshot snapshot(SearchCacheStats searchCache) {
+        return new FlightMetricsSnapshot(search.snapshot(), bookSucceeded.snapshot(), bookSoldOut.snapshot(),
+                bookRejected.snapshot(), bookFailed.snapshot(), findReservations.snapshot(), itinerarySearch.snapshot(),
+                holdExpiryFailures.sum(), searchCache);
+    }
+}
@@ -0,0 +1,151 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.Locale;
+
+//Point-in-time view of FlightService metrics, see FlightService.getMetrics().
+//Counts only grow; compare two snapshots to get rates. toPrometheusText() renders the
+//Prometheus text exposition format (served by FlightHttpServer at /metrics).
+
+public class FlightMetricsSnapshot {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final LatencySnapshot search;
+    private final LatencySnapshot bookSucceeded;
+    private final LatencySnapshot bookSoldOut;
+    private final LatencySnapshot bookRejected;
+    private final LatencySnapshot bookFailed;
+    private final LatencySnapshot findReservations;
+    private final LatencySnapshot itinerarySearch;
+    private final long holdExpiryFailures;
+    private final SearchCacheStats searchCache;
+
+    FlightMetricsSnapshot(LatencySnapshot search, LatencySnapshot bookSucceeded, LatencySnapshot bookSoldOut,
+                          LatencySnapshot bookRejected, LatencySnapshot bookFailed, LatencySnapshot findReservations,
+                          LatencySnapshot itinerarySearch, long holdExpiryFailures, SearchCacheStats searchCache) {
+        this.search = search;
+        this.bookSucceeded = bookSucceeded;
+        this.bookSoldOut = bookSoldOut;
+        this.bookRejected = bookRejected;
+        this.bookFailed = bookFailed;
+        this.findReservations = findReservations;
+        this.itinerarySearch = itinerarySearch;
+        this.holdExpiryFailures = holdExpiryFailures;
+        this.searchCache = searchCache;
+    }
+
+    // searchFlights(destination, date) and its consumer variant
+    public LatencySnapshot getSearch() {
+        return search;
+    }
+
+    public LatencySnapshot getBookSucceeded() {
+        return bookSucceeded;
+    }
+
+    // bookings that failed because the flight did not have enough seats left
+    public LatencySnapshot getBookSoldOut() {
+        return bookSoldOut;
+    }
+
+    // bookings rejected for bad input or an unknown flight
+    public LatencySnapshot getBookRejected() {
+        return bookRejected;
+    }
+
+    // bookings that failed for any other reason, e.g. a journal write error; nothing of them was kept
+    public LatencySnapshot getBookFailed() {
+        return bookFailed;
+    }
+
+    public LatencySnapshot getFindReservations() {
+        return findReservations;
+    }
+
+    // searchItineraries
+    public LatencySnapshot getItinerarySearch() {
+        return itinerarySearch;
+    }
+
+    // seat holds whose expiry failed; their error went to the server log
+    public long getHoldExpiryFailures() {
+        return holdExpiryFailures;
+    }
+
+    public SearchCacheStats getSearchCache() {
+        return searchCache;
+    }
+
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+        summary(out, "flight_search_seconds", "Latency of searchFlights by destination and date", null,
+                new String[0], new LatencySnapshot[] {search});
+        summary(out, "flight_booking_seconds", "Latency of bookFlight by outcome", "outcome",
+                new String[] {"success", "sold_out", "rejected", "failed"},
+                new LatencySnapshot[] {bookSucceeded, bookSoldOut, bookRejected, bookFailed});
+        summary(out, "flight_find_reservations_seconds", "Latency of findReservationsByCustomer", null,
+                new String[0], new LatencySnapshot[] {findReservations});
+        summary(out, "flight_itinerary_search_seconds", "Latency of searchItineraries", null,
+                new String[0], new LatencySnapshot[] {itinerarySearch});
+
+        counter(out, "flight_hold_expiry_failures_total", "Seat holds the expiry wheel could not expire",
+                holdExpiryFailures);
+        counter(out, "flight_search_cache_hits_total", "Searches answered from the search cache", searchCache.getHits());
+        counter(out, "flight_search_cache_misses_total", "Searches that went to the inventory", searchCache.getMisses());
+        counter(out, "flight_search_cache_evictions_total", "Cache entries dropped to stay within the size bound",
+                searchCache.getEvictions());
+        counter(out, "flight_search_cache_invalidations_total", "Cache entries dropped by a flight or seat change",
+                searchCache.getInvalidations());
+        return out.toString();
+    }
+
+    private static void summary(StringBuilder out, String name, String help, String label, String[] labelValues,
+                                LatencySnapshot[] snapshots) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (int i = 0; i < snapshots.length; i++) {
+            String labels = label == null ? "" : label + "=\"" + labelValues[i] + "\"";
+            LatencySnapshot s = snapshots[i];
+            for (double q : QUANTILES) {
+                String quantile = "quantile=\"" + q + "\"";
+                sample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile,
+                        seconds(s.getPercentileNanos(q)));
+            }
+            sample(out, name + "_sum", labels, seconds(s.getTotalNanos()));
+            sample(out, name + "_count", labels, Long.toString(s.getCount()));
+        }
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        sample(out, name, "", Long.toString(value));
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return "FlightMetricsSnapshot{" +
+                "search=" + search +
+                ", bookSucceeded=" + bookSucceeded +
+                ", bookSoldOut=" + bookSoldOut +
+                ", bookRejected=" + bookRejected +
+                ", bookFailed=" + bookFailed +
+                ", findReservations=" + findReservations +
+                ", itinerarySearch=" + itinerarySearch +
+                ", holdExpiryFailures=" + holdExpiryFailures +
+                ", searchCache=" + searchCache +
+                '}';
+    }
+}
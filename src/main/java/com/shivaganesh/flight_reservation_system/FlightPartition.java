@@ -0,0 +1,42 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+//One shard of a ShardedFlightService: it owns the flights whose number hashes to it and every
+//reservation on them. Calls complete asynchronously, but they pass and return the partition's live Flight
+//and Reservation objects, whose seat counts the partition keeps changing in place. So the interface is
+//in-process only (LocalFlightPartition); a network transport would first need flight numbers and immutable
+//copies across it, or callers holding a returned Flight would stop seeing its seats change.
+//Failures complete the future exceptionally with the same exceptions FlightService throws.
+
+public interface FlightPartition extends AutoCloseable {
+
+    CompletableFuture<Void> addFlight(Flight flight);
+
+    CompletableFuture<Optional<Flight>> findFlight(String flightNumber);
+
+    CompletableFuture<List<Flight>> searchFlights(String destination, LocalDate date);
+
+    // at most limit flights to any of the destinations departing in [from, to), in departure order
+    CompletableFuture<List<Flight>> searchFlights(Set<String> destinations, LocalDateTime from, LocalDateTime to, int limit);
+
+    CompletableFuture<Reservation> bookFlight(String customerName, String flightNumber, int seats);
+
+    CompletableFuture<Reservation> cancelReservation(long reservationId);
+
+    CompletableFuture<Optional<Reservation>> findReservation(long reservationId);
+
+    CompletableFuture<List<Reservation>> findReservationsByCustomer(String customerName);
+
+    CompletableFuture<List<Flight>> getAllFlights();
+
+    CompletableFuture<List<Reservation>> getAllReservations();
+
+    @Override
+    void close();
+}
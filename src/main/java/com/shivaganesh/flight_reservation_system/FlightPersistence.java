@@ -0,0 +1,239 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+//Durable FlightService: every addFlight/bookFlight/cancelReservation is appended to a journal before the call returns,
+//and snapshots periodically compact the journal.
+//
+//Directory layout: snapshot-N.dat holds the state after every journal older than N,
+//journal-N.log holds the changes made after it. Startup loads the newest snapshot and replays
+//journal-N onwards, so a crash while a snapshot is being written just replays one more journal.
+
+public class FlightPersistence implements Closeable {
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final FlightService flightService;
+
+    // bookings share the read side; a snapshot takes the write side for the moment it
+    // rotates the journal and copies the state, so the copy lines up with the journal cut
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final Object snapshotLock = new Object();
+    private FlightJournal journal;
+    private long generation;
+    private ScheduledExecutorService scheduler;
+
+    private FlightPersistence(Path directory, FsyncPolicy policy, FlightService flightService) {
+        this.directory = directory;
+        this.policy = policy;
+        this.flightService = flightService;
+    }
+
+    //loads the latest snapshot, replays the journal tail and returns a service that journals every change
+    public static FlightPersistence open(Path directory, FsyncPolicy policy) throws IOException {
+        Objects.requireNonNull(directory, "Err: directory must not be null");
+        Objects.requireNonNull(policy, "Err: policy must not be null");
+        Files.createDirectories(directory);
+
+        FlightService flightService = new FlightService();
+        FlightPersistence persistence = new FlightPersistence(directory, policy, flightService);
+
+        long snapshotGeneration = latestGeneration(directory, "snapshot-", ".dat");
+        if (snapshotGeneration >= 0) {
+            flightService.restore(FlightSnapshot.read(persistence.snapshotFile(snapshotGeneration)));
+        }
+        long start = Math.max(snapshotGeneration, 0);
+
+        FlightJournal.Visitor replay = new FlightJournal.Visitor() {
+            @Override
+            public void flightAdded(Flight flight) {
+                flightService.addFlight(flight);
+            }
+
+            @Override
+            public void flightsAdded(List<Flight> flights) {
+                flightService.addFlights(flights);
+            }
+
+            @Override
+            public void seatsBooked(long reservationId, String customerName, String flightNumber, int seats,
+                                    String fareClass, int[] assignedSeats) {
+                flightService.replayBooking(reservationId, customerName, flightNumber, seats, fareClass, assignedSeats);
+            }
+
+            @Override
+            public void reservationCancelled(long reservationId) {
+                flightService.replayCancellation(reservationId);
+            }
+        };
+
+        List<Long> journals = generations(directory, "journal-", ".log");
+        journals.removeIf(g -> g < start);
+        long current = journals.isEmpty() ? start : journals.get(journals.size() - 1);
+        for (long g : journals) {
+            if (g != current) {
+                FlightJournal.replay(persistence.journalFile(g), replay);
+            }
+        }
+        persistence.journal = FlightJournal.open(persistence.journalFile(current), policy, replay);
+        persistence.generation = current;
+
+        flightService.attach(persistence);
+        return persistence;
+    }
+
+    public FlightService getFlightService() {
+        return flightService;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    //writes a snapshot of the current state and drops the journals it covers
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            FlightSnapshot snapshot;
+            long newGeneration;
+
+            checkpointLock.writeLock().lock();
+            try {
+                journal.close();
+                newGeneration = generation + 1;
+                journal = FlightJournal.open(journalFile(newGeneration), policy, null);
+                generation = newGeneration;
+                snapshot = flightService.captureSnapshot();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+
+            // serializing happens outside the lock, bookings are already flowing into the new journal
+            snapshot.write(snapshotFile(newGeneration));
+
+            for (long g : generations(directory, "journal-", ".log")) {
+                if (g < newGeneration) {
+                    Files.deleteIfExists(journalFile(g));
+                }
+            }
+            for (long g : generations(directory, "snapshot-", ".dat")) {
+                if (g < newGeneration) {
+                    Files.deleteIfExists(snapshotFile(g));
+                }
+            }
+        }
+    }
+
+    public synchronized void scheduleSnapshots(Duration interval) {
+        Objects.requireNonNull(interval, "Err: interval must not be null");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Err: interval must be > 0");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Err: snapshots are already scheduled");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flight-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                // the journal still has everything, the next run will try again
+                System.err.println("Error while writing flight snapshot: " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+        synchronized (snapshotLock) {
+            checkpointLock.writeLock().lock();
+            try {
+                journal.close();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        }
+    }
+
+    // called by FlightService around every change while it is attached
+
+    void beginChange() {
+        checkpointLock.readLock().lock();
+    }
+
+    void endChange() {
+        checkpointLock.readLock().unlock();
+    }
+
+    // returns once every change that began before the call has ended
+    void awaitChanges() {
+        checkpointLock.writeLock().lock();
+        checkpointLock.writeLock().unlock();
+    }
+
+    void logFlightAdded(Flight flight) {
+        journal.awaitDurable(journal.appendFlightAdded(flight));
+    }
+
+    void logFlightsAdded(List<Flight> flights) {
+        journal.awaitDurable(journal.appendFlightsAdded(flights));
+    }
+
+    void logBooking(Reservation reservation) {
+        journal.awaitDurable(journal.appendSeatsBooked(reservation));
+    }
+
+    void logBatch(List<Reservation> batch) {
+        journal.awaitDurable(journal.appendBatchBooked(batch));
+    }
+
+    void logCancellation(Reservation reservation) {
+        journal.awaitDurable(journal.appendReservationCancelled(reservation));
+    }
+
+    private Path journalFile(long generation) {
+        return directory.resolve(String.format("journal-%016d.log", generation));
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("snapshot-%016d.dat", generation));
+    }
+
+    private static long latestGeneration(Path directory, String prefix, String suffix) throws IOException {
+        List<Long> all = generations(directory, prefix, suffix);
+        return all.isEmpty() ? -1 : all.get(all.size() - 1);
+    }
+
+    private static List<Long> generations(Path directory, String prefix, String suffix) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> result.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        result.sort(null);
+        return result;
+    }
+}
@@ -1,5 +1,7 @@
 package com.shivaganesh.flight_reservation_system;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -13,16 +15,40 @@ public class FlightReservationApp {
    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
 	  
         FlightService flightService = new FlightService();
-        myflightFlights(flightService);
-        System.out.println("Sample flights loaded:");
-        
-        for (Flight f : flightService.getAllFlights()) {
-            System.out.println(" - " + f);
+
+        // --schedule <file.csv> loads that schedule (see FlightScheduleImporter) instead of the samples
+        int arg = 0;
+        if (args.length > 1 && "--schedule".equals(args[0])) {
+            System.out.println(FlightScheduleImporter.importCsv(Path.of(args[1]), flightService));
+            arg = 2;
+        } else {
+            myflightFlights(flightService);
+        }
+
+        // --server [port] serves the same flights over HTTP instead of the console menu
+        if (args.length > arg && "--server".equals(args[arg])) {
+            int port = args.length > arg + 1 ? Integer.parseInt(args[arg + 1]) : 8080;
+            // small responses must not wait for delayed ACKs, see FlightHttpServer; a flag given at launch wins
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            FlightHttpServer server = new FlightHttpServer(flightService, port);
+            server.start();
+            System.out.println("Flight booking API listening on port " + server.getPort());
+            return;
+        }
+
+        if (arg == 0) {
+            System.out.println("Sample flights loaded:");
+
+            for (Flight f : flightService.getAllFlights()) {
+                System.out.println(" - " + f);
+            }
+            System.out.println();
         }
-        System.out.println();
 
 
         try (Scanner sc = new Scanner(System.in)) {
@@ -35,7 +61,9 @@ public class FlightReservationApp {
                     case "1" -> searchFlights(sc, flightService);
                     case "2" -> bookFlight(sc, flightService);
                     case "3" -> viewReservations(sc, flightService);
-                    case "4" -> {
+                    case "4" -> cancelReservation(sc, flightService);
+                    case "5" -> System.out.print(flightService.getMetrics().toPrometheusText());
+                    case "6" -> {
                         
                     	System.out.println("Exiting application. Goodbye!");
                         running = false;
@@ -52,11 +80,13 @@ public class FlightReservationApp {
       System.out.println("1. Search flights by destination and date");
       System.out.println("2. Book a flight");
       System.out.println("3. View my reservations");
-      System.out.println("4. Exit");
+      System.out.println("4. Cancel a reservation");
+      System.out.println("5. Show metrics");
+      System.out.println("6. Exit");
       System.out.print("Enter your choice: ");
     }
 //sample flights
-    private static void myflightFlights(FlightService flightService) {
+    static void myflightFlights(FlightService flightService) {
     	
     flightService.addFlight(new Flight("FL101","New York",LocalDateTime.parse("2025-12-20 09:00", DATE_TIME_FORMAT),10));
     flightService.addFlight(new Flight("FL102","New York",LocalDateTime.parse("2025-12-20 15:30", DATE_TIME_FORMAT),5));
@@ -83,6 +113,7 @@ public class FlightReservationApp {
             if (flights.isEmpty()) {
             	
                 System.out.println("No available flights found for that destination and date.");
+                suggestDestinations(destination, flightService);
             } else {
                 System.out.println("--> Available flights:");
                 
@@ -104,6 +135,18 @@ public class FlightReservationApp {
         }
     }
 
+    // destinations need their full name; offer the ones starting with what was typed
+    private static void suggestDestinations(String typed, FlightService flightService) {
+        List<Completion> matches = flightService.completeDestinations(typed, 5);
+        if (!matches.isEmpty() && !matches.get(0).getName().equalsIgnoreCase(typed.trim())) {
+            System.out.print("Destinations starting with \"" + typed.trim() + "\":");
+            for (Completion match : matches) {
+                System.out.print(" " + match.getName() + " (" + match.getCount() + " seats)");
+            }
+            System.out.println();
+        }
+    }
+
     private static void bookFlight(Scanner scanner, FlightService flightService) {
         try {
             System.out.print("Enter your name: ");
@@ -121,6 +164,7 @@ public class FlightReservationApp {
 
             if (flights.isEmpty()) {
                 System.out.println("No available flights for that destination and date.");
+                suggestDestinations(destination, flightService);
                 return;
             }
 
@@ -175,4 +219,17 @@ public class FlightReservationApp {
             System.out.println("Error while retrieving reservations: " + e.getMessage());
         }
     }
+
+//cancel by the id shown in "View my reservations"
+    private static void cancelReservation(Scanner scanner, FlightService flightService) {
+        try {
+            System.out.print("Enter reservation id: ");
+            long reservationId = Long.parseLong(scanner.nextLine().trim());
+
+            Reservation cancelled = flightService.cancelReservation(reservationId);
+            System.out.println(" -- > Reservation cancelled: " + cancelled);
+        } catch (Exception e) {
+            System.out.println("Error while cancelling reservation: " + e.getMessage());
+        }
+    }
 }
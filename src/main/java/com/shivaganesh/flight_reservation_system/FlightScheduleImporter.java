@@ -0,0 +1,372 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Bulk loader for schedule files, one flight per line:
+//
+//  flightNumber,destination,departure,availableSeats
+//  FL101,New York,2025-12-20 09:00,10
+//
+//or, for flights with a route (see Flight.getOrigin), six fields:
+//
+//  flightNumber,origin,destination,departure,arrival,availableSeats
+//  FL101,London,New York,2025-12-20 09:00,2025-12-20 17:00,10
+//
+//Both kinds of line can be mixed in one file. departure and arrival are "yyyy-MM-dd HH:mm"
+//(a 'T' instead of the space works too). Fields are not quoted, so
+//they cannot contain commas. An optional first line starting with "flightNumber" is a header; blank
+//lines and \r\n line ends are fine.
+//
+//The file is memory-mapped in chunks that are parsed in parallel on a fork-join pool, straight from the
+//mapped bytes: the only Strings made per row are the flight number and, once per chunk and place,
+//the origin and destination names. The parsed flights then go into FlightService.addFlights, which builds the
+//indexes for the whole file in one step.
+
+public final class FlightScheduleImporter {
+
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final int MAX_LINE_BYTES = 4096;
+    // places remembered per chunk; a direct-mapped table, a collision just decodes the name again
+    private static final int PLACE_CACHE = 256;
+
+    private FlightScheduleImporter() {
+    }
+
+    public static ImportReport importCsv(Path file, FlightService target) throws IOException {
+        return importCsv(file, target, ForkJoinPool.commonPool());
+    }
+
+    public static ImportReport importCsv(Path file, FlightService target, ForkJoinPool pool) throws IOException {
+        if (target == null) {
+            throw new IllegalArgumentException("Err: target must not be null");
+        }
+        List<Flight> flights;
+        long start;
+        long parsed;
+        long indexed;
+        long peakHeap;
+        try (HeapSampler heap = new HeapSampler()) {
+            start = System.nanoTime();
+            flights = parse(file, pool);
+            parsed = System.nanoTime();
+            target.addFlights(flights);
+            indexed = System.nanoTime();
+            peakHeap = heap.peak();
+        }
+        return new ImportReport(flights.size(), parsed - start, indexed - parsed, peakHeap);
+    }
+
+    // highest heap use seen while open, sampled every millisecond from a daemon thread. The JVM's pool
+    // peaks are never reset, they are process wide and other measurements may be using them; the price is
+    // that a spike shorter than a sample interval can be missed
+    private static final class HeapSampler implements AutoCloseable {
+
+        private static final long INTERVAL_MICROS = 1_000;
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private final ScheduledExecutorService sampler;
+
+        HeapSampler() {
+            sample();
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "import-heap-sampler");
+                t.setDaemon(true);
+                return t;
+            });
+            sampler.scheduleAtFixedRate(this::sample, INTERVAL_MICROS, INTERVAL_MICROS, TimeUnit.MICROSECONDS);
+        }
+
+        private void sample() {
+            peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }
+
+        long peak() {
+            sample();
+            return peak.get();
+        }
+
+        @Override
+        public void close() {
+            sampler.shutdownNow();
+        }
+    }
+
+    // all flights in the file, in file order
+    static List<Flight> parse(Path file, ForkJoinPool pool) throws IOException {
+        if (file == null || pool == null) {
+            throw new IllegalArgumentException("Err: file and pool must not be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+            AtomicReferenceArray<List<Flight>> results = new AtomicReferenceArray<>(chunks);
+            try {
+                pool.invoke(new ParseChunks(channel, file, size, results, 0, chunks));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int rows = 0;
+            for (int i = 0; i < chunks; i++) {
+                rows += results.get(i).size();
+            }
+            List<Flight> flights = new ArrayList<>(rows);
+            for (int i = 0; i < chunks; i++) {
+                flights.addAll(results.get(i));
+            }
+            return flights;
+        }
+    }
+
+    // splits the chunk range in halves until one chunk is left, then parses it
+    private static final class ParseChunks extends RecursiveAction {
+
+        // fork-join tasks are Serializable, these never leave the process
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final Path file;
+        private final long size;
+        private final AtomicReferenceArray<List<Flight>> results;
+        private final int from;
+        private final int to;
+
+        ParseChunks(FileChannel channel, Path file, long size, AtomicReferenceArray<List<Flight>> results, int from,
+                    int to) {
+            this.channel = channel;
+            this.file = file;
+            this.size = size;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseChunks(channel, file, size, results, from, mid),
+                        new ParseChunks(channel, file, size, results, mid, to));
+                return;
+            }
+            try {
+                results.set(from, new ChunkParser(channel, file, size, (long) from * CHUNK_BYTES).parse());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // parses the lines that start inside one chunk; the last one may run on into the next chunk
+    private static final class ChunkParser {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        // file offset of buffer position 0
+        private final long base;
+        // lines starting before this buffer position belong to this chunk
+        private final int chunkEnd;
+        private final boolean lastChunk;
+
+        private final byte[] line = new byte[MAX_LINE_BYTES];
+        private final byte[][] cachedBytes = new byte[PLACE_CACHE][];
+        private final String[] cachedNames = new String[PLACE_CACHE];
+
+        ChunkParser(FileChannel channel, Path file, long size, long chunkStart) throws IOException {
+            this.file = file;
+            // one byte before the chunk to see whether a line starts right at chunkStart
+            this.base = Math.max(0, chunkStart - 1);
+            long chunkStop = Math.min(size, chunkStart + CHUNK_BYTES);
+            long mapEnd = Math.min(size, chunkStop + MAX_LINE_BYTES);
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, mapEnd - base);
+            this.chunkEnd = (int) (chunkStop - base);
+            this.lastChunk = mapEnd == size;
+        }
+
+        List<Flight> parse() {
+            List<Flight> flights = new ArrayList<>(chunkEnd / 40 + 1);
+            int pos = 0;
+            if (base > 0 || chunkEnd == 0) {
+                // not at the start of the file: skip to the first line that starts inside the chunk
+                while (pos < chunkEnd && buffer.get(pos) != '\n') {
+                    pos++;
+                }
+                pos++;
+            } else if (startsWithHeader()) {
+                pos = lineEnd(0) + 1;
+            }
+            int limit = buffer.limit();
+            while (pos < chunkEnd && pos < limit) {
+                int end = lineEnd(pos);
+                int length = end - pos;
+                if (length > 0 && buffer.get(end - 1) == '\r') {
+                    length--;
+                }
+                if (length > 0) {
+                    buffer.get(pos, line, 0, length);
+                    flights.add(parseLine(length, base + pos));
+                }
+                pos = end + 1;
+            }
+            return flights;
+        }
+
+        private boolean startsWithHeader() {
+            byte[] header = "flightNumber".getBytes(StandardCharsets.US_ASCII);
+            if (buffer.limit() < header.length) {
+                return false;
+            }
+            for (int i = 0; i < header.length; i++) {
+                if (buffer.get(i) != header[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // position of the '\n' ending the line that starts at pos, or the end of the file
+        private int lineEnd(int pos) {
+            int limit = buffer.limit();
+            int max = Math.min(limit, pos + MAX_LINE_BYTES);
+            for (int i = pos; i < max; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            if (max == limit && lastChunk) {
+                return limit;
+            }
+            throw error(base + pos, "line longer than " + MAX_LINE_BYTES + " bytes");
+        }
+
+        private Flight parseLine(int length, long offset) {
+            int c1 = comma(0, length, offset);
+            int c2 = comma(c1 + 1, length, offset);
+            int c3 = comma(c2 + 1, length, offset);
+            String flightNumber = new String(line, 0, c1, StandardCharsets.UTF_8);
+            int c4 = indexOfComma(c3 + 1, length);
+            if (c4 < 0) {
+                String destination = place(c1 + 1, c2);
+                LocalDateTime departure = parseTime(c2 + 1, c3, offset);
+                int seats = parseSeats(c3 + 1, length, offset);
+                try {
+                    return new Flight(flightNumber, destination, departure, seats);
+                } catch (IllegalArgumentException e) {
+                    throw error(offset, e.getMessage());
+                }
+            }
+            int c5 = comma(c4 + 1, length, offset);
+            String origin = place(c1 + 1, c2);
+            String destination = place(c2 + 1, c3);
+            LocalDateTime departure = parseTime(c3 + 1, c4, offset);
+            LocalDateTime arrival = parseTime(c4 + 1, c5, offset);
+            int seats = parseSeats(c5 + 1, length, offset);
+            try {
+                return new Flight(flightNumber, origin, destination, departure, arrival, seats);
+            } catch (IllegalArgumentException e) {
+                throw error(offset, e.getMessage());
+            }
+        }
+
+        private int comma(int from, int length, long offset) {
+            int i = indexOfComma(from, length);
+            if (i < 0) {
+                throw error(offset, "expected 4 or 6 comma separated fields");
+            }
+            return i;
+        }
+
+        private int indexOfComma(int from, int length) {
+            for (int i = from; i < length; i++) {
+                if (line[i] == ',') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private String place(int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + line[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (PLACE_CACHE - 1);
+            byte[] cached = cachedBytes[slot];
+            if (cached != null && cached.length == to - from && regionEquals(cached, from)) {
+                return cachedNames[slot];
+            }
+            byte[] bytes = new byte[to - from];
+            System.arraycopy(line, from, bytes, 0, bytes.length);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            cachedBytes[slot] = bytes;
+            cachedNames[slot] = name;
+            return name;
+        }
+
+        private boolean regionEquals(byte[] cached, int from) {
+            for (int i = 0; i < cached.length; i++) {
+                if (cached[i] != line[from + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // yyyy-MM-dd HH:mm or yyyy-MM-ddTHH:mm
+        private LocalDateTime parseTime(int from, int to, long offset) {
+            if (to - from != 16 || line[from + 4] != '-' || line[from + 7] != '-'
+                    || (line[from + 10] != ' ' && line[from + 10] != 'T') || line[from + 13] != ':') {
+                throw error(offset, "departure and arrival must be yyyy-MM-dd HH:mm");
+            }
+            try {
+                return LocalDateTime.of(digits(from, 4, offset), digits(from + 5, 2, offset),
+                        digits(from + 8, 2, offset), digits(from + 11, 2, offset), digits(from + 14, 2, offset));
+            } catch (DateTimeException e) {
+                throw error(offset, e.getMessage());
+            }
+        }
+
+        private int parseSeats(int from, int to, long offset) {
+            if (to - from < 1 || to - from > 9) {
+                throw error(offset, "availableSeats must be a number");
+            }
+            return digits(from, to - from, offset);
+        }
+
+        private int digits(int from, int count, long offset) {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                int d = line[i] - '0';
+                if (d < 0 || d > 9) {
+                    throw error(offset, "expected a digit, got '" + (char) line[i] + "'");
+                }
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        private IllegalArgumentException error(long offset, String message) {
+            return new IllegalArgumentException("Err: " + file + " line at byte " + offset + ": " + message);
+        }
+    }
+}
@@ -1,111 +1,1241 @@
 package com.shivaganesh.flight_reservation_system;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 //Service to manage the flights and reservations in memory.
+//Bookings are safe to run from many threads: seats are claimed per flight with compare-and-set,
+//so there is no global lock on the booking path. Adding flights is serialized on the service.
+//Flights and their indexes live in a FlightInventory (heap by default, or a memory-mapped file).
  
 public class FlightService {
 	
-    private final List<Flight> flights = new ArrayList<>();
-    
-    private final List<Reservation> reservations = new ArrayList<>();
+    private final FlightInventory inventory;
+
+    // reservation id -> reservation, the only place a reservation is removed from on cancel
+    private final Map<Long, Reservation> reservationsById = new ConcurrentHashMap<>();
+    private final ReservationIdGenerator reservationIds;
+
+    // normalized customer name -> that customer's reservations, filled once when a booking succeeds
+    // and trimmed when one is cancelled
+    private final Map<String, Queue<Reservation>> reservationsByCustomer = new ConcurrentHashMap<>();
+
+    // departure epoch day -> the reservations on flights leaving that day, so archiveDeparted only looks
+    // at the days it moves
+    private final ConcurrentSkipListMap<Long, Set<Reservation>> reservationsByDay = new ConcurrentSkipListMap<>();
+
+    // seats held for a customer until confirmed, released or expired
+    private final Map<Long, SeatHold> activeHolds = new ConcurrentHashMap<>();
+    private final AtomicLong holdIds = new AtomicLong();
+
+    // set once by FlightPersistence when the service is durable, null for a purely in-memory service
+    private FlightPersistence persistence;
+
+    // where archiveDeparted moves departed flights and their reservations, null until setArchive
+    private volatile FlightArchive archive;
+    // one archiving run at a time
+    private final Object archiveLock = new Object();
+    // what the running archiveDeparted has taken out of memory but not written yet; snapshots still
+    // include it, so a crash before the segments are in place loses nothing
+    private volatile List<Flight> archivingFlights = List.of();
+    private volatile List<Reservation> archivingReservations = List.of();
+
+    static final int DEFAULT_SEARCH_CACHE_ENTRIES = 4096;
+
+    // ids of every origin and destination of this service's flights, interned as flights are added; keys
+    // the search cache and the itinerary index
+    private final DestinationIds places = new DestinationIds();
+
+    // popular (destination, date) searches; null when the cache is turned off
+    private final SearchCache searchCache;
+    private final SearchCache.Loader searchLoader;
+
+    private final FlightMetrics metrics = new FlightMetrics();
+
+    // seat inventory changes for subscribers, see getEvents()
+    private final FlightEventFeed events = new FlightEventFeed();
+
+    // routed flights for searchItineraries, built from the inventory by the first such search and kept
+    // up to date by every add after that; null until then, so services that never search pay nothing
+    private volatile ConnectionIndex connections;
+
+    // typeahead over every destination with the seats still on sale to it, and every customer with the
+    // bookings they hold; kept up to date by adds, bookings, holds, cancellations and archiving
+    private final NameTrie destinationNames = new NameTrie();
+    private final NameTrie customerNames = new NameTrie();
+
+    public FlightService() {
+        this(new HeapFlightInventory());
+    }
+
+    public FlightService(FlightInventory inventory) {
+        this(inventory, DEFAULT_SEARCH_CACHE_ENTRIES);
+    }
+
+    //searchCacheEntries bounds the searchFlights(destination, date) cache, 0 turns it off
+    public FlightService(FlightInventory inventory, int searchCacheEntries) {
+        this(inventory, searchCacheEntries, new ReservationIdGenerator());
+    }
+
+    // for partitions of a ShardedFlightService, which each own a slice of the reservation ids
+    FlightService(FlightInventory inventory, int searchCacheEntries, ReservationIdGenerator reservationIds) {
+        this.reservationIds = reservationIds;
+        this.inventory = Objects.requireNonNull(inventory, "Err: inventory must not be null");
+        if (searchCacheEntries < 0) {
+            throw new IllegalArgumentException("Err: searchCacheEntries must be >= 0");
+        }
+        for (String place : inventory.places()) {
+            places.intern(place);
+        }
+        this.searchCache = searchCacheEntries == 0 ? null : new SearchCache(searchCacheEntries, places);
+        this.searchLoader = inventory::searchAvailable;
+    }
 
     public void addFlight(Flight flight) {
     	
-        Objects.requireNonNull(flight, " Err: flight must not be null");
-        flights.add(flight);
+        Objects.requireNonNull(flight, "Err: flight must not be null");
+        FlightPersistence journal = persistence;
+        if (journal == null) {
+            insertFlight(flight, null);
+            return;
+        }
+        journal.beginChange();
+        try {
+            insertFlight(flight, journal);
+        } finally {
+            journal.endChange();
+        }
+    }
+
+    private synchronized void insertFlight(Flight flight, FlightPersistence journal) {
+        if (inventory.find(flight.getFlightNumber()) != null) {
+            throw new IllegalArgumentException("Err: flight " + flight.getFlightNumber() + " already exists");
+        }
+        // journaled before it becomes bookable, so a booking record can never precede its flight
+        if (journal != null) {
+            journal.logFlightAdded(flight);
+        }
+        internPlaces(flight);
+        inventory.add(flight);
+        if (searchCache != null) {
+            searchCache.invalidate(flight);
+        }
+        if (connections != null && flight.hasRoute()) {
+            // the instance the inventory manages, for a mapped inventory a view and not "flight" itself
+            connections.add(inventory.find(flight.getFlightNumber()));
+        }
+        seatsChanged(flight, flight.getAvailableSeats());
+        long state = flight.seatState();
+        events.publish(FlightEvent.Type.FLIGHT_ADDED, flight, Flight.seatsOf(state), state, 0);
+    }
+
+    private void internPlaces(Flight flight) {
+        places.intern(flight.getDestination());
+        if (flight.hasRoute()) {
+            places.intern(flight.getOrigin());
+        }
+    }
+
+    // bulk load, e.g. from FlightScheduleImporter: all or nothing, and the inventory builds the search
+    // index for the whole batch at once instead of flight by flight. Subscribers get a single FLIGHTS_ADDED
+    // event for the batch instead of a FLIGHT_ADDED per flight
+    public void addFlights(List<Flight> flights) {
+        Objects.requireNonNull(flights, "Err: flights must not be null");
+        FlightPersistence journal = persistence;
+        if (journal == null) {
+            insertFlights(flights, null);
+            return;
+        }
+        journal.beginChange();
+        try {
+            insertFlights(flights, journal);
+        } finally {
+            journal.endChange();
+        }
+    }
+
+    private synchronized void insertFlights(List<Flight> flights, FlightPersistence journal) {
+        Set<String> numbers = new HashSet<>(Math.max(16, flights.size() * 4 / 3 + 1));
+        for (Flight flight : flights) {
+            Objects.requireNonNull(flight, "Err: flight must not be null");
+            if (!numbers.add(flight.getFlightNumber()) || inventory.find(flight.getFlightNumber()) != null) {
+                throw new IllegalArgumentException("Err: flight " + flight.getFlightNumber() + " already exists");
+            }
+        }
+        if (journal != null) {
+            journal.logFlightsAdded(flights);
+        }
+        for (Flight flight : flights) {
+            internPlaces(flight);
+        }
+        inventory.addAll(flights);
+        if (searchCache != null) {
+            searchCache.invalidateAll();
+        }
+        if (connections != null) {
+            List<Flight> managed = new ArrayList<>();
+            for (Flight flight : flights) {
+                if (flight.hasRoute()) {
+                    managed.add(inventory.find(flight.getFlightNumber()));
+                }
+            }
+            connections.addAll(managed);
+        }
+        // one typeahead update per destination and one event for the whole batch, not one per flight
+        Map<String, Flight> firstByDestination = new HashMap<>();
+        Map<String, Long> seatsByDestination = new HashMap<>();
+        for (Flight flight : flights) {
+            String destination = normalizeDestination(flight.getDestination());
+            firstByDestination.putIfAbsent(destination, flight);
+            seatsByDestination.merge(destination, (long) flight.getAvailableSeats(), Long::sum);
+        }
+        for (Map.Entry<String, Flight> entry : firstByDestination.entrySet()) {
+            destinationNames.add(entry.getValue().getDestination(), seatsByDestination.get(entry.getKey()));
+        }
+        if (!flights.isEmpty()) {
+            events.publishBatch(FlightEvent.Type.FLIGHTS_ADDED, flights.size());
+        }
+    }
+
+    static String normalizeDestination(String destination) {
+        return destination.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String normalizeCustomer(String customerName) {
+        return customerName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<Flight> findFlight(String flightNumber) {
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("Err: flightNumber must not be blank");
+        }
+        return Optional.ofNullable(inventory.find(flightNumber));
     }
 
    public List<Flight> getAllFlights() {
     	
-        return Collections.unmodifiableList(flights);
+        return inventory.all();
     }
 
+     //ordered by reservation id. Ids are unique but handed out per stripe (see ReservationIdGenerator), so
+     //across threads this is not the order the bookings were made in
      public List<Reservation> getAllReservations() {
-        return Collections.unmodifiableList(reservations);
+        List<Reservation> all = new ArrayList<>(reservationsById.values());
+        all.sort(Comparator.comparingLong(Reservation::getId));
+        return all;
+    }
+
+    public Optional<Reservation> findReservation(long reservationId) {
+        return Optional.ofNullable(reservationsById.get(reservationId));
     }
 
+     //flights to the destination on that date with seats left, in departure time order; flights leaving at
+     //the same time come in the order they were added
      public List<Flight> searchFlights(String destination, LocalDateTime date) {
+    	    long start = System.nanoTime();
+    	    try {
+    	        if (destination == null || destination.isBlank()) {
+    	            throw new IllegalArgumentException("Err: destination must not be blank");
+    	        }
+    	        if (date == null) {
+    	            throw new IllegalArgumentException("date must not be null");
+    	        }
 
-    	    if (destination == null || destination.isBlank()) {
-    	        throw new IllegalArgumentException("Err: destination must not be blank");
-    	    }
-    	    if (date == null) {
-    	        throw new IllegalArgumentException("date must not be null");
+    	        if (searchCache == null) {
+    	            return inventory.searchAvailable(destination, date.toLocalDate());
+    	        }
+    	        // cached results are shared, so they come back unmodifiable
+    	        return searchCache.get(destination, date.toLocalDate(), searchLoader);
+    	    } finally {
+    	        metrics.search.recordSince(start);
     	    }
+    	}
 
-    	    String dest = destination.trim();
-    	    LocalDate requestedDate = date.toLocalDate();
+    // same flights as searchFlights(destination, date), handed to action in departure order instead of
+    // being collected into a new list; returns how many. Skips the search cache and, on the default
+    // inventory, allocates nothing, so a caller can reuse one buffer (e.g. a cleared ArrayList) across searches
+    public int searchFlights(String destination, LocalDateTime date, Consumer<? super Flight> action) {
+        long start = System.nanoTime();
+        try {
+            if (destination == null || destination.isBlank()) {
+                throw new IllegalArgumentException("Err: destination must not be blank");
+            }
+            if (date == null) {
+                throw new IllegalArgumentException("date must not be null");
+            }
+            Objects.requireNonNull(action, "action must not be null");
+            return inventory.forEachAvailable(destination, date.toLocalDate(), action);
+        } finally {
+            metrics.search.recordSince(start);
+        }
+    }
 
-    	    List<Flight> result = new ArrayList<>();
+    // ways from origin to destination with at most maxLegs flights, leaving at or after earliestDeparture and
+    // landing within 48 hours of it, with at least minConnection between landing and the next departure.
+    // Only flights with a route (see Flight.getOrigin) and a seat left are used. Returns the earliest
+    // arriving itinerary for each number of legs that lands before every itinerary with fewer legs, so
+    // fewest legs first and each later one arriving sooner; empty when nothing gets there
+    public List<Itinerary> searchItineraries(String origin, String destination, LocalDateTime earliestDeparture,
+                                             int maxLegs, Duration minConnection) {
+        long start = System.nanoTime();
+        try {
+            if (origin == null || origin.isBlank() || destination == null || destination.isBlank()) {
+                throw new IllegalArgumentException("Err: origin and destination must not be blank");
+            }
+            if (earliestDeparture == null) {
+                throw new IllegalArgumentException("Err: earliestDeparture must not be null");
+            }
+            if (maxLegs < 1 || maxLegs > ConnectionIndex.MAX_LEGS) {
+                throw new IllegalArgumentException("Err: maxLegs must be between 1 and " + ConnectionIndex.MAX_LEGS);
+            }
+            if (minConnection == null || minConnection.isNegative()) {
+                throw new IllegalArgumentException("Err: minConnection must be >= 0");
+            }
+            int from = places.find(origin);
+            int to = places.find(destination);
+            if (from == to) {
+                if (from == DestinationIds.UNKNOWN) {
+                    return List.of();
+                }
+                throw new IllegalArgumentException("Err: origin and destination must differ");
+            }
+            if (from == DestinationIds.UNKNOWN || to == DestinationIds.UNKNOWN) {
+                return List.of();
+            }
+            return connections().search(from, to, earliestDeparture.toEpochSecond(ZoneOffset.UTC), maxLegs,
+                    minConnection.getSeconds(), 1);
+        } finally {
+            metrics.itinerarySearch.recordSince(start);
+        }
+    }
 
-    	    for (Flight f : flights) {
-    	        if (!f.getDestination().equalsIgnoreCase(dest)) {
-    	            continue;
-    	        }
-    	        if (!f.getDepartureTime().toLocalDate().equals(requestedDate)) {
-    	            continue;
-    	        }
-    	        if (f.getAvailableSeats() <= 0) {
-    	            continue;
-    	        }
+    private ConnectionIndex connections() {
+        ConnectionIndex index = connections;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (connections == null) {
+                ConnectionIndex built = new ConnectionIndex(places);
+                built.addAll(inventory.all());
+                connections = built;
+            }
+            return connections;
+        }
+    }
 
-    	        result.add(f);
-    	    }
+    //counters and latency percentiles of searches, bookings and reservation lookups since the service started
+    public FlightMetricsSnapshot getMetrics() {
+        return metrics.snapshot(getSearchCacheStats());
+    }
 
-    	    return result;
-    	}
+    public SearchCacheStats getSearchCacheStats() {
+        return searchCache == null ? new SearchCacheStats(0, 0, 0, 0, 0, 0) : searchCache.stats();
+    }
+
+    // a flight that just sold out must drop out of its cached search. state is what the claim that took
+    // the seats set, so only the claim that took the last ones reports it
+    private void seatsTaken(Flight flight, long state) {
+        if (Flight.seatsOf(state) == 0) {
+            if (searchCache != null) {
+                searchCache.invalidate(flight);
+            }
+            events.publish(FlightEvent.Type.SOLD_OUT, flight, 0, state, 0);
+        }
+    }
+
+    // and one that was sold out must come back into it
+    private void giveBackSeats(Flight flight, int seats, long reservationId) {
+        seatsChanged(flight, seats);
+        long state = untakeSeats(flight, seats);
+        events.publish(FlightEvent.Type.SEATS_RELEASED, flight, seats, state, reservationId);
+    }
+
+    // a rolled back claim was never announced or indexed, so only the count goes back; returns the state
+    // the release set
+    private long untakeSeats(Flight flight, int seats) {
+        long state = flight.releaseSeats(seats);
+        if (Flight.seatsOf(state) == seats && searchCache != null) {
+            searchCache.invalidate(flight);
+        }
+        return state;
+    }
+
+    private void seatsChanged(Flight flight, int seats) {
+        destinationNames.add(flight.getDestination(), seats);
+    }
+
+    private void seatsBooked(Reservation reservation, long state) {
+        events.publish(FlightEvent.Type.SEATS_BOOKED, reservation.getFlight(), reservation.getSeatsBooked(),
+                state, reservation.getId());
+    }
+
+    // a booking whose seats are taken but that is not recorded yet, with the seat state its claim set
+    private static final class Claim {
+        private final Reservation reservation;
+        private final long seatState;
+
+        private Claim(Reservation reservation, long seatState) {
+            this.reservation = reservation;
+            this.seatState = seatState;
+        }
+    }
+
+    // every flight added, booked, sold out or released from now on; see FlightEventFeed
+    public FlightEventFeed getEvents() {
+        return events;
+    }
+
+    // flexible search: flights to any of the destinations departing in [from, to) that still have seats,
+    // ordered by departure time. The stream is lazy, nothing is read from the
+    // index until it is consumed, so e.g. .limit(20) only walks as far as the 20th result
+    public Stream<Flight> searchFlights(Collection<String> destinations, LocalDateTime from, LocalDateTime to) {
+        if (destinations == null || destinations.isEmpty()) {
+            throw new IllegalArgumentException("Err: destinations must not be empty");
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Err: from and to must not be null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Err: to must not be before from");
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String destination : destinations) {
+            if (destination == null || destination.isBlank()) {
+                throw new IllegalArgumentException("Err: destination must not be blank");
+            }
+            normalized.add(normalizeDestination(destination));
+        }
+
+        return StreamSupport.stream(() -> {
+            List<Iterator<Flight>> sources = new ArrayList<>(normalized.size());
+            for (String destination : normalized) {
+                sources.add(inventory.scanAvailable(destination, from, to));
+            }
+            Iterator<Flight> merged = sources.size() == 1 ? sources.get(0) : new DepartureMerge(sources);
+            return Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL);
+        }, Spliterator.ORDERED | Spliterator.NONNULL, false);
+    }
 
 
     public Reservation bookFlight(String customerName, Flight flight, int seats) {
+        Objects.requireNonNull(flight, "flight must not be null");
+        return bookFlight(customerName, flight.getFlightNumber(), seats);
+    }
+
+    //book by flight number, the seats are always taken from the instance this service manages
+    public Reservation bookFlight(String customerName, String flightNumber, int seats) {
+        long start = System.nanoTime();
+        try {
+            Reservation reservation = bookAndLog(customerName, flightNumber, seats, null, false);
+            metrics.bookSucceeded.recordSince(start);
+            return reservation;
+        } catch (SeatsUnavailableException e) {
+            metrics.bookSoldOut.recordSince(start);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            metrics.bookRejected.recordSince(start);
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.bookFailed.recordSince(start);
+            throw e;
+        }
+    }
+
+    //books seats on a flight with a seat map: from the fare class (or cabin) quota when fareClass is given,
+    //and all in one row without an aisle between them when adjacent is set. The reservation says which
+    //seats it got; SeatsUnavailableException if the fare class is sold out or no row has the seats together
+    public Reservation bookSeats(String customerName, String flightNumber, String fareClass, int seats,
+                                 boolean adjacent) {
+        long start = System.nanoTime();
+        try {
+            Reservation reservation = bookAndLog(customerName, flightNumber, seats, fareClass, adjacent);
+            metrics.bookSucceeded.recordSince(start);
+            return reservation;
+        } catch (SeatsUnavailableException e) {
+            metrics.bookSoldOut.recordSince(start);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            metrics.bookRejected.recordSince(start);
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.bookFailed.recordSince(start);
+            throw e;
+        }
+    }
+
+    private Reservation bookAndLog(String customerName, String flightNumber, int seats, String fareClass,
+                                   boolean adjacent) {
+        FlightPersistence journal = persistence;
+        if (journal == null) {
+            return publishBooking(claimBooking(reservationIds.next(), customerName, flightNumber, seats, fareClass,
+                    adjacent, null));
+        }
+        journal.beginChange();
+        try {
+            // the seats are claimed first so a sold out flight never reaches the journal, but nothing is
+            // indexed or announced until the record is durable
+            Claim claim = claimBooking(reservationIds.next(), customerName, flightNumber, seats,
+                    fareClass, adjacent, null);
+            try {
+                journal.logBooking(claim.reservation);
+            } catch (RuntimeException e) {
+                unclaim(claim.reservation);
+                throw e;
+            }
+            return publishBooking(claim);
+        } finally {
+            journal.endChange();
+        }
+    }
+
+    // validates and takes the seats (count, then the seat map) for a booking that is not recorded yet,
+    // see publishBooking and unclaim. assignedSeats are the exact seats to take again when a journal is
+    // replayed, null otherwise
+    private Claim claimBooking(long reservationId, String customerName, String flightNumber, int seats,
+                               String fareClass, boolean adjacent, int[] assignedSeats) {
         if (customerName == null || customerName.isBlank()) {
             throw new IllegalArgumentException("customerName must not be blank");
         }
-        Objects.requireNonNull(flight, "flight must not be null");
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("flightNumber must not be blank");
+        }
         if (seats <= 0) {
             throw new IllegalArgumentException("seats must be > 0");
         }
 
-        if (!flights.contains(flight)) {
+        Flight flight = inventory.find(flightNumber);
+        if (flight == null) {
             throw new IllegalArgumentException("Flight is not managed by this service");
         }
+        SeatMap seatMap = flight.seatMap();
+        int fare = -1;
+        if (seatMap == null && (fareClass != null || adjacent)) {
+            throw new IllegalArgumentException("Err: flight " + flightNumber + " has no seat map");
+        }
+        if (fareClass != null) {
+            fare = seatMap.layout().fareClass(fareClass);
+            if (fare < 0) {
+                throw new IllegalArgumentException("Err: no fare class " + fareClass + " on flight " + flightNumber);
+            }
+        }
 
-        int available = flight.getAvailableSeats();
-        if (seats > available) {
-            throw new IllegalArgumentException("Not enough seats available. Requested: "
-                    + seats + ", Available: " + available);
+        long state = flight.tryReserveSeats(seats);
+        if (state == Flight.NOT_RESERVED) {
+            throw new SeatsUnavailableException("Not enough seats available. Requested: "
+                    + seats + ", Available: " + flight.getAvailableSeats());
         }
 
-        flight.setAvailableSeats(available - seats);
+        int[] assigned = null;
+        if (seatMap != null) {
+            assigned = assignedSeats != null ? takeSeats(seatMap, fare, assignedSeats)
+                    : fare >= 0 || adjacent ? claimSeats(seatMap, fare, seats, adjacent)
+                    : claimAnywhere(seatMap, seats);
+            if (assigned == null) {
+                untakeSeats(flight, seats);
+                throw new SeatsUnavailableException("Not enough seats available"
+                        + (fareClass == null ? "" : " in fare class " + fareClass)
+                        + (adjacent ? " together" : "") + ". Requested: " + seats);
+            }
+        }
 
-        Reservation reservation = new Reservation(customerName, flight, seats);
-        reservations.add(reservation);
+        return new Claim(new Reservation(reservationId, customerName, flight, seats, assigned,
+                fare < 0 ? null : seatMap.layout().fareName(fare)), state);
+    }
 
+    // a claimed booking that is durable (or needs no journal) goes into the indexes and out to subscribers
+    private Reservation publishBooking(Claim claim) {
+        Reservation reservation = claim.reservation;
+        seatsChanged(reservation.getFlight(), -reservation.getSeatsBooked());
+        recordReservation(reservation);
+        seatsBooked(reservation, claim.seatState);
+        seatsTaken(reservation.getFlight(), claim.seatState);
         return reservation;
     }
-    
-    public List<Reservation> findReservationsByCustomer(String customerName) {
+
+    // a claimed booking whose journal record failed never happened: its seats go back without an event,
+    // nobody was told they were taken
+    private void unclaim(Reservation reservation) {
+        releaseAssigned(reservation);
+        untakeSeats(reservation.getFlight(), reservation.getSeatsBooked());
+    }
+
+    //books a whole group in one pass: either every request gets its seats or none does
+    public List<Reservation> bookFlights(List<BookingRequest> requests) {
+        FlightPersistence journal = persistence;
+        if (journal == null) {
+            return publishBookings(claimBookings(requests));
+        }
+        journal.beginChange();
+        try {
+            List<Claim> claimed = claimBookings(requests);
+            if (!claimed.isEmpty()) {
+                List<Reservation> reservations = new ArrayList<>(claimed.size());
+                for (Claim claim : claimed) {
+                    reservations.add(claim.reservation);
+                }
+                try {
+                    journal.logBatch(reservations);
+                } catch (RuntimeException e) {
+                    for (Reservation reservation : reservations) {
+                        unclaim(reservation);
+                    }
+                    throw e;
+                }
+            }
+            return publishBookings(claimed);
+        } finally {
+            journal.endChange();
+        }
+    }
+
+    // one Claim per request; the requests on one flight share the state of that flight's single claim
+    private List<Claim> claimBookings(List<BookingRequest> requests) {
+        Objects.requireNonNull(requests, "requests must not be null");
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // validate everything and add up the seats per flight before touching any counter
+        Flight[] resolved = new Flight[requests.size()];
+        Map<Flight, Integer> seatsPerFlight = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            if (request == null) {
+                throw new IllegalArgumentException("Err: booking request " + i + " must not be null");
+            }
+            Flight flight = inventory.find(request.getFlightNumber());
+            if (flight == null) {
+                throw new IllegalArgumentException("Flight is not managed by this service: " + request.getFlightNumber());
+            }
+            resolved[i] = flight;
+            seatsPerFlight.merge(flight, request.getSeats(), Integer::sum);
+        }
+
+        // one claim per affected flight; if any flight is short, give back what was already taken
+        Map<Flight, Long> states = new HashMap<>();
+        for (Map.Entry<Flight, Integer> entry : seatsPerFlight.entrySet()) {
+            Flight flight = entry.getKey();
+            int seats = entry.getValue();
+            long state = flight.tryReserveSeats(seats);
+            if (state == Flight.NOT_RESERVED) {
+                for (Flight taken : states.keySet()) {
+                    untakeSeats(taken, seatsPerFlight.get(taken));
+                }
+                throw new SeatsUnavailableException("Not enough seats available on " + flight.getFlightNumber()
+                        + ". Requested: " + seats + ", Available: " + flight.getAvailableSeats());
+            }
+            states.put(flight, state);
+        }
+
+        // the counts are taken, so every flight with a seat map has the seats somewhere
+        List<Claim> booked = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            SeatMap seatMap = resolved[i].seatMap();
+            int[] assigned = seatMap == null ? null : claimAnywhere(seatMap, request.getSeats());
+            booked.add(new Claim(new Reservation(reservationIds.next(), request.getCustomerName(), resolved[i],
+                    request.getSeats(), assigned, null), states.get(resolved[i])));
+        }
+        return booked;
+    }
+
+    private List<Reservation> publishBookings(List<Claim> booked) {
+        Map<Flight, Long> flights = new LinkedHashMap<>();
+        List<Reservation> reservations = new ArrayList<>(booked.size());
+        for (Claim claim : booked) {
+            Reservation reservation = claim.reservation;
+            seatsChanged(reservation.getFlight(), -reservation.getSeatsBooked());
+            recordReservation(reservation);
+            seatsBooked(reservation, claim.seatState);
+            flights.put(reservation.getFlight(), claim.seatState);
+            reservations.add(reservation);
+        }
+        for (Map.Entry<Flight, Long> flight : flights.entrySet()) {
+            seatsTaken(flight.getKey(), flight.getValue());
+        }
+        return reservations;
+    }
+
+    //takes seats off sale for the given time; confirm the hold to turn it into a reservation,
+    //otherwise the seats go back on sale when it is released or expires
+    public SeatHold holdSeats(String customerName, String flightNumber, int seats, Duration ttl) {
         if (customerName == null || customerName.isBlank()) {
-            throw new IllegalArgumentException(" Err: customerName must not be blank");
+            throw new IllegalArgumentException("customerName must not be blank");
+        }
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("flightNumber must not be blank");
+        }
+        if (seats <= 0) {
+            throw new IllegalArgumentException("seats must be > 0");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be > 0");
         }
 
-        String normalized = customerName.trim().toLowerCase();
-        List<Reservation> result = new ArrayList<>();
+        Flight flight = inventory.find(flightNumber);
+        if (flight == null) {
+            throw new IllegalArgumentException("Flight is not managed by this service");
+        }
 
-        for (Reservation r : reservations) {
-            String reservationName = r.getCustomerName();
-            if (reservationName != null &&
-                    reservationName.trim().toLowerCase().equals(normalized)) {
-                result.add(r);
+        FlightPersistence journal = persistence;
+        if (journal != null) {
+            journal.beginChange();
+        }
+        SeatHold hold;
+        try {
+            long state = flight.tryReserveSeats(seats);
+            if (state == Flight.NOT_RESERVED) {
+                throw new SeatsUnavailableException("Not enough seats available. Requested: "
+                        + seats + ", Available: " + flight.getAvailableSeats());
+            }
+            seatsChanged(flight, -seats);
+            seatsTaken(flight, state);
+            long deadline = System.nanoTime() + ttl.toNanos();
+            hold = new SeatHold(holdIds.incrementAndGet(), customerName, flight, seats, state,
+                    Instant.now().plus(ttl), deadline, this);
+            activeHolds.put(hold.getId(), hold);
+        } finally {
+            if (journal != null) {
+                journal.endChange();
             }
         }
+        HoldExpiryWheel.shared().schedule(hold);
+        return hold;
+    }
 
-        return result;
+    //turns an active hold into a reservation, the seats were already taken when the hold was made
+    public Reservation confirmHold(long holdId) {
+        SeatHold hold = activeHolds.get(holdId);
+        if (hold == null) {
+            throw new IllegalArgumentException("Hold " + holdId + " has expired or was already used");
+        }
+
+        FlightPersistence journal = persistence;
+        if (journal != null) {
+            journal.beginChange();
+        }
+        try {
+            if (!hold.finish(SeatHold.CONFIRMED)) {
+                throw new IllegalArgumentException("Hold " + holdId + " has expired or was already used");
+            }
+            activeHolds.remove(holdId);
+            // a hold only takes the count, its seats are picked now
+            SeatMap seatMap = hold.getFlight().seatMap();
+            int[] assigned = seatMap == null ? null : claimAnywhere(seatMap, hold.getSeats());
+            Reservation reservation = new Reservation(reservationIds.next(), hold.getCustomerName(),
+                    hold.getFlight(), hold.getSeats(), assigned, null);
+            if (journal != null) {
+                try {
+                    journal.logBooking(reservation);
+                } catch (RuntimeException e) {
+                    // the hold is used up either way, its seats go back on sale instead of into a booking
+                    hold.abandon();
+                    releaseAssigned(reservation);
+                    giveBackSeats(hold.getFlight(), hold.getSeats(), 0);
+                    throw e;
+                }
+            }
+            recordReservation(reservation);
+            seatsBooked(reservation, hold.getSeatState());
+            return reservation;
+        } finally {
+            if (journal != null) {
+                journal.endChange();
+            }
+        }
+    }
+
+    //gives the held seats back; false if the hold was already confirmed, released or expired
+    public boolean releaseHold(long holdId) {
+        SeatHold hold = activeHolds.get(holdId);
+        return hold != null && endHold(hold, SeatHold.RELEASED);
+    }
+
+    // called by the timing wheel, which has nobody to throw to: a failure is logged and counted in the
+    // metrics (holdExpiryFailures), and the wheel goes on with the other holds
+    void expireHold(SeatHold hold) {
+        try {
+            endHold(hold, SeatHold.EXPIRED);
+        } catch (RuntimeException e) {
+            metrics.holdExpiryFailures.increment();
+            System.err.println("Error while expiring seat hold " + hold.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private boolean endHold(SeatHold hold, int state) {
+        FlightPersistence journal = persistence;
+        if (journal != null) {
+            journal.beginChange();
+        }
+        try {
+            if (!hold.finish(state)) {
+                return false;
+            }
+            activeHolds.remove(hold.getId());
+            giveBackSeats(hold.getFlight(), hold.getSeats(), 0);
+            return true;
+        } finally {
+            if (journal != null) {
+                journal.endChange();
+            }
+        }
+    }
+
+    //cancels a reservation and puts its seats back on sale; safe to race with bookings on the same flight
+    //and with other cancellations, exactly one caller wins
+    public Reservation cancelReservation(long reservationId) {
+        FlightPersistence journal = persistence;
+        if (journal == null) {
+            return finishCancellation(takeReservation(reservationId));
+        }
+        journal.beginChange();
+        try {
+            // taking it out of reservationsById decides the race, but its seats stay taken until the record
+            // is durable; if it cannot be written the reservation goes back as it was
+            Reservation cancelled = takeReservation(reservationId);
+            try {
+                journal.logCancellation(cancelled);
+            } catch (RuntimeException e) {
+                reservationsById.put(cancelled.getId(), cancelled);
+                // an archiving run may have emptied its day meanwhile
+                indexByDay(cancelled);
+                throw e;
+            }
+            return finishCancellation(cancelled);
+        } finally {
+            journal.endChange();
+        }
+    }
+
+    private Reservation takeReservation(long reservationId) {
+        Reservation reservation = reservationsById.remove(reservationId);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " does not exist or was already cancelled");
+        }
+        return reservation;
+    }
+
+    private Reservation finishCancellation(Reservation reservation) {
+        Queue<Reservation> forCustomer = reservationsByCustomer.get(normalizeCustomer(reservation.getCustomerName()));
+        if (forCustomer != null) {
+            forCustomer.remove(reservation);
+        }
+        Set<Reservation> onDay = reservationsByDay.get(reservation.getFlight().getDepartureEpochDay());
+        if (onDay != null) {
+            onDay.remove(reservation);
+        }
+        customerNames.add(reservation.getCustomerName(), -1);
+        // the seats go back before the count, so the count never promises seats the map does not have
+        releaseAssigned(reservation);
+        giveBackSeats(reservation.getFlight(), reservation.getSeatsBooked(), reservation.getId());
+        return reservation;
+    }
+
+    // the fare quota first, then the seats; null, with neither taken, if either runs out
+    private static int[] claimSeats(SeatMap seatMap, int fare, int seats, boolean adjacent) {
+        if (fare >= 0 && !seatMap.takeFare(fare, seats)) {
+            return null;
+        }
+        int cabin = fare < 0 ? -1 : seatMap.layout().fareCabin(fare);
+        int[] assigned = adjacent ? seatMap.claimTogether(cabin, seats) : seatMap.claimAny(cabin, seats);
+        if (assigned == null && fare >= 0) {
+            seatMap.releaseFare(fare, seats);
+        }
+        return assigned;
+    }
+
+    // for a booking that already holds the count, which guarantees enough free seats on the aircraft. A
+    // pass over the map can still come up short while other claims free seats behind it and take seats
+    // ahead of it, so it goes again
+    private static int[] claimAnywhere(SeatMap seatMap, int seats) {
+        for (int attempt = 0; attempt < 1_000_000; attempt++) {
+            int[] assigned = seatMap.claimAny(-1, seats);
+            if (assigned != null) {
+                return assigned;
+            }
+            Thread.onSpinWait();
+        }
+        throw new IllegalStateException("Err: seat map is out of step with the seat count");
+    }
+
+    private static int[] takeSeats(SeatMap seatMap, int fare, int[] seats) {
+        if (fare >= 0 && !seatMap.takeFare(fare, seats.length)) {
+            return null;
+        }
+        if (!seatMap.claim(seats)) {
+            if (fare >= 0) {
+                seatMap.releaseFare(fare, seats.length);
+            }
+            return null;
+        }
+        return seats;
+    }
+
+    private static void releaseAssigned(Reservation reservation) {
+        int[] seats = reservation.seats();
+        if (seats == null) {
+            return;
+        }
+        SeatMap seatMap = reservation.getFlight().seatMap();
+        seatMap.release(seats);
+        if (reservation.getFareClass() != null) {
+            seatMap.releaseFare(seatMap.layout().fareClass(reservation.getFareClass()), seats.length);
+        }
+    }
+
+    //findReservationsByCustomer reads the archive from now on, and archiveDeparted writes to it. Only the
+    //default HeapFlightInventory can give flights up; the rows of a MappedFlightInventory stay where they are
+    public void setArchive(FlightArchive archive) {
+        Objects.requireNonNull(archive, "Err: archive must not be null");
+        if (!(inventory instanceof HeapFlightInventory)) {
+            throw new IllegalArgumentException("Err: " + inventory.getClass().getSimpleName()
+                    + " cannot archive flights, only HeapFlightInventory can");
+        }
+        this.archive = archive;
+    }
+
+    boolean hasArchive() {
+        return archive != null;
+    }
+
+    //moves every flight departing before the date, and every reservation on such a flight, out of memory
+    //into the archive, one segment per departure date, and reports what each date freed. Bookings keep
+    //running meanwhile: the flights leave the indexes under the add lock only, and each reservation is taken
+    //over the way a cancellation takes it, so a cancel racing the archiver either wins or finds it archived.
+    //Holds on the flights end as expired. On a durable service a snapshot is taken once the segments are
+    //written, so a restart does not bring the archived flights back; without one, a booking that races
+    //its flight's removal is picked up by the next run
+    public List<ArchivedDay> archiveDeparted(LocalDate before) throws IOException {
+        Objects.requireNonNull(before, "Err: before must not be null");
+        FlightArchive target = archive;
+        if (target == null) {
+            throw new IllegalStateException("Err: no archive set, see setArchive");
+        }
+        long beforeDay = before.toEpochDay();
+        FlightPersistence journal = persistence;
+        synchronized (archiveLock) {
+            List<Flight> departed;
+            if (journal != null) {
+                journal.beginChange();
+            }
+            try {
+                synchronized (this) {
+                    departed = ((HeapFlightInventory) inventory).removeDepartedBefore(beforeDay);
+                    if (connections != null) {
+                        connections.removeBefore(beforeDay);
+                    }
+                }
+                archivingFlights = departed;
+                dropHolds(departed);
+            } finally {
+                if (journal != null) {
+                    journal.endChange();
+                }
+            }
+            Map<Long, List<Flight>> flightsByDay = new TreeMap<>();
+            for (Flight flight : departed) {
+                flightsByDay.computeIfAbsent(flight.getDepartureEpochDay(), d -> new ArrayList<>()).add(flight);
+                // a booking racing the removal may still take seats and count them off a second time
+                seatsChanged(flight, -flight.getAvailableSeats());
+                if (searchCache != null) {
+                    searchCache.invalidate(flight);
+                }
+            }
+
+            Map<Long, List<Reservation>> reservationsByDay = new TreeMap<>();
+            if (journal != null) {
+                // bookings that found one of the flights before it was removed are recorded after this
+                journal.awaitChanges();
+                journal.beginChange();
+            }
+            try {
+                List<Reservation> taken = new ArrayList<>();
+                for (Iterator<Map.Entry<Long, Set<Reservation>>> days = this.reservationsByDay.headMap(beforeDay)
+                        .entrySet().iterator(); days.hasNext(); ) {
+                    Map.Entry<Long, Set<Reservation>> day = days.next();
+                    days.remove();
+                    for (Reservation reservation : day.getValue()) {
+                        if (reservationsById.remove(reservation.getId(), reservation)) {
+                            reservationsByDay.computeIfAbsent(day.getKey(), d -> new ArrayList<>()).add(reservation);
+                            taken.add(reservation);
+                        }
+                    }
+                }
+                archivingReservations = taken;
+            } finally {
+                if (journal != null) {
+                    journal.endChange();
+                }
+            }
+
+            TreeSet<Long> days = new TreeSet<>(flightsByDay.keySet());
+            days.addAll(reservationsByDay.keySet());
+            List<ArchivedDay> archived = new ArrayList<>(days.size());
+            try {
+                for (long day : days) {
+                    List<Flight> flights = flightsByDay.getOrDefault(day, List.of());
+                    List<Reservation> reservations = reservationsByDay.getOrDefault(day, List.of());
+                    try {
+                        archived.add(target.write(LocalDate.ofEpochDay(day), flights, reservations));
+                    } catch (IOException | RuntimeException e) {
+                        // this date and the ones after it were not written, they stay in memory
+                        if (journal != null) {
+                            journal.beginChange();
+                        }
+                        try {
+                            for (long left : days.tailSet(day, true)) {
+                                unarchive(flightsByDay.getOrDefault(left, List.of()),
+                                        reservationsByDay.getOrDefault(left, List.of()));
+                            }
+                            archivingFlights = List.of();
+                            archivingReservations = List.of();
+                        } finally {
+                            if (journal != null) {
+                                journal.endChange();
+                            }
+                        }
+                        // the dates before it are in their segments and must not come back on a restart
+                        if (journal != null && !archived.isEmpty()) {
+                            try {
+                                journal.snapshot();
+                            } catch (IOException | RuntimeException suppressed) {
+                                e.addSuppressed(suppressed);
+                            }
+                        }
+                        throw e;
+                    }
+                    // the segment is in place, lookups find them there from now on
+                    unindexByCustomer(reservations);
+                }
+            } finally {
+                archivingFlights = List.of();
+                archivingReservations = List.of();
+            }
+            if (journal != null && !days.isEmpty()) {
+                journal.snapshot();
+            }
+            return archived;
+        }
+    }
+
+    // holds on flights that are leaving memory end as expired, before the flights' seats are counted off
+    // the typeahead; the seats go back to the flight, which is archived with them
+    private void dropHolds(List<Flight> departed) {
+        Set<Flight> flights = Collections.newSetFromMap(new IdentityHashMap<>());
+        flights.addAll(departed);
+        for (SeatHold hold : activeHolds.values()) {
+            if (flights.contains(hold.getFlight()) && hold.finish(SeatHold.EXPIRED)) {
+                activeHolds.remove(hold.getId());
+                hold.getFlight().releaseSeats(hold.getSeats());
+                seatsChanged(hold.getFlight(), hold.getSeats());
+            }
+        }
+    }
+
+    private void unarchive(List<Flight> flights, List<Reservation> reservations) {
+        synchronized (this) {
+            List<Flight> back = new ArrayList<>(flights.size());
+            for (Flight flight : flights) {
+                if (inventory.find(flight.getFlightNumber()) == null) {
+                    back.add(flight);
+                }
+            }
+            inventory.addAll(back);
+            if (connections != null) {
+                connections.addAll(back);
+            }
+            for (Flight flight : back) {
+                seatsChanged(flight, flight.getAvailableSeats());
+            }
+        }
+        for (Reservation reservation : reservations) {
+            reservationsById.put(reservation.getId(), reservation);
+            indexByDay(reservation);
+        }
+    }
+
+    private void unindexByCustomer(List<Reservation> reservations) {
+        Map<String, Set<Reservation>> byCustomer = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            byCustomer.computeIfAbsent(normalizeCustomer(reservation.getCustomerName()), c -> new HashSet<>())
+                    .add(reservation);
+        }
+        for (Map.Entry<String, Set<Reservation>> entry : byCustomer.entrySet()) {
+            Queue<Reservation> forCustomer = reservationsByCustomer.get(entry.getKey());
+            if (forCustomer != null) {
+                forCustomer.removeIf(entry.getValue()::contains);
+            }
+        }
+    }
+
+    // journal replay: the same booking and cancellation again, with the ids that were handed out then
+    void replayBooking(long reservationId, String customerName, String flightNumber, int seats, String fareClass,
+                       int[] assignedSeats) {
+        reservationIds.advancePast(reservationId);
+        publishBooking(claimBooking(reservationId, customerName, flightNumber, seats, fareClass, false, assignedSeats));
+    }
+
+    void replayCancellation(long reservationId) {
+        finishCancellation(takeReservation(reservationId));
+    }
+
+    void attach(FlightPersistence persistence) {
+        this.persistence = persistence;
+    }
+
+    // loads a snapshot into an empty service, the seat counts already account for its reservations.
+    // Flights with a seat map start with every seat free and take their reservations' seats again instead
+    void restore(FlightSnapshot snapshot) {
+        List<Flight> snapshotFlights = snapshot.getFlights();
+        for (int i = 0; i < snapshotFlights.size(); i++) {
+            if (snapshotFlights.get(i).seatMap() == null) {
+                snapshotFlights.get(i).setAvailableSeats(snapshot.getAvailableSeats(i));
+            }
+        }
+        insertFlights(snapshotFlights, null);
+        for (Reservation reservation : snapshot.getReservations()) {
+            reservationIds.advancePast(reservation.getId());
+            SeatMap seatMap = reservation.getFlight().seatMap();
+            if (seatMap != null) {
+                int fare = reservation.getFareClass() == null ? -1 : seatMap.layout().fareClass(reservation.getFareClass());
+                if (reservation.seats() == null || takeSeats(seatMap, fare, reservation.seats()) == null
+                        || reservation.getFlight().tryReserveSeats(reservation.getSeatsBooked()) == Flight.NOT_RESERVED) {
+                    throw new IllegalStateException("Err: snapshot seats of reservation " + reservation.getId()
+                            + " do not fit flight " + reservation.getFlight().getFlightNumber());
+                }
+                seatsChanged(reservation.getFlight(), -reservation.getSeatsBooked());
+            }
+            recordReservation(reservation);
+        }
+    }
+
+    // only consistent while no change is in flight, FlightPersistence holds its checkpoint lock around it
+    FlightSnapshot captureSnapshot() {
+        // holds are not durable, so their seats are written back as available
+        Map<String, Integer> heldSeats = new HashMap<>();
+        for (SeatHold hold : activeHolds.values()) {
+            heldSeats.merge(hold.getFlight().getFlightNumber(), hold.getSeats(), Integer::sum);
+        }
+        List<Flight> allFlights = new ArrayList<>(getAllFlights());
+        allFlights.addAll(archivingFlights);
+        int[] seats = new int[allFlights.size()];
+        for (int i = 0; i < seats.length; i++) {
+            Flight flight = allFlights.get(i);
+            seats[i] = flight.getAvailableSeats() + heldSeats.getOrDefault(flight.getFlightNumber(), 0);
+        }
+        List<Reservation> allReservations = getAllReservations();
+        allReservations.addAll(archivingReservations);
+        return new FlightSnapshot(allFlights, seats, allReservations);
+    }
+
+    private void recordReservation(Reservation reservation) {
+        reservationsById.put(reservation.getId(), reservation);
+        indexByCustomer(reservation);
+        indexByDay(reservation);
+        customerNames.add(reservation.getCustomerName(), 1);
+    }
+
+    private void indexByDay(Reservation reservation) {
+        reservationsByDay
+                .computeIfAbsent(reservation.getFlight().getDepartureEpochDay(), d -> ConcurrentHashMap.newKeySet())
+                .add(reservation);
+    }
+
+    private void indexByCustomer(Reservation reservation) {
+        reservationsByCustomer
+                .computeIfAbsent(normalizeCustomer(reservation.getCustomerName()), c -> new ConcurrentLinkedQueue<>())
+                .add(reservation);
+    }
+    
+    //the customer's reservations in memory, plus archived ones (oldest departure date first, before the
+    //others) when an archive is set
+    public List<Reservation> findReservationsByCustomer(String customerName) {
+        long start = System.nanoTime();
+        try {
+            if (customerName == null || customerName.isBlank()) {
+                throw new IllegalArgumentException(" Err: customerName must not be blank");
+            }
+
+            String normalized = normalizeCustomer(customerName);
+            Queue<Reservation> forCustomer = reservationsByCustomer.get(normalized);
+            FlightArchive archived = archive;
+            if (archived == null) {
+                return forCustomer == null ? new ArrayList<>() : new ArrayList<>(forCustomer);
+            }
+
+            // a crash between writing a segment and the snapshot after it brings its reservations back from
+            // the journal, so the same id may turn up in memory and in one or more segments
+            List<Reservation> hot = forCustomer == null ? List.of() : new ArrayList<>(forCustomer);
+            Set<Long> seen = new HashSet<>();
+            for (Reservation reservation : hot) {
+                seen.add(reservation.getId());
+            }
+            List<Reservation> result = new ArrayList<>();
+            for (Reservation reservation : archived.findByCustomer(normalized)) {
+                if (seen.add(reservation.getId())) {
+                    result.add(reservation);
+                }
+            }
+            result.addAll(hot);
+            return result;
+        } finally {
+            metrics.findReservations.recordSince(start);
+        }
+    }
+
+    //typeahead for destinations: up to limit of them starting with prefix, case ignored, the most seats still
+    //on sale (on every flight this service holds to it) first. Answers from an index kept up to date by
+    //every add and booking, without looking at any flight
+    public List<Completion> completeDestinations(String prefix, int limit) {
+        return complete(destinationNames, prefix, limit);
+    }
+
+    //typeahead for customer names, the customers holding the most bookings first; archived bookings still count
+    public List<Completion> completeCustomers(String prefix, int limit) {
+        return complete(customerNames, prefix, limit);
+    }
+
+    private static List<Completion> complete(NameTrie names, String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Err: prefix must not be null");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Err: limit must be > 0");
+        }
+        return names.complete(prefix, limit);
     }
 
 }
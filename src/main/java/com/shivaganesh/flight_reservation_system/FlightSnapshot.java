@@ -0,0 +1,187 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+//Compact point-in-time copy of every flight (with its current seat count) and every reservation.
+//Written to a temp file, forced and renamed, so a crash never leaves a half written snapshot behind.
+
+class FlightSnapshot {
+
+    private static final int MAGIC = 0x46534E50; // "FSNP"
+    private static final int VERSION = 4;
+    // older snapshots are still read: version 2 has no routes, version 3 no seat maps
+    private static final int UNROUTED_VERSION = 2;
+    private static final int UNMAPPED_VERSION = 3;
+
+    private final List<Flight> flights;
+    // seat counts as they were when the snapshot was taken, not the live values on the Flight objects
+    private final int[] availableSeats;
+    private final List<Reservation> reservations;
+
+    FlightSnapshot(List<Flight> flights, int[] availableSeats, List<Reservation> reservations) {
+        this.flights = flights;
+        this.availableSeats = availableSeats;
+        this.reservations = reservations;
+    }
+
+    List<Flight> getFlights() {
+        return flights;
+    }
+
+    int getAvailableSeats(int index) {
+        return availableSeats[index];
+    }
+
+    List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(flights.size());
+            for (int i = 0; i < flights.size(); i++) {
+                Flight f = flights.get(i);
+                out.writeUTF(f.getFlightNumber());
+                out.writeUTF(f.getDestination());
+                out.writeLong(f.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(f.getDepartureTime().getNano());
+                out.writeBoolean(f.hasRoute());
+                if (f.hasRoute()) {
+                    out.writeUTF(f.getOrigin());
+                    out.writeLong(f.getArrivalTime().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(f.getArrivalTime().getNano());
+                    out.writeBoolean(f.getSeatLayout() != null);
+                    if (f.getSeatLayout() != null) {
+                        out.writeUTF(f.getSeatLayout().toString());
+                    }
+                }
+                out.writeInt(availableSeats[i]);
+            }
+            out.writeInt(reservations.size());
+            for (Reservation r : reservations) {
+                out.writeLong(r.getId());
+                out.writeUTF(r.getCustomerName());
+                out.writeUTF(r.getFlight().getFlightNumber());
+                out.writeInt(r.getSeatsBooked());
+                out.writeUTF(r.getFareClass() == null ? "" : r.getFareClass());
+                int[] seats = r.seats();
+                out.writeInt(seats == null ? 0 : seats.length);
+                if (seats != null) {
+                    for (int seat : seats) {
+                        out.writeInt(seat);
+                    }
+                }
+            }
+            out.flush();
+            long checksum = checked.getChecksum().getValue();
+            out.writeLong(checksum);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static FlightSnapshot read(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(raw, 1 << 16), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Err: not a flight snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version < UNROUTED_VERSION || version > VERSION) {
+                throw new IOException("Err: unsupported snapshot version: " + file);
+            }
+
+            int flightCount = in.readInt();
+            List<Flight> flights = new ArrayList<>(flightCount);
+            int[] availableSeats = new int[flightCount];
+            Map<String, Flight> byNumber = new HashMap<>(flightCount * 2);
+            for (int i = 0; i < flightCount; i++) {
+                String flightNumber = in.readUTF();
+                String destination = in.readUTF();
+                LocalDateTime departure = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                String origin = null;
+                LocalDateTime arrival = null;
+                SeatLayout layout = null;
+                if (version != UNROUTED_VERSION && in.readBoolean()) {
+                    origin = in.readUTF();
+                    arrival = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                    if (version != UNMAPPED_VERSION && in.readBoolean()) {
+                        layout = SeatLayout.parse(in.readUTF());
+                    }
+                }
+                availableSeats[i] = in.readInt();
+                // a seat-mapped flight starts empty, FlightService.restore takes its reservations' seats again
+                Flight flight = origin == null
+                        ? new Flight(flightNumber, destination, departure, availableSeats[i])
+                        : layout != null ? new Flight(flightNumber, origin, destination, departure, arrival, layout)
+                        : new Flight(flightNumber, origin, destination, departure, arrival, availableSeats[i]);
+                flights.add(flight);
+                byNumber.put(flightNumber, flight);
+            }
+
+            int reservationCount = in.readInt();
+            List<Reservation> reservations = new ArrayList<>(reservationCount);
+            for (int i = 0; i < reservationCount; i++) {
+                long id = in.readLong();
+                String customerName = in.readUTF();
+                Flight flight = byNumber.get(in.readUTF());
+                if (flight == null) {
+                    throw new IOException("Err: snapshot reservation refers to an unknown flight: " + file);
+                }
+                int seatsBooked = in.readInt();
+                String fareClass = null;
+                int[] seats = null;
+                if (version > UNMAPPED_VERSION) {
+                    fareClass = in.readUTF();
+                    int assigned = in.readInt();
+                    if (assigned > 0) {
+                        seats = new int[assigned];
+                        for (int s = 0; s < assigned; s++) {
+                            seats[s] = in.readInt();
+                        }
+                    }
+                }
+                reservations.add(new Reservation(id, customerName, flight, seatsBooked, seats,
+                        fareClass == null || fareClass.isEmpty() ? null : fareClass));
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Err: snapshot checksum mismatch: " + file);
+            }
+            return new FlightSnapshot(flights, availableSeats, reservations);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.shivaganesh.flight_reservation_system;
+
+//When the journal forces appended records to disk before a booking returns.
+
+public enum FsyncPolicy {
+
+    // every record is written and forced on its own, bookings are fully serialized on the disk
+    EVERY_WRITE,
+
+    // bookings waiting at the same time share one write and one fsync
+    GROUP_COMMIT,
+
+    // records are written in groups but never forced, a machine crash can lose the newest bookings
+    NONE
+}
@@ -0,0 +1,364 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+//Default in-memory inventory: plain Flight objects plus a flight-number index and a search index.
+
+public class HeapFlightInventory implements FlightInventory {
+
+    private static final Flight[] NO_FLIGHTS = new Flight[0];
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator.comparing(Flight::getDepartureTime);
+
+    // guarded by "this"
+    private final List<Flight> flights = new ArrayList<>();
+
+    // primary index: flight number -> the managed Flight instance
+    private final Map<String, Flight> flightsByNumber = new ConcurrentHashMap<>();
+
+    // ids of the destinations this inventory has flights to
+    private final DestinationIds destinationIds = new DestinationIds();
+
+    // search index: destination id -> that destination's schedule, null if none.
+    // Replaced when a new destination id needs more room
+    private volatile AtomicReferenceArray<Schedule> schedules = new AtomicReferenceArray<>(64);
+
+    // one destination's flights by departure epoch day. Days only get added under the inventory lock,
+    // which replaces the whole Schedule; a new flight on an existing day only swaps that day's bucket.
+    // Buckets are immutable arrays ordered by departure time, so searches read them without locking
+    private static final class Schedule {
+        private final long[] days;
+        private final AtomicReferenceArray<Flight[]> buckets;
+
+        private Schedule(long[] days, AtomicReferenceArray<Flight[]> buckets) {
+            this.days = days;
+            this.buckets = buckets;
+        }
+    }
+
+    @Override
+    public synchronized void add(Flight flight) {
+        flightsByNumber.put(flight.getFlightNumber(), flight);
+        flights.add(flight);
+        indexForSearch(flight);
+    }
+
+    // bulk load: the batch is grouped by destination (counting sort), each group sorted by departure,
+    // then every destination's schedule is rebuilt once with all of its new days and buckets,
+    // instead of copying a bucket or day list per flight
+    @Override
+    public synchronized void addAll(List<Flight> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int maxId = 0;
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Flight flight = batch.get(i);
+            flightsByNumber.put(flight.getFlightNumber(), flight);
+            ids[i] = destinationIds.intern(flight.getDestination());
+            maxId = Math.max(maxId, ids[i]);
+        }
+        flights.addAll(batch);
+
+        int[] groupStart = new int[maxId + 2];
+        for (int id : ids) {
+            groupStart[id + 1]++;
+        }
+        for (int d = 0; d <= maxId; d++) {
+            groupStart[d + 1] += groupStart[d];
+        }
+        Flight[] grouped = new Flight[batch.size()];
+        int[] next = Arrays.copyOf(groupStart, maxId + 1);
+        for (int i = 0; i < ids.length; i++) {
+            grouped[next[ids[i]]++] = batch.get(i);
+        }
+
+        AtomicReferenceArray<Schedule> byDestination = schedulesFor(maxId);
+        for (int d = 0; d <= maxId; d++) {
+            int from = groupStart[d];
+            int to = groupStart[d + 1];
+            if (from < to) {
+                Arrays.sort(grouped, from, to, BY_DEPARTURE);
+                byDestination.set(d, merge(byDestination.get(d), grouped, from, to));
+            }
+        }
+    }
+
+    // the schedule with flights[from, to) (one destination, sorted by day then time) merged in
+    private static Schedule merge(Schedule schedule, Flight[] flights, int from, int to) {
+        long[] oldDays = schedule == null ? new long[0] : schedule.days;
+        int newDayCount = 0;
+        for (int i = from; i < to; i++) {
+            if (i == from || flights[i].getDepartureEpochDay() != flights[i - 1].getDepartureEpochDay()) {
+                newDayCount++;
+            }
+        }
+        long[] days = new long[oldDays.length + newDayCount];
+        Flight[][] buckets = new Flight[days.length][];
+
+        int d = 0;
+        int o = 0;
+        int i = from;
+        while (o < oldDays.length || i < to) {
+            long day = i == to ? Long.MAX_VALUE : flights[i].getDepartureEpochDay();
+            if (o < oldDays.length && oldDays[o] < day) {
+                days[d] = oldDays[o];
+                buckets[d++] = schedule.buckets.get(o++);
+                continue;
+            }
+            int end = i;
+            while (end < to && flights[end].getDepartureEpochDay() == day) {
+                end++;
+            }
+            Flight[] added = Arrays.copyOfRange(flights, i, end);
+            i = end;
+            days[d] = day;
+            if (o < oldDays.length && oldDays[o] == day) {
+                buckets[d++] = mergeByDeparture(schedule.buckets.get(o++), added);
+            } else {
+                buckets[d++] = added;
+            }
+        }
+        return new Schedule(Arrays.copyOf(days, d), new AtomicReferenceArray<>(Arrays.copyOf(buckets, d)));
+    }
+
+    private static Flight[] mergeByDeparture(Flight[] existing, Flight[] added) {
+        Flight[] merged = new Flight[existing.length + added.length];
+        int e = 0;
+        int a = 0;
+        for (int m = 0; m < merged.length; m++) {
+            if (a == added.length || (e < existing.length
+                    && !existing[e].getDepartureTime().isAfter(added[a].getDepartureTime()))) {
+                merged[m] = existing[e++];
+            } else {
+                merged[m] = added[a++];
+            }
+        }
+        return merged;
+    }
+
+    // the schedules table, grown so destinationId fits
+    private AtomicReferenceArray<Schedule> schedulesFor(int destinationId) {
+        AtomicReferenceArray<Schedule> byDestination = schedules;
+        if (destinationId >= byDestination.length()) {
+            AtomicReferenceArray<Schedule> grown =
+                    new AtomicReferenceArray<>(Math.max(destinationId + 1, byDestination.length() * 2));
+            for (int i = 0; i < byDestination.length(); i++) {
+                grown.set(i, byDestination.get(i));
+            }
+            schedules = byDestination = grown;
+        }
+        return byDestination;
+    }
+
+    private void indexForSearch(Flight flight) {
+        int destinationId = destinationIds.intern(flight.getDestination());
+        AtomicReferenceArray<Schedule> byDestination = schedulesFor(destinationId);
+
+        Schedule schedule = byDestination.get(destinationId);
+        long day = flight.getDepartureEpochDay();
+        int pos = schedule == null ? -1 : Arrays.binarySearch(schedule.days, day);
+        if (pos >= 0) {
+            schedule.buckets.set(pos, insertByDeparture(schedule.buckets.get(pos), flight));
+            return;
+        }
+
+        // first flight on this day: copy the day list with the new day in place
+        long[] days = schedule == null ? new long[0] : schedule.days;
+        int insertAt = -pos - 1;
+        long[] newDays = new long[days.length + 1];
+        AtomicReferenceArray<Flight[]> newBuckets = new AtomicReferenceArray<>(days.length + 1);
+        for (int i = 0, j = 0; i < newDays.length; i++) {
+            if (i == insertAt) {
+                newDays[i] = day;
+                newBuckets.set(i, new Flight[] {flight});
+            } else {
+                newDays[i] = days[j];
+                newBuckets.set(i, schedule.buckets.get(j));
+                j++;
+            }
+        }
+        byDestination.set(destinationId, new Schedule(newDays, newBuckets));
+    }
+
+    private static Flight[] insertByDeparture(Flight[] bucket, Flight flight) {
+        // schedules are usually added in time order, so walking back from the tail is cheap
+        int pos = bucket.length;
+        while (pos > 0 && bucket[pos - 1].getDepartureTime().isAfter(flight.getDepartureTime())) {
+            pos--;
+        }
+        Flight[] updated = new Flight[bucket.length + 1];
+        System.arraycopy(bucket, 0, updated, 0, pos);
+        updated[pos] = flight;
+        System.arraycopy(bucket, pos, updated, pos + 1, bucket.length - pos);
+        return updated;
+    }
+
+    private Schedule schedule(String destination) {
+        int destinationId = destinationIds.find(destination);
+        AtomicReferenceArray<Schedule> byDestination = schedules;
+        if (destinationId < 0 || destinationId >= byDestination.length()) {
+            return null;
+        }
+        return byDestination.get(destinationId);
+    }
+
+    private static Flight[] bucket(Schedule schedule, long day) {
+        if (schedule == null) {
+            return NO_FLIGHTS;
+        }
+        int pos = Arrays.binarySearch(schedule.days, day);
+        return pos < 0 ? NO_FLIGHTS : schedule.buckets.get(pos);
+    }
+
+    @Override
+    public Flight find(String flightNumber) {
+        return flightsByNumber.get(flightNumber);
+    }
+
+    @Override
+    public List<Flight> searchAvailable(String destination, LocalDate date) {
+        Flight[] bucket = bucket(schedule(destination), date.toEpochDay());
+        List<Flight> result = new ArrayList<>(bucket.length);
+        for (Flight f : bucket) {
+            if (f.getAvailableSeats() > 0) {
+                result.add(f);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int forEachAvailable(String destination, LocalDate date, Consumer<? super Flight> action) {
+        int found = 0;
+        for (Flight f : bucket(schedule(destination), date.toEpochDay())) {
+            if (f.getAvailableSeats() > 0) {
+                action.accept(f);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<Flight> scanAvailable(String destination, LocalDateTime from, LocalDateTime to) {
+        Schedule schedule = schedule(destination);
+        if (schedule == null || !from.isBefore(to)) {
+            return Collections.emptyIterator();
+        }
+        int first = Arrays.binarySearch(schedule.days, from.toLocalDate().toEpochDay());
+        return new RangeIterator(schedule, first < 0 ? -first - 1 : first, to.toLocalDate().toEpochDay(), from, to);
+    }
+
+    // walks the day buckets of a range one flight at a time; buckets are immutable, so a scan sees
+    // each day as it was when it got there
+    private static final class RangeIterator implements Iterator<Flight> {
+
+        private final Schedule schedule;
+        private final long lastDay;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private int day;
+        private Flight[] bucket = NO_FLIGHTS;
+        private int pos;
+        private Flight next;
+        private boolean done;
+
+        RangeIterator(Schedule schedule, int firstDay, long lastDay, LocalDateTime from, LocalDateTime to) {
+            this.schedule = schedule;
+            this.day = firstDay;
+            this.lastDay = lastDay;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (done) {
+                    return false;
+                }
+                if (pos == bucket.length) {
+                    if (day == schedule.days.length || schedule.days[day] > lastDay) {
+                        return false;
+                    }
+                    bucket = schedule.buckets.get(day++);
+                    pos = 0;
+                    continue;
+                }
+                Flight f = bucket[pos++];
+                if (!f.getDepartureTime().isBefore(to)) {
+                    // buckets are time ordered and only the last day can run past "to"
+                    done = true;
+                    return false;
+                }
+                if (!f.getDepartureTime().isBefore(from) && f.getAvailableSeats() > 0) {
+                    next = f;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Flight next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Flight f = next;
+            next = null;
+            return f;
+        }
+    }
+
+    @Override
+    public synchronized List<Flight> all() {
+        return List.copyOf(flights);
+    }
+
+    // takes every flight departing before the epoch day out of the inventory and its indexes and returns
+    // them, for FlightService.archiveDeparted. Lookups running meanwhile see a flight either there or gone.
+    // Departed days are a prefix of every schedule, so each one just drops its first buckets. The search
+    // index goes first and the number index last, a flight stays bookable by number the longest
+    synchronized List<Flight> removeDepartedBefore(long epochDay) {
+        List<Flight> removed = new ArrayList<>();
+        flights.removeIf(flight -> flight.getDepartureEpochDay() < epochDay && removed.add(flight));
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        AtomicReferenceArray<Schedule> byDestination = schedules;
+        for (int d = 0; d < byDestination.length(); d++) {
+            Schedule schedule = byDestination.get(d);
+            if (schedule == null) {
+                continue;
+            }
+            int pos = Arrays.binarySearch(schedule.days, epochDay);
+            int keep = pos < 0 ? -pos - 1 : pos;
+            if (keep == 0) {
+                continue;
+            }
+            int left = schedule.days.length - keep;
+            AtomicReferenceArray<Flight[]> buckets = new AtomicReferenceArray<>(left);
+            for (int i = 0; i < left; i++) {
+                buckets.set(i, schedule.buckets.get(keep + i));
+            }
+            byDestination.set(d, left == 0 ? null
+                    : new Schedule(Arrays.copyOfRange(schedule.days, keep, schedule.days.length), buckets));
+        }
+        for (Flight flight : removed) {
+            flightsByNumber.remove(flight.getFlightNumber(), flight);
+        }
+        return removed;
+    }
+}
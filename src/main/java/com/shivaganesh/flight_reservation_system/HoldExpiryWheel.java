@@ -0,0 +1,130 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//Hierarchical timing wheel that expires seat holds.
+//
+//Four levels of 64 slots with a 10 ms tick cover about 46 hours; a hold lands in the lowest level
+//whose span fits its remaining time and moves down a level each time its higher slot comes round.
+//Scheduling costs O(1) and a tick only touches the holds that are due, there are no full scans.
+//
+//Holds are handed over through a lock-free queue and only the wheel thread touches the slots,
+//so booking threads never wait on it. Holds confirmed or released early stay in their slot
+//and are skipped when it comes round. Expiry is never early and usually within one tick.
+
+final class HoldExpiryWheel {
+
+    // one daemon thread serves every FlightService in the JVM, started the first time a hold is made
+    private static final HoldExpiryWheel SHARED = new HoldExpiryWheel(TimeUnit.MILLISECONDS.toNanos(10)).start();
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final Queue<SeatHold> incoming = new ConcurrentLinkedQueue<>();
+    // only touched by the wheel thread
+    private final Slot[][] slots = new Slot[LEVELS][SLOTS];
+    private long currentTick;
+
+    // the holds due in one slot; a holder because arrays of a generic type cannot be created
+    private static final class Slot {
+        private final ArrayDeque<SeatHold> holds = new ArrayDeque<>();
+    }
+
+    HoldExpiryWheel(long tickNanos) {
+        this.tickNanos = tickNanos;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = new Slot();
+            }
+        }
+    }
+
+    static HoldExpiryWheel shared() {
+        return SHARED;
+    }
+
+    void schedule(SeatHold hold) {
+        incoming.add(hold);
+    }
+
+    private HoldExpiryWheel start() {
+        Thread t = new Thread(this::run, "seat-hold-expiry");
+        t.setDaemon(true);
+        t.start();
+        return this;
+    }
+
+    private void run() {
+        while (true) {
+            long now = System.nanoTime();
+            advanceTo(now);
+            long nextTick = startNanos + (currentTick + 1) * tickNanos;
+            LockSupport.parkNanos(Math.max(nextTick - System.nanoTime(), 0));
+        }
+    }
+
+    // moves the wheel to "now" and expires everything that became due; only ever called by one thread
+    void advanceTo(long nowNanos) {
+        long targetTick = (nowNanos - startNanos) / tickNanos;
+        for (SeatHold hold; (hold = incoming.poll()) != null; ) {
+            place(hold);
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            // when a lower level wraps round, pull the next slot of the level above down into it
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                }
+            }
+            ArrayDeque<SeatHold> due = slots[0][(int) currentTick & SLOT_MASK].holds;
+            for (int n = due.size(); n > 0; n--) {
+                place(due.poll());
+            }
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        ArrayDeque<SeatHold> bucket = slots[level][slot].holds;
+        for (int n = bucket.size(); n > 0; n--) {
+            place(bucket.poll());
+        }
+    }
+
+    private void place(SeatHold hold) {
+        if (!hold.isActive()) {
+            return;
+        }
+        long deadlineTick = ceilDiv(hold.getDeadlineNanos() - startNanos, tickNanos);
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            // never throws: the owning service logs and counts a failure, see FlightService.expireHold
+            hold.expire();
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot;
+        if (delta >= (1L << (SLOT_BITS * LEVELS))) {
+            // beyond the wheel's range: park it in the top slot visited last and re-place it then
+            slot = (int) ((currentTick >>> (SLOT_BITS * level)) - 1) & SLOT_MASK;
+        } else {
+            slot = (int) (deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        }
+        slots[level][slot].holds.add(hold);
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,55 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.concurrent.TimeUnit;
+
+//What a FlightScheduleImporter run loaded and what it cost.
+
+public class ImportReport {
+
+    private final int rows;
+    private final long parseNanos;
+    private final long indexNanos;
+    private final long peakHeapBytes;
+
+    ImportReport(int rows, long parseNanos, long indexNanos, long peakHeapBytes) {
+        this.rows = rows;
+        this.parseNanos = parseNanos;
+        this.indexNanos = indexNanos;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // reading and parsing the file
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    // the bulk addFlights step that builds the indexes
+    public long getIndexNanos() {
+        return indexNanos;
+    }
+
+    public long getTotalNanos() {
+        return parseNanos + indexNanos;
+    }
+
+    public double getRowsPerSecond() {
+        long total = getTotalNanos();
+        return total == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / total;
+    }
+
+    // highest heap use seen during the import, sampled every millisecond (see FlightScheduleImporter)
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Imported %,d flights in %,d ms (parse %,d ms, index %,d ms): %,.0f rows/s, peak heap %,d MB",
+                rows, TimeUnit.NANOSECONDS.toMillis(getTotalNanos()), TimeUnit.NANOSECONDS.toMillis(parseNanos),
+                TimeUnit.NANOSECONDS.toMillis(indexNanos), getRowsPerSecond(), peakHeapBytes >> 20);
+    }
+}
@@ -0,0 +1,61 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//One way from an origin to a destination: one or more flights, each leaving from where the previous one
+//landed. See FlightService.searchItineraries.
+
+public class Itinerary {
+
+    private final List<Flight> legs;
+
+    Itinerary(List<Flight> legs) {
+        this.legs = List.copyOf(legs);
+    }
+
+    // in flying order
+    public List<Flight> getLegs() {
+        return legs;
+    }
+
+    public int getStops() {
+        return legs.size() - 1;
+    }
+
+    public String getOrigin() {
+        return legs.get(0).getOrigin();
+    }
+
+    public String getDestination() {
+        return legs.get(legs.size() - 1).getDestination();
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return legs.get(0).getDepartureTime();
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return legs.get(legs.size() - 1).getArrivalTime();
+    }
+
+    public Duration getDuration() {
+        return Duration.between(getDepartureTime(), getArrivalTime());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("Itinerary{");
+        for (int i = 0; i < legs.size(); i++) {
+            Flight leg = legs.get(i);
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(leg.getFlightNumber()).append(' ').append(leg.getOrigin()).append(" -> ")
+                    .append(leg.getDestination()).append(' ').append(leg.getDepartureTime())
+                    .append('/').append(leg.getArrivalTime());
+        }
+        return out.append('}').toString();
+    }
+}
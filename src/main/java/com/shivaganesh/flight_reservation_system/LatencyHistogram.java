@@ -0,0 +1,67 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//Lock-free latency histogram in nanoseconds with HdrHistogram-style log-linear buckets:
+//values below 32 ns get their own bucket, above that every power of two is split into 16 buckets,
+//so any recorded value is reported within about 6% of what was measured. Values above MAX_NANOS
+//(about 73 minutes) land in the last bucket.
+//
+//record() is one array increment plus two adder updates, no allocation and no lock.
+
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;  // 32
+    private static final int HALF = SUB_BUCKETS / 2;              // 16
+    static final long MAX_NANOS = 1L << 42;
+    private static final int BUCKETS = index(MAX_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_NANOS));
+        counts.getAndIncrement(index(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // the time since startNanos (a System.nanoTime() reading)
+    void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    // the largest value that lands in the bucket
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long lowest = (long) (index % HALF + HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    // counts are read one bucket at a time while others keep recording, so a snapshot taken under load
+    // can be off by the few operations that completed during the copy
+    LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new LatencySnapshot(copy, total, sum.sum(), max.get());
+    }
+}
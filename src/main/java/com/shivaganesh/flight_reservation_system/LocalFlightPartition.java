@@ -0,0 +1,107 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+//In-process FlightPartition: its own FlightService (and so its own indexes) plus one writer thread.
+//Adds, bookings and cancellations run on the writer in submission order; searches and lookups run on
+//the shared read executor, so a scatter-gather search works all partitions at the same time.
+
+public class LocalFlightPartition implements FlightPartition {
+
+    private final FlightService flightService;
+    private final ExecutorService writer;
+    private final Executor reads;
+
+    // partition "index" of "partitions": it hands out reservation ids with id % partitions == index
+    public LocalFlightPartition(int index, int partitions, Executor reads) {
+        this.flightService = new FlightService(new HeapFlightInventory(), FlightService.DEFAULT_SEARCH_CACHE_ENTRIES,
+                new ReservationIdGenerator(partitions, index));
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "flight-partition-" + index + "-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.reads = reads;
+    }
+
+    private <T> CompletableFuture<T> write(Supplier<T> change) {
+        return CompletableFuture.supplyAsync(change, writer);
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, reads);
+    }
+
+    @Override
+    public CompletableFuture<Void> addFlight(Flight flight) {
+        return write(() -> {
+            flightService.addFlight(flight);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Flight>> findFlight(String flightNumber) {
+        return read(() -> flightService.findFlight(flightNumber));
+    }
+
+    @Override
+    public CompletableFuture<List<Flight>> searchFlights(String destination, LocalDate date) {
+        return read(() -> flightService.searchFlights(destination, date.atStartOfDay()));
+    }
+
+    @Override
+    public CompletableFuture<List<Flight>> searchFlights(Set<String> destinations, LocalDateTime from,
+                                                        LocalDateTime to, int limit) {
+        return read(() -> flightService.searchFlights(destinations, from, to).limit(limit).toList());
+    }
+
+    @Override
+    public CompletableFuture<Reservation> bookFlight(String customerName, String flightNumber, int seats) {
+        return write(() -> flightService.bookFlight(customerName, flightNumber, seats));
+    }
+
+    @Override
+    public CompletableFuture<Reservation> cancelReservation(long reservationId) {
+        return write(() -> flightService.cancelReservation(reservationId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Reservation>> findReservation(long reservationId) {
+        return read(() -> flightService.findReservation(reservationId));
+    }
+
+    @Override
+    public CompletableFuture<List<Reservation>> findReservationsByCustomer(String customerName) {
+        return read(() -> flightService.findReservationsByCustomer(customerName));
+    }
+
+    @Override
+    public CompletableFuture<List<Flight>> getAllFlights() {
+        return read(flightService::getAllFlights);
+    }
+
+    @Override
+    public CompletableFuture<List<Reservation>> getAllReservations() {
+        return read(flightService::getAllReservations);
+    }
+
+    // the partition's own service, e.g. for its metrics
+    FlightService getFlightService() {
+        return flightService;
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+    }
+}
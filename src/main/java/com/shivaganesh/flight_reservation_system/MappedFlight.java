@@ -0,0 +1,42 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDateTime;
+
+//Flight view over one row of a MappedFlightInventory, created only when a caller needs an object.
+//The seat count is not copied: every read and update goes straight to the mapped seat column.
+
+class MappedFlight extends Flight {
+
+    private final MappedFlightInventory inventory;
+    private final int row;
+
+    MappedFlight(MappedFlightInventory inventory, int row, String flightNumber, String origin, String destination,
+                 LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        super(flightNumber, origin, destination, departureTime, arrivalTime);
+        this.inventory = inventory;
+        this.row = row;
+    }
+
+    @Override
+    long seatState() {
+        return inventory.seatState(row);
+    }
+
+    @Override
+    public void setAvailableSeats(int availableSeats) {
+        if (availableSeats < 0) {
+            throw new IllegalArgumentException("availableSeats must be >= 0");
+        }
+        inventory.setSeats(row, availableSeats);
+    }
+
+    @Override
+    long tryReserveSeats(int seats) {
+        return inventory.tryReserveSeats(row, seats);
+    }
+
+    @Override
+    long releaseSeats(int seats) {
+        return inventory.releaseSeats(row, seats);
+    }
+}
@@ -0,0 +1,582 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+//Flight inventory kept in fixed-width columns of a memory-mapped file instead of one heap object per flight.
+//
+//File layout (little endian): a 64 byte header, then six columns of "capacity" entries each:
+//flight number (16 bytes: length + up to 15 ASCII chars), destination id (int),
+//departure in epoch minutes (int), origin id (int, -1 without a route), arrival in epoch minutes (int)
+//and seat state (long: version and available seats, as in Flight). Origin and destination names share
+//a small "<file>.destinations" text file, one per line, the line number is the id.
+//
+//Opening only maps the file and scans the id/departure columns into primitive arrays for the
+//search index; no Flight objects are created until a search or lookup returns one.
+//Seats are updated in place with compare-and-set on the mapped column. Files written before version 3
+//(no route columns) are not readable any more.
+
+public class MappedFlightInventory implements FlightInventory, Closeable {
+
+    private static final int MAGIC = 0x464D4956; // "FMIV"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int NUMBER_WIDTH = 16;
+    private static final int MAX_NUMBER_LENGTH = NUMBER_WIDTH - 1;
+    // the seat column comes last and starts 8 byte aligned (64 + capacity * 32), as atomic long access needs
+    private static final int ROW_BYTES = NUMBER_WIDTH + 4 * Integer.BYTES + Long.BYTES;
+    private static final int NO_ORIGIN = -1;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Path destinationsFile;
+    private final int capacity;
+    private final int destinationOffset;
+    private final int departureOffset;
+    private final int originOffset;
+    private final int arrivalOffset;
+    private final int seatsOffset;
+
+    // published after a row is fully written, readers never look past it
+    private volatile int count;
+
+    // destination dictionary, guarded by "this" for writes
+    private final List<String> destinations = new ArrayList<>();
+    // name -> this file's destination id, interned in dictionary order so the ids match the lines
+    private final DestinationIds destinationIds = new DestinationIds();
+    // per destination id: (departure minutes << 32 | row), sorted; replaced on write
+    private volatile long[][] departuresByDestination = new long[0][];
+
+    // open addressing table of (row + 1) keyed by flight number, sized once for the capacity
+    private final int[] numberTable;
+
+    private MappedFlightInventory(FileChannel channel, MappedByteBuffer buffer, Path destinationsFile, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.destinationsFile = destinationsFile;
+        this.capacity = capacity;
+        this.destinationOffset = HEADER_BYTES + capacity * NUMBER_WIDTH;
+        this.departureOffset = destinationOffset + capacity * Integer.BYTES;
+        this.originOffset = departureOffset + capacity * Integer.BYTES;
+        this.arrivalOffset = originOffset + capacity * Integer.BYTES;
+        this.seatsOffset = arrivalOffset + capacity * Integer.BYTES;
+        this.numberTable = new int[Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1];
+    }
+
+    public static MappedFlightInventory create(Path file, int capacity) throws IOException {
+        long fileSize = HEADER_BYTES + (long) capacity * ROW_BYTES;
+        if (capacity <= 0 || fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Err: capacity must be between 1 and "
+                    + (Integer.MAX_VALUE - HEADER_BYTES) / ROW_BYTES);
+        }
+        if (Files.exists(file)) {
+            throw new IllegalArgumentException("Err: inventory file already exists: " + file);
+        }
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+        Path destinationsFile = destinationsFile(file);
+        Files.write(destinationsFile, new byte[0]);
+        return new MappedFlightInventory(channel, buffer, destinationsFile, capacity);
+    }
+
+    public static MappedFlightInventory open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Err: not a flight inventory file: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Err: unsupported inventory version: " + file);
+            }
+
+            MappedFlightInventory inventory = new MappedFlightInventory(channel, buffer,
+                    destinationsFile(file), buffer.getInt(CAPACITY_OFFSET));
+            inventory.load(buffer.getInt(COUNT_OFFSET));
+            return inventory;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Path destinationsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".destinations");
+    }
+
+    // rebuilds the primitive indexes from the columns, nothing per row lands on the heap
+    private void load(int rows) throws IOException {
+        for (String destination : Files.readAllLines(destinationsFile, StandardCharsets.UTF_8)) {
+            destinationIds.intern(destination);
+            destinations.add(destination);
+        }
+
+        int[] perDestination = new int[destinations.size()];
+        for (int row = 0; row < rows; row++) {
+            perDestination[destinationId(row)]++;
+        }
+        long[][] byDestination = new long[destinations.size()][];
+        for (int d = 0; d < byDestination.length; d++) {
+            byDestination[d] = new long[perDestination[d]];
+        }
+        Arrays.fill(perDestination, 0);
+        for (int row = 0; row < rows; row++) {
+            int d = destinationId(row);
+            byDestination[d][perDestination[d]++] = departureKey(departureMinutes(row), row);
+            indexNumber(row);
+        }
+        for (long[] keys : byDestination) {
+            Arrays.sort(keys);
+        }
+
+        departuresByDestination = byDestination;
+        count = rows;
+    }
+
+    @Override
+    public synchronized void add(Flight flight) {
+        int row = count;
+        if (row >= capacity) {
+            throw new IllegalStateException("Err: inventory is full, capacity " + capacity);
+        }
+        int destinationId = writeRow(flight, row);
+        INT.setRelease(buffer, COUNT_OFFSET, row + 1);
+
+        indexNumber(row);
+        long[][] byDestination = departuresByDestination.clone();
+        byDestination[destinationId] = insertSorted(byDestination[destinationId],
+                departureKey(departureMinutes(row), row));
+        departuresByDestination = byDestination;
+        count = row + 1;
+    }
+
+    // writes every row first, then sorts each destination's new departures once and merges them in.
+    // Rows only become visible when the whole batch is written, a bad flight leaves none of them
+    @Override
+    public synchronized void addAll(List<Flight> batch) {
+        int first = count;
+        if (batch.size() > capacity - first) {
+            throw new IllegalStateException("Err: inventory is full, capacity " + capacity);
+        }
+        int end = first;
+        for (Flight flight : batch) {
+            writeRow(flight, end++);
+        }
+        INT.setRelease(buffer, COUNT_OFFSET, end);
+
+        long[][] byDestination = departuresByDestination.clone();
+        int[] added = new int[byDestination.length];
+        for (int row = first; row < end; row++) {
+            added[destinationId(row)]++;
+            indexNumber(row);
+        }
+        long[][] keys = new long[byDestination.length][];
+        for (int d = 0; d < keys.length; d++) {
+            keys[d] = new long[added[d]];
+        }
+        Arrays.fill(added, 0);
+        for (int row = first; row < end; row++) {
+            int d = destinationId(row);
+            keys[d][added[d]++] = departureKey(departureMinutes(row), row);
+        }
+        for (int d = 0; d < keys.length; d++) {
+            if (keys[d].length > 0) {
+                Arrays.sort(keys[d]);
+                byDestination[d] = mergeSorted(byDestination[d], keys[d]);
+            }
+        }
+        departuresByDestination = byDestination;
+        count = end;
+    }
+
+    private static long[] mergeSorted(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        for (int m = 0; m < merged.length; m++) {
+            merged[m] = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+        }
+        return merged;
+    }
+
+    // validates the flight and fills in its columns at row, not yet counted; returns its destination id
+    private int writeRow(Flight flight, int row) {
+        String flightNumber = flight.getFlightNumber();
+        if (flightNumber.length() > MAX_NUMBER_LENGTH || !isAscii(flightNumber)) {
+            throw new IllegalArgumentException("Err: flightNumber must be at most "
+                    + MAX_NUMBER_LENGTH + " ASCII characters: " + flightNumber);
+        }
+        if (flight.seatMap() != null) {
+            throw new IllegalArgumentException("Err: seat maps are not supported by the mapped inventory: "
+                    + flightNumber);
+        }
+        LocalDateTime departure = flight.getDepartureTime();
+        int minutes = wholeMinutes(departure, "departureTime");
+        int arrivalMinutes = flight.hasRoute() ? wholeMinutes(flight.getArrivalTime(), "arrivalTime") : 0;
+
+        int destinationId = internDestination(flight.getDestination());
+        int originId = flight.hasRoute() ? internDestination(flight.getOrigin()) : NO_ORIGIN;
+
+        int numberAt = HEADER_BYTES + row * NUMBER_WIDTH;
+        buffer.put(numberAt, (byte) flightNumber.length());
+        for (int i = 0; i < flightNumber.length(); i++) {
+            buffer.put(numberAt + 1 + i, (byte) flightNumber.charAt(i));
+        }
+        buffer.putInt(destinationOffset + row * Integer.BYTES, destinationId);
+        buffer.putInt(departureOffset + row * Integer.BYTES, minutes);
+        buffer.putInt(originOffset + row * Integer.BYTES, originId);
+        buffer.putInt(arrivalOffset + row * Integer.BYTES, arrivalMinutes);
+        LONG.setRelease(buffer, seatsOffset + row * Long.BYTES, flight.seatState());
+        return destinationId;
+    }
+
+    private static int wholeMinutes(LocalDateTime time, String name) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("Err: " + name + " must be a whole minute: " + time);
+        }
+        long minutes = time.toEpochSecond(ZoneOffset.UTC) / 60;
+        if (minutes < Integer.MIN_VALUE || minutes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Err: " + name + " out of range: " + time);
+        }
+        return (int) minutes;
+    }
+
+    // the dictionary already has every origin and destination once, no need to visit the rows
+    @Override
+    public synchronized List<String> places() {
+        return new ArrayList<>(destinations);
+    }
+
+    private int internDestination(String destination) {
+        int id = destinationIds.find(destination);
+        if (id != DestinationIds.UNKNOWN) {
+            return id;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(destinationsFile, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND)) {
+            out.write(destination.trim());
+            out.newLine();
+        } catch (IOException e) {
+            throw new IllegalStateException("Err: could not store destination " + destination, e);
+        }
+        int newId = destinations.size();
+        destinations.add(destination.trim());
+        long[][] byDestination = Arrays.copyOf(departuresByDestination, newId + 1);
+        byDestination[newId] = new long[0];
+        departuresByDestination = byDestination;
+        // interned last: a search that finds the id also finds its row in departuresByDestination
+        destinationIds.intern(destination);
+        return newId;
+    }
+
+    // copy-on-write insert; schedules usually arrive in time order so this is mostly an append
+    private static long[] insertSorted(long[] keys, long key) {
+        int pos = keys.length;
+        while (pos > 0 && keys[pos - 1] > key) {
+            pos--;
+        }
+        long[] updated = new long[keys.length + 1];
+        System.arraycopy(keys, 0, updated, 0, pos);
+        updated[pos] = key;
+        System.arraycopy(keys, pos, updated, pos + 1, keys.length - pos);
+        return updated;
+    }
+
+    private static long departureKey(int minutes, int row) {
+        return ((long) minutes << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexNumber(int row) {
+        int mask = numberTable.length - 1;
+        int slot = spread(numberHash(row)) & mask;
+        while (numberTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        numberTable[slot] = row + 1;
+    }
+
+    // same value as String.hashCode for ASCII, so lookups can hash the caller's String for free
+    private int numberHash(int row) {
+        int at = HEADER_BYTES + row * NUMBER_WIDTH;
+        int length = buffer.get(at);
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer.get(at + 1 + i);
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private boolean numberEquals(int row, String flightNumber) {
+        int at = HEADER_BYTES + row * NUMBER_WIDTH;
+        int length = buffer.get(at);
+        if (length != flightNumber.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(at + 1 + i) != flightNumber.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int findRow(String flightNumber) {
+        int mask = numberTable.length - 1;
+        int slot = spread(flightNumber.hashCode()) & mask;
+        int limit = count;
+        while (true) {
+            int entry = numberTable[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (row < limit && numberEquals(row, flightNumber)) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public Flight find(String flightNumber) {
+        int row = findRow(flightNumber);
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public List<Flight> searchAvailable(String destination, LocalDate date) {
+        List<Flight> result = new ArrayList<>();
+        forEachAvailable(destination, date, result::add);
+        return result;
+    }
+
+    @Override
+    public int forEachAvailable(String destination, LocalDate date, Consumer<? super Flight> action) {
+        int id = destinationIds.find(destination);
+        if (id == DestinationIds.UNKNOWN) {
+            return 0;
+        }
+        long[] keys = departuresByDestination[id];
+        long from = date.toEpochDay() * MINUTES_PER_DAY;
+        long to = from + MINUTES_PER_DAY;
+
+        int found = 0;
+        int i = lowerBound(keys, from << 32);
+        for (; i < keys.length && (keys[i] >> 32) < to; i++) {
+            int row = (int) keys[i];
+            if (seats(row) > 0) {
+                action.accept(view(row));
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<Flight> scanAvailable(String destination, LocalDateTime from, LocalDateTime to) {
+        int id = destinationIds.find(destination);
+        if (id == DestinationIds.UNKNOWN) {
+            return Collections.emptyIterator();
+        }
+        long[] keys = departuresByDestination[id];
+        long fromMinutes = ceilMinutes(from);
+        long toMinutes = ceilMinutes(to);
+        int start = lowerBound(keys, fromMinutes << 32);
+
+        // keys is a snapshot of the index, later adds build a new array
+        return new Iterator<>() {
+            private int i = start;
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (row < 0 && i < keys.length && (keys[i] >> 32) < toMinutes) {
+                    int candidate = (int) keys[i++];
+                    if (seats(candidate) > 0) {
+                        row = candidate;
+                    }
+                }
+                return row >= 0;
+            }
+
+            @Override
+            public Flight next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Flight f = view(row);
+                row = -1;
+                return f;
+            }
+        };
+    }
+
+    // departures are whole minutes, so rounding a bound up keeps [from, to) exact;
+    // clamped to the int range the departure column can hold
+    private static long ceilMinutes(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC) + (time.getNano() > 0 ? 1 : 0);
+        long minutes = -Math.floorDiv(-seconds, 60);
+        return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minutes));
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public List<Flight> all() {
+        int rows = count;
+        List<Flight> result = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            result.add(view(row));
+        }
+        return result;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private MappedFlight view(int row) {
+        int at = HEADER_BYTES + row * NUMBER_WIDTH;
+        int length = buffer.get(at);
+        byte[] number = new byte[length];
+        buffer.get(at + 1, number);
+        LocalDateTime departure = LocalDateTime.ofEpochSecond(departureMinutes(row) * 60L, 0, ZoneOffset.UTC);
+        int originId = buffer.getInt(originOffset + row * Integer.BYTES);
+        String origin = null;
+        LocalDateTime arrival = null;
+        if (originId != NO_ORIGIN) {
+            origin = destinations.get(originId);
+            arrival = LocalDateTime.ofEpochSecond(buffer.getInt(arrivalOffset + row * Integer.BYTES) * 60L, 0,
+                    ZoneOffset.UTC);
+        }
+        return new MappedFlight(this, row, new String(number, StandardCharsets.US_ASCII), origin,
+                destinations.get(destinationId(row)), departure, arrival);
+    }
+
+    private int destinationId(int row) {
+        return buffer.getInt(destinationOffset + row * Integer.BYTES);
+    }
+
+    private int departureMinutes(int row) {
+        return buffer.getInt(departureOffset + row * Integer.BYTES);
+    }
+
+    long seatState(int row) {
+        return (long) LONG.getVolatile(buffer, seatsOffset + row * Long.BYTES);
+    }
+
+    int seats(int row) {
+        return Flight.seatsOf(seatState(row));
+    }
+
+    void setSeats(int row, int seats) {
+        int at = seatsOffset + row * Long.BYTES;
+        while (true) {
+            long state = (long) LONG.getVolatile(buffer, at);
+            if (LONG.compareAndSet(buffer, at, state, Flight.nextState(state, seats))) {
+                return;
+            }
+        }
+    }
+
+    // same contract as Flight.tryReserveSeats
+    long tryReserveSeats(int row, int seats) {
+        int at = seatsOffset + row * Long.BYTES;
+        while (true) {
+            long state = (long) LONG.getVolatile(buffer, at);
+            int available = Flight.seatsOf(state);
+            if (seats > available) {
+                return Flight.NOT_RESERVED;
+            }
+            long next = Flight.nextState(state, available - seats);
+            if (LONG.compareAndSet(buffer, at, state, next)) {
+                return next;
+            }
+        }
+    }
+
+    long releaseSeats(int row, int seats) {
+        int at = seatsOffset + row * Long.BYTES;
+        while (true) {
+            long state = (long) LONG.getVolatile(buffer, at);
+            long next = Flight.nextState(state, Flight.seatsOf(state) + seats);
+            if (LONG.compareAndSet(buffer, at, state, next)) {
+                return next;
+            }
+        }
+    }
+
+    //forces the mapped pages (including seat counts) to disk
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
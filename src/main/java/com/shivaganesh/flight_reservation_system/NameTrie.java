@@ -0,0 +1,488 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Case-folded radix tree over destination or customer names, each with a count (seats on sale, bookings),
+//for typeahead: complete(prefix, limit) gives the names starting with prefix, highest count first.
+//
+//Names match the way DestinationIds matches destinations: surrounding spaces ignored, case folded char by
+//char, so finding one allocates nothing. Nodes are rows in fixed-size int and long pages, not objects, and
+//their labels are slices of the folded names, each stored once in a shared char pool. The tree only grows
+//by linking in a fully built node with a single write (a new leaf, or the two halves of a node split where
+//a new name leaves its label), so lookups, queries and count changes never lock; adding a name does.
+//
+//Every node keeps an upper bound of the counts below it and complete() walks the subtree best bound first,
+//stopping after limit names, so it touches a few nodes per answer instead of the whole subtree. Bounds go up
+//with the counts right away. Counts going down (seats selling, bookings cancelled) leave them high until a
+//query reaches the node: it recomputes the bound from the node's name and children, lowers it, and ranks the
+//node again. A subtree whose bound is down to 0 (every name sold out or without bookings) is not visited at
+//all, and names with a count of 0 or less are never suggested.
+
+final class NameTrie {
+
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int CHAR_PAGE_SIZE = 1 << 13;
+
+    // ints per node: char pool page and offset of the label, its length, first child (children are ordered by
+    // the first char of their label, which differs between siblings), next sibling, and the name ending here
+    private static final int NODE_INTS = 6;
+    private static final int LABEL_PAGE = 0;
+    private static final int LABEL_OFFSET = 1;
+    private static final int LABEL_LENGTH = 2;
+    private static final int FIRST_CHILD = 3;
+    private static final int NEXT_SIBLING = 4;
+    private static final int NAME = 5;
+
+    // pages never move once allocated, so a count or bound written into one is never lost to a copy;
+    // only the arrays listing them are replaced when they fill up
+    private volatile AtomicIntegerArray[] nodePages = new AtomicIntegerArray[8];
+    private volatile AtomicLongArray[] boundPages = new AtomicLongArray[8];
+    private volatile String[][] namePages = new String[8][];
+    private volatile AtomicLongArray[] countPages = new AtomicLongArray[8];
+    private volatile char[][] charPages = new char[8][];
+
+    // bumped by 2 before a node is split, and odd while complete() lowers a bound; see raise()
+    private final AtomicInteger version = new AtomicInteger();
+
+    // written under the lock (this)
+    private int nodes;
+    private volatile int names;
+    private int charPage = -1;
+    private int charOffset = CHAR_PAGE_SIZE;
+
+    NameTrie() {
+        synchronized (this) {
+            newNode(0, 0, 0, NONE, NONE, NONE, 0);
+        }
+    }
+
+    // names added so far
+    int size() {
+        return names;
+    }
+
+    // adds delta to the name's count, adding the name with its spelling here the first time it is seen
+    void add(String name, long delta) {
+        int from = DestinationIds.start(name);
+        int to = DestinationIds.end(name, from);
+        if (from == to) {
+            return;
+        }
+        int slot = find(name, from, to);
+        if (slot == NONE) {
+            slot = insert(name, from, to);
+        }
+        AtomicLongArray counts = countPages[slot >>> PAGE_BITS];
+        long count = counts.addAndGet(slot & PAGE_MASK, delta);
+        if (delta > 0) {
+            raise(name, from, to, count);
+        }
+    }
+
+    // the name's count, 0 if it was never added
+    long count(String name) {
+        int from = DestinationIds.start(name);
+        int slot = find(name, from, DestinationIds.end(name, from));
+        return slot == NONE ? 0 : count(slot);
+    }
+
+    // up to limit names starting with prefix (case ignored, leading spaces too) with a count above 0, highest
+    // count first; ties come in no particular order. Counts are read as the walk reaches them, not as one
+    // consistent snapshot
+    List<Completion> complete(String prefix, int limit) {
+        int i = DestinationIds.start(prefix);
+        int to = prefix.length();
+        int node = ROOT;
+        while (i < to) {
+            int child = child(node, DestinationIds.fold(prefix.charAt(i)));
+            if (child == NONE) {
+                return new ArrayList<>();
+            }
+            int matched = match(child, prefix, i, to);
+            if (matched < field(child, LABEL_LENGTH) && i + matched < to) {
+                return new ArrayList<>();
+            }
+            i += matched;
+            node = child;
+        }
+
+        List<Completion> result = new ArrayList<>(Math.min(limit, 16));
+        Candidates candidates = new Candidates();
+        if (bound(node) > 0) {
+            candidates.push(bound(node), node << 1);
+        }
+        while (result.size() < limit && candidates.size > 0) {
+            long key = candidates.topKey();
+            int entry = candidates.pop();
+            if ((entry & 1) != 0) {
+                int slot = entry >>> 1;
+                result.add(new Completion(namePages[slot >>> PAGE_BITS][slot & PAGE_MASK], key));
+                continue;
+            }
+            int n = entry >>> 1;
+            long exact = exactBound(n);
+            if (exact < key) {
+                // counts below went down since the bound was set: lower it, and rank the node again
+                lower(n, key);
+                if (exact > 0) {
+                    candidates.push(exact, entry);
+                }
+                continue;
+            }
+            int slot = field(n, NAME);
+            if (slot != NONE) {
+                long count = count(slot);
+                if (count > 0) {
+                    candidates.push(count, slot << 1 | 1);
+                }
+            }
+            for (int c = field(n, FIRST_CHILD); c != NONE; c = field(c, NEXT_SIBLING)) {
+                long bound = bound(c);
+                if (bound > 0) {
+                    candidates.push(bound, c << 1);
+                }
+            }
+        }
+        return result;
+    }
+
+    // the highest count below the node as its name and its children's bounds say now
+    private long exactBound(int node) {
+        int slot = field(node, NAME);
+        long exact = slot == NONE ? 0 : count(slot);
+        for (int c = field(node, FIRST_CHILD); c != NONE; c = field(c, NEXT_SIBLING)) {
+            exact = Math.max(exact, bound(c));
+        }
+        return exact;
+    }
+
+    // sets the node's bound from "from" to what is below it now, unless another query is lowering one. The
+    // version is odd meanwhile, so every raise that overlaps goes again after it and no bound ends up below
+    // a count that went up
+    private void lower(int node, long from) {
+        int seen = version.get();
+        if ((seen & 1) != 0 || !version.compareAndSet(seen, seen + 1)) {
+            return;
+        }
+        try {
+            boundPages[node >>> PAGE_BITS].compareAndSet(node & PAGE_MASK, from, exactBound(node));
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    private int find(String name, int from, int to) {
+        int node = ROOT;
+        int i = from;
+        while (i < to) {
+            int child = child(node, DestinationIds.fold(name.charAt(i)));
+            if (child == NONE) {
+                return NONE;
+            }
+            int matched = match(child, name, i, to);
+            if (matched < field(child, LABEL_LENGTH)) {
+                return NONE;
+            }
+            i += matched;
+            node = child;
+        }
+        return field(node, NAME);
+    }
+
+    // the child whose label starts with c, or NONE
+    private int child(int node, char c) {
+        for (int child = field(node, FIRST_CHILD); child != NONE; child = field(child, NEXT_SIBLING)) {
+            char first = labelChar(child, 0);
+            if (first >= c) {
+                return first == c ? child : NONE;
+            }
+        }
+        return NONE;
+    }
+
+    // how many chars of the node's label match s from i on
+    private int match(int node, String s, int i, int to) {
+        char[] chars = charPages[field(node, LABEL_PAGE)];
+        int offset = field(node, LABEL_OFFSET);
+        int length = Math.min(field(node, LABEL_LENGTH), to - i);
+        int matched = 0;
+        while (matched < length && chars[offset + matched] == DestinationIds.fold(s.charAt(i + matched))) {
+            matched++;
+        }
+        return matched;
+    }
+
+    // the name's slot with a count of 0, or the slot another thread added it under meanwhile
+    private synchronized int insert(String name, int from, int to) {
+        int node = ROOT;
+        int i = from;
+        while (true) {
+            if (i == to) {
+                int slot = field(node, NAME);
+                if (slot == NONE) {
+                    slot = newName(name, from, to);
+                    setField(node, NAME, slot);
+                }
+                return slot;
+            }
+            char c = DestinationIds.fold(name.charAt(i));
+            int before = NONE;
+            int child = field(node, FIRST_CHILD);
+            while (child != NONE && labelChar(child, 0) < c) {
+                before = child;
+                child = field(child, NEXT_SIBLING);
+            }
+            if (child == NONE || labelChar(child, 0) != c) {
+                int leaf = newLeaf(name, i, to, newName(name, from, to));
+                setField(leaf, NEXT_SIBLING, child);
+                link(node, before, leaf);
+                return field(leaf, NAME);
+            }
+            int length = field(child, LABEL_LENGTH);
+            int matched = match(child, name, i, to);
+            if (matched == length) {
+                i += matched;
+                node = child;
+                continue;
+            }
+
+            // the name leaves the child's label after matched chars: a head node with that much of the label
+            // replaces the child, with a copy of the child under the rest of the label below it
+            version.addAndGet(2);
+            long bound = bound(child);
+            int page = field(child, LABEL_PAGE);
+            int offset = field(child, LABEL_OFFSET);
+            int rest = newNode(page, offset + matched, length - matched, field(child, FIRST_CHILD), NONE,
+                    field(child, NAME), bound);
+            int slot = newName(name, from, to);
+            int head;
+            if (i + matched == to) {
+                head = newNode(page, offset, matched, rest, field(child, NEXT_SIBLING), slot, bound);
+            } else {
+                int leaf = newLeaf(name, i + matched, to, slot);
+                int first;
+                if (labelChar(leaf, 0) < labelChar(rest, 0)) {
+                    setField(leaf, NEXT_SIBLING, rest);
+                    first = leaf;
+                } else {
+                    setField(rest, NEXT_SIBLING, leaf);
+                    first = rest;
+                }
+                head = newNode(page, offset, matched, first, field(child, NEXT_SIBLING), NONE, bound);
+            }
+            link(node, before, head);
+            return slot;
+        }
+    }
+
+    // the one write that makes a new node visible
+    private void link(int parent, int before, int node) {
+        if (before == NONE) {
+            setField(parent, FIRST_CHILD, node);
+        } else {
+            setField(before, NEXT_SIBLING, node);
+        }
+    }
+
+    // bounds of every node down to the name reach at least count. A raise racing a split can land on the
+    // node being replaced after its bound was copied, and one racing lower() can be undone by it; both change
+    // the version, so the raise sees it changed and goes down the path again. It waits out a lower() in progress
+    private void raise(String name, int from, int to, long count) {
+        while (true) {
+            int seen = version.get();
+            if ((seen & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int node = ROOT;
+            raise(node, count);
+            int i = from;
+            while (i < to) {
+                node = child(node, DestinationIds.fold(name.charAt(i)));
+                if (node == NONE) {
+                    break;
+                }
+                raise(node, count);
+                i += field(node, LABEL_LENGTH);
+            }
+            if (version.get() == seen) {
+                return;
+            }
+        }
+    }
+
+    private void raise(int node, long count) {
+        AtomicLongArray bounds = boundPages[node >>> PAGE_BITS];
+        int i = node & PAGE_MASK;
+        long bound;
+        while ((bound = bounds.get(i)) < count) {
+            if (bounds.compareAndSet(i, bound, count)) {
+                return;
+            }
+        }
+    }
+
+    private int newName(String name, int from, int to) {
+        int slot = names;
+        int page = slot >>> PAGE_BITS;
+        if (page == namePages.length) {
+            namePages = Arrays.copyOf(namePages, page * 2);
+            countPages = Arrays.copyOf(countPages, page * 2);
+        }
+        if (namePages[page] == null) {
+            namePages[page] = new String[PAGE_SIZE];
+            countPages[page] = new AtomicLongArray(PAGE_SIZE);
+        }
+        namePages[page][slot & PAGE_MASK] = name.substring(from, to);
+        names = slot + 1;
+        return slot;
+    }
+
+    // a node labelled with the folded chars of name[from, to), copied to the end of the char pool
+    private int newLeaf(String name, int from, int to, int slot) {
+        int length = to - from;
+        if (charPage < 0 || charOffset + length > charPages[charPage].length) {
+            charPage++;
+            if (charPage == charPages.length) {
+                charPages = Arrays.copyOf(charPages, charPage * 2);
+            }
+            charPages[charPage] = new char[Math.max(CHAR_PAGE_SIZE, length)];
+            charOffset = 0;
+        }
+        char[] chars = charPages[charPage];
+        for (int i = 0; i < length; i++) {
+            chars[charOffset + i] = DestinationIds.fold(name.charAt(from + i));
+        }
+        int leaf = newNode(charPage, charOffset, length, NONE, NONE, slot, 0);
+        charOffset += length;
+        return leaf;
+    }
+
+    private int newNode(int labelPage, int labelOffset, int labelLength, int firstChild, int nextSibling, int slot,
+                        long bound) {
+        int node = nodes;
+        int page = node >>> PAGE_BITS;
+        if (page == nodePages.length) {
+            nodePages = Arrays.copyOf(nodePages, page * 2);
+            boundPages = Arrays.copyOf(boundPages, page * 2);
+        }
+        if (nodePages[page] == null) {
+            nodePages[page] = new AtomicIntegerArray(PAGE_SIZE * NODE_INTS);
+            boundPages[page] = new AtomicLongArray(PAGE_SIZE);
+        }
+        setField(node, LABEL_PAGE, labelPage);
+        setField(node, LABEL_OFFSET, labelOffset);
+        setField(node, LABEL_LENGTH, labelLength);
+        setField(node, FIRST_CHILD, firstChild);
+        setField(node, NEXT_SIBLING, nextSibling);
+        setField(node, NAME, slot);
+        boundPages[page].set(node & PAGE_MASK, bound);
+        nodes = node + 1;
+        return node;
+    }
+
+    private int field(int node, int field) {
+        return nodePages[node >>> PAGE_BITS].get((node & PAGE_MASK) * NODE_INTS + field);
+    }
+
+    private void setField(int node, int field, int value) {
+        nodePages[node >>> PAGE_BITS].set((node & PAGE_MASK) * NODE_INTS + field, value);
+    }
+
+    private char labelChar(int node, int i) {
+        return charPages[field(node, LABEL_PAGE)][field(node, LABEL_OFFSET) + i];
+    }
+
+    private long bound(int node) {
+        return boundPages[node >>> PAGE_BITS].get(node & PAGE_MASK);
+    }
+
+    private long count(int slot) {
+        return countPages[slot >>> PAGE_BITS].get(slot & PAGE_MASK);
+    }
+
+    // max-heap of (key, entry) pairs in three arrays, entry is node << 1 for a subtree or slot << 1 | 1 for a
+    // name. Equal keys are common (many customers with 2 bookings), so ties go to names first and then to
+    // the node pushed last, i.e. deeper: the walk heads down to names instead of widening level by level
+    private static final class Candidates {
+        private long[] keys = new long[32];
+        private int[] ties = new int[32];
+        private int[] entries = new int[32];
+        private int size;
+        private int pushed;
+
+        void push(long key, int entry) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ties = Arrays.copyOf(ties, size * 2);
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            int tie = (entry & 1) != 0 ? Integer.MAX_VALUE : ++pushed;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(key, tie, keys[parent], ties[parent])) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            set(i, key, tie, entry);
+        }
+
+        long topKey() {
+            return keys[0];
+        }
+
+        int pop() {
+            int top = entries[0];
+            size--;
+            long key = keys[size];
+            int tie = ties[size];
+            int entry = entries[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(keys[child + 1], ties[child + 1], keys[child], ties[child])) {
+                    child++;
+                }
+                if (!above(keys[child], ties[child], key, tie)) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            set(i, key, tie, entry);
+            return top;
+        }
+
+        private static boolean above(long key, int tie, long otherKey, int otherTie) {
+            return key > otherKey || key == otherKey && tie > otherTie;
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            ties[to] = ties[from];
+            entries[to] = entries[from];
+        }
+
+        private void set(int i, long key, int tie, int entry) {
+            keys[i] = key;
+            ties[i] = tie;
+            entries[i] = entry;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.shivaganesh.flight_reservation_system;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class Reservation {
 
+    private final long id;
     private final String customerName;
     private final Flight flight;
     private final int seatsBooked;
+    // seat ordinals (see SeatLayout) and the fare class they were sold in, for flights with a seat map;
+    // null otherwise, and fareClass is also null for seats booked without one
+    private final int[] seats;
+    private final String fareClass;
+
+    public long getId() {
+        return id;
+    }
 
     public String getCustomerName() {
         return customerName;
@@ -19,9 +30,39 @@ public class Reservation {
     	
         return seatsBooked;
     }
+
+    // "12A", "12B", ...; empty when the flight has no seat map
+    public List<String> getSeatNumbers() {
+        if (seats == null) {
+            return List.of();
+        }
+        SeatLayout layout = flight.getSeatLayout();
+        List<String> numbers = new ArrayList<>(seats.length);
+        for (int seat : seats) {
+            numbers.add(layout.seatNumber(seat));
+        }
+        return numbers;
+    }
+
+    // null when booked without a fare class
+    public String getFareClass() {
+        return fareClass;
+    }
+
+    int[] seats() {
+        return seats;
+    }
     // validations
-    public Reservation(String customerName, Flight flight, int seatsBooked) {
+    public Reservation(long id, String customerName, Flight flight, int seatsBooked) {
+        this(id, customerName, flight, seatsBooked, null, null);
+    }
+
+    // with the seats assigned from the flight's seat map
+    Reservation(long id, String customerName, Flight flight, int seatsBooked, int[] seats, String fareClass) {
     	
+        if (id <= 0) {
+            throw new IllegalArgumentException("Err: id must be > 0");
+        }
         if (customerName == null || customerName.isBlank()) {
         	
             throw new IllegalArgumentException("Err: customerName must not be blank");
@@ -33,21 +74,30 @@ public class Reservation {
         if (seatsBooked <= 0) {
             throw new IllegalArgumentException("Err: seatsBooked must be > 0");
         }
+        if (seats != null && seats.length != seatsBooked) {
+            throw new IllegalArgumentException("Err: one seat per seat booked");
+        }
         
+        this.id = id;
         this.customerName = customerName;
         this.flight = flight;
         this.seatsBooked = seatsBooked;
+        this.seats = seats;
+        this.fareClass = fareClass;
     }
 
     // for readable text in console output
     @Override
     public String toString() {
         return "Reservation{" +
-                "customerName='" + customerName + '\'' +
+                "id=" + id +
+                ", customerName='" + customerName + '\'' +
                 ", flightNumber='" + flight.getFlightNumber() + '\'' +
                 ", destination='" + flight.getDestination() + '\'' +
                 ", departureTime=" + flight.getDepartureTime() +
                 ", seatsBooked=" + seatsBooked +
+                (seats == null ? "" : ", seats=" + getSeatNumbers()) +
+                (fareClass == null ? "" : ", fareClass='" + fareClass + '\'') +
                 '}';
     }
 
@@ -59,13 +109,13 @@ public class Reservation {
         if (!(o instanceof Reservation)) return false;
         
         Reservation that = (Reservation) o;
-        return seatsBooked == that.seatsBooked && Objects.equals(customerName, that.customerName) &&
+        return id == that.id && seatsBooked == that.seatsBooked && Objects.equals(customerName, that.customerName) &&
                Objects.equals(flight, that.flight);
     }
 
     @Override
     public int hashCode() {
     	
-        return Objects.hash(customerName, flight, seatsBooked);
+        return Objects.hash(id, customerName, flight, seatsBooked);
     }
 }
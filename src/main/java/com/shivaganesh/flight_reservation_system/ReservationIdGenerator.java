@@ -0,0 +1,71 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Hands out unique reservation ids without one shared counter on every booking: there is a counter per
+//stripe (a power of two, at least twice the cores), each on its own cache line, and a thread counts on the
+//stripe its thread id hashes to. Stripe s hands out s, s + stripes, s + 2 * stripes, ..., so the stripes
+//never collide and no id is reserved ahead of time: short-lived threads (a virtual thread per request)
+//use up nothing beyond the ids they book with. Ids are unique and increase per stripe, but are not
+//globally in booking order.
+//
+//A generator can also own one residue class of ids (id % stride == offset), so the partitions of a
+//ShardedFlightService never hand out the same id and an id alone says which partition owns it.
+
+final class ReservationIdGenerator {
+
+    // longs between two counters, 128 bytes so neighbours never share a cache line
+    private static final int PAD = 16;
+
+    private final int stride;
+    private final int offset;
+    private final int stripes;
+    // counter of stripe s at s * PAD: how many ids the stripe has handed out, starting at 1 so ids are > 0
+    private final AtomicLongArray counters;
+
+    ReservationIdGenerator() {
+        this(1, 0);
+    }
+
+    ReservationIdGenerator(int stride, int offset) {
+        this(stride, offset, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1));
+    }
+
+    ReservationIdGenerator(int stride, int offset, int stripes) {
+        if (stride <= 0 || offset < 0 || offset >= stride) {
+            throw new IllegalArgumentException("Err: need 0 <= offset < stride, got " + offset + " / " + stride);
+        }
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Err: stripes must be a power of two, got " + stripes);
+        }
+        this.stride = stride;
+        this.offset = offset;
+        this.stripes = stripes;
+        this.counters = new AtomicLongArray(stripes * PAD);
+        for (int s = 0; s < stripes; s++) {
+            counters.set(s * PAD, s == 0 ? 1 : 0);
+        }
+    }
+
+    long next() {
+        int stripe = stripe(Thread.currentThread().getId());
+        long n = counters.getAndIncrement(stripe * PAD);
+        return (n * stripes + stripe) * stride + offset;
+    }
+
+    private int stripe(long threadId) {
+        long h = threadId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes - 1);
+    }
+
+    // after restoring reservations, new ids have to start above every restored one, on every stripe
+    void advancePast(long id) {
+        long slot = id / stride / stripes + 1;
+        for (int s = 0; s < stripes; s++) {
+            long current;
+            do {
+                current = counters.get(s * PAD);
+            } while (current < slot && !counters.compareAndSet(s * PAD, current, slot));
+        }
+    }
+}
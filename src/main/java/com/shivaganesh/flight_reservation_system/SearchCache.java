@@ -0,0 +1,172 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+//Bounded LRU cache of searchFlights(destination, date) results, keyed by destination id and epoch day.
+//The ids come from the owning FlightService's DestinationIds, which has every destination it has flights to.
+//
+//FlightService evicts a single key when a flight is added to it, sells out, or gets seats back after
+//selling out; nothing else is ever invalidated. The cache is split into segments, each a small
+//access-ordered LinkedHashMap behind its own lock, so hits on different keys rarely contend.
+//
+//A miss is computed outside the lock and only stored if its segment saw no invalidation in the meantime,
+//so a result computed before a flight was added, sold out or released is never cached after the eviction.
+//Seat changes made on a Flight directly (setAvailableSeats) bypass the service and are not seen here.
+
+final class SearchCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    interface Loader {
+        List<Flight> load(String destination, LocalDate date);
+    }
+
+    private static final class Key {
+        private final int destinationId;
+        private final long epochDay;
+        private final int hash;
+
+        private Key(int destinationId, long epochDay) {
+            this.destinationId = destinationId;
+            this.epochDay = epochDay;
+            this.hash = 31 * destinationId + Long.hashCode(epochDay);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return destinationId == other.destinationId && epochDay == other.epochDay;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // everything guarded by the segment itself
+    private final class Segment {
+        private final int capacity;
+        // access order, so the first entry is the least recently used
+        private final LinkedHashMap<Key, List<Flight>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        // bumped by every invalidation in this segment
+        private long stamp;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void put(Key key, List<Flight> flights) {
+            entries.put(key, flights);
+            if (entries.size() > capacity) {
+                Iterator<List<Flight>> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private final DestinationIds destinationIds;
+    private final Segment[] segments;
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    SearchCache(int maxEntries, DestinationIds destinationIds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Err: maxEntries must be > 0");
+        }
+        this.destinationIds = destinationIds;
+        this.maxEntries = maxEntries;
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxEntries));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // spread the capacity so the segments add up to exactly maxEntries
+            segments[i] = new Segment(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hash ^ (key.hash >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    // the cached result for destination on date, loading and caching it on a miss; cached
+    // results are immutable lists shared between callers
+    List<Flight> get(String destination, LocalDate date, Loader loader) {
+        int destinationId = destinationIds.find(destination);
+        if (destinationId == DestinationIds.UNKNOWN) {
+            // no flight ever went there, nothing worth caching
+            misses.increment();
+            return List.of();
+        }
+        Key key = new Key(destinationId, date.toEpochDay());
+        Segment segment = segmentFor(key);
+        List<Flight> cached;
+        long stamp;
+        synchronized (segment) {
+            cached = segment.entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            stamp = segment.stamp;
+        }
+
+        misses.increment();
+        List<Flight> loaded = List.copyOf(loader.load(destination, date));
+        synchronized (segment) {
+            if (segment.stamp == stamp) {
+                segment.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // drops the cached search this flight appears in (or should appear in)
+    void invalidate(Flight flight) {
+        int destinationId = destinationIds.find(flight.getDestination());
+        if (destinationId == DestinationIds.UNKNOWN) {
+            // the owner interns a destination before adding its first flight, so nothing can be cached for it
+            return;
+        }
+        Key key = new Key(destinationId, flight.getDepartureEpochDay());
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.stamp++;
+            if (segment.entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    // drops everything, e.g. after a bulk load touched too many keys to evict one by one
+    void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.stamp++;
+                invalidations.add(segment.entries.size());
+                segment.entries.clear();
+            }
+        }
+    }
+
+    SearchCacheStats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return new SearchCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size, maxEntries);
+    }
+}
@@ -0,0 +1,66 @@
+package com.shivaganesh.flight_reservation_system;
+
+//Point-in-time counters of the searchFlights cache, see FlightService.getSearchCacheStats().
+//Counters only grow; compare two snapshots to get rates.
+
+public class SearchCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int maxEntries;
+
+    SearchCacheStats(long hits, long misses, long evictions, long invalidations, int size, int maxEntries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.maxEntries = maxEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // entries dropped to stay within maxEntries
+    public long getEvictions() {
+        return evictions;
+    }
+
+    // entries dropped because a flight was added, sold out or got seats back
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                ", size=" + size +
+                ", maxEntries=" + maxEntries +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Seats taken off sale for a while (e.g. during payment), see FlightService.holdSeats.
+//A hold ends exactly once: confirmed into a Reservation, released, or expired by the timing wheel.
+
+public class SeatHold {
+
+    static final int ACTIVE = 0;
+    static final int CONFIRMED = 1;
+    static final int RELEASED = 2;
+    static final int EXPIRED = 3;
+
+    private final long id;
+    private final String customerName;
+    private final Flight flight;
+    private final int seats;
+    // the flight's seat state the hold's claim set (see Flight.tryReserveSeats), what its booking reports
+    private final long seatState;
+    private final Instant expiresAt;
+    private final long deadlineNanos;
+    private final FlightService owner;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+    SeatHold(long id, String customerName, Flight flight, int seats, long seatState, Instant expiresAt,
+             long deadlineNanos, FlightService owner) {
+        this.id = id;
+        this.customerName = customerName;
+        this.flight = flight;
+        this.seats = seats;
+        this.seatState = seatState;
+        this.expiresAt = expiresAt;
+        this.deadlineNanos = deadlineNanos;
+        this.owner = owner;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public Flight getFlight() {
+        return flight;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isActive() {
+        return state.get() == ACTIVE;
+    }
+
+    long getSeatState() {
+        return seatState;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    // only the caller that wins this transition may touch the seats
+    boolean finish(int newState) {
+        return state.compareAndSet(ACTIVE, newState);
+    }
+
+    // a confirmation whose booking could not be journaled, the seats were given back instead
+    void abandon() {
+        state.compareAndSet(CONFIRMED, RELEASED);
+    }
+
+    // called by the timing wheel once the deadline has passed
+    void expire() {
+        owner.expireHold(this);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "id=" + id +
+                ", customerName='" + customerName + '\'' +
+                ", flightNumber='" + flight.getFlightNumber() + '\'' +
+                ", seats=" + seats +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
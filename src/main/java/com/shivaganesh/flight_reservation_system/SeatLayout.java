@@ -0,0 +1,361 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Cabins of an aircraft and the fare classes sold in them, written as a spec string:
+//
+//  J:1-10:AC_DF; Y:11-46:ABC_DEFG_HJK | M=Y/120, B=Y/40
+//
+//Each cabin is "name:firstRow-lastRow:letters"; '_' marks an aisle, seats on either side of it are not
+//adjacent. After the optional '|' come fare classes "name=cabin/quota": at most quota seats of that cabin
+//are sold in the class. Every cabin can also be booked by its own name, with no quota beyond its size.
+//
+//Seats are numbered in spec order (cabin, row, letter) as ordinals 0..capacity-1; a SeatMap keeps one
+//bit per seat, each row inside one 64 bit word so a row's seats can be claimed with one compare-and-set.
+
+public final class SeatLayout {
+
+    static final int WORD_BITS = Long.SIZE;
+
+    private final String spec;
+    private final String[] cabinNames;
+    private final int[] firstRows;
+    private final int[] rows;
+    private final String[] letters;
+    // per cabin and run length n (index n): bits where a run of n seats in one aisle block may start,
+    // repeated for every row in a full word
+    private final long[][] runStarts;
+    private final int[] firstWords;
+    private final int[] firstOrdinals;
+    private final int words;
+    private final int capacity;
+
+    // fare classes; the cabins themselves come first, with their own names and no quota
+    private final String[] fareNames;
+    private final int[] fareCabins;
+    private final int[] fareQuotas;
+
+    private SeatLayout(String spec, List<String[]> cabins, List<String[]> fares) {
+        int count = cabins.size();
+        this.cabinNames = new String[count];
+        this.firstRows = new int[count];
+        this.rows = new int[count];
+        this.letters = new String[count];
+        this.runStarts = new long[count][];
+        this.firstWords = new int[count];
+        this.firstOrdinals = new int[count];
+        int word = 0;
+        int ordinal = 0;
+        StringBuilder canonical = new StringBuilder();
+        for (int c = 0; c < count; c++) {
+            String[] cabin = cabins.get(c);
+            String name = cabin[0];
+            if (name.isEmpty() || indexOf(cabinNames, c, name) >= 0) {
+                throw error(spec, "cabin names must be unique and not blank");
+            }
+            int dash = cabin[1].indexOf('-');
+            int first;
+            int last;
+            try {
+                first = Integer.parseInt(cabin[1].substring(0, dash < 0 ? cabin[1].length() : dash).trim());
+                last = dash < 0 ? first : Integer.parseInt(cabin[1].substring(dash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw error(spec, "rows must be firstRow-lastRow");
+            }
+            if (first < 1 || last < first) {
+                throw error(spec, "rows must be firstRow-lastRow with 1 <= firstRow <= lastRow");
+            }
+            for (int other = 0; other < c; other++) {
+                if (first < firstRows[other] + rows[other] && last >= firstRows[other]) {
+                    throw error(spec, "cabins must not share rows");
+                }
+            }
+            String row = cabin[2];
+            String seats = row.replace("_", "");
+            if (seats.isEmpty() || seats.length() > WORD_BITS || row.startsWith("_") || row.endsWith("_")
+                    || row.contains("__") || !isLetters(seats)) {
+                throw error(spec, "seat letters must be 1 to 64 distinct letters, '_' between blocks");
+            }
+
+            cabinNames[c] = name;
+            firstRows[c] = first;
+            rows[c] = last - first + 1;
+            letters[c] = seats;
+            runStarts[c] = buildRunStarts(row, seats.length());
+            firstWords[c] = word;
+            firstOrdinals[c] = ordinal;
+            word += (rows[c] + rowsPerWord(c) - 1) / rowsPerWord(c);
+            ordinal += rows[c] * seats.length();
+            if (c > 0) {
+                canonical.append("; ");
+            }
+            canonical.append(name).append(':').append(first).append('-').append(last).append(':').append(row);
+        }
+        this.words = word;
+        this.capacity = ordinal;
+
+        this.fareNames = new String[count + fares.size()];
+        this.fareCabins = new int[fareNames.length];
+        this.fareQuotas = new int[fareNames.length];
+        for (int c = 0; c < count; c++) {
+            fareNames[c] = cabinNames[c];
+            fareCabins[c] = c;
+            fareQuotas[c] = rows[c] * letters[c].length();
+        }
+        for (int f = 0; f < fares.size(); f++) {
+            String[] fare = fares.get(f);
+            int at = count + f;
+            if (fare[0].isEmpty() || indexOf(fareNames, at, fare[0]) >= 0) {
+                throw error(spec, "fare class names must be unique and differ from cabin names");
+            }
+            int cabin = indexOf(cabinNames, count, fare[1]);
+            if (cabin < 0) {
+                throw error(spec, "fare class " + fare[0] + " names an unknown cabin");
+            }
+            int quota;
+            try {
+                quota = Integer.parseInt(fare[2]);
+            } catch (NumberFormatException e) {
+                throw error(spec, "fare class quota must be a number");
+            }
+            if (quota < 0) {
+                throw error(spec, "fare class quota must be >= 0");
+            }
+            fareNames[at] = fare[0];
+            fareCabins[at] = cabin;
+            fareQuotas[at] = quota;
+            canonical.append(f == 0 ? " | " : ", ").append(fare[0]).append('=').append(fare[1]).append('/').append(quota);
+        }
+        this.spec = canonical.toString();
+    }
+
+    public static SeatLayout parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            throw new IllegalArgumentException("Err: seat layout must not be blank");
+        }
+        int bar = spec.indexOf('|');
+        List<String[]> cabins = new ArrayList<>();
+        for (String cabin : (bar < 0 ? spec : spec.substring(0, bar)).split(";")) {
+            String[] parts = cabin.split(":");
+            if (parts.length != 3) {
+                throw error(spec, "cabins must be name:firstRow-lastRow:letters");
+            }
+            cabins.add(new String[] {parts[0].trim(), parts[1].trim(), parts[2].trim().toUpperCase(Locale.ROOT)});
+        }
+        List<String[]> fares = new ArrayList<>();
+        if (bar >= 0) {
+            for (String fare : spec.substring(bar + 1).split(",")) {
+                int eq = fare.indexOf('=');
+                int slash = fare.indexOf('/');
+                if (eq < 0 || slash < eq) {
+                    throw error(spec, "fare classes must be name=cabin/quota");
+                }
+                fares.add(new String[] {fare.substring(0, eq).trim(), fare.substring(eq + 1, slash).trim(),
+                        fare.substring(slash + 1).trim()});
+            }
+        }
+        return new SeatLayout(spec, cabins, fares);
+    }
+
+    private static IllegalArgumentException error(String spec, String message) {
+        return new IllegalArgumentException("Err: bad seat layout '" + spec + "': " + message);
+    }
+
+    private static boolean isLetters(String seats) {
+        for (int i = 0; i < seats.length(); i++) {
+            char c = seats.charAt(i);
+            if (!Character.isLetter(c) || seats.indexOf(c) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // for every n, the start bits of n seats in a row that do not cross an aisle, in all rows of a word
+    private static long[] buildRunStarts(String row, int seatsPerRow) {
+        long[] starts = new long[seatsPerRow + 1];
+        int rowsPerWord = WORD_BITS / seatsPerRow;
+        int blockStart = 0;
+        int seat = 0;
+        for (int i = 0; i <= row.length(); i++) {
+            if (i < row.length() && row.charAt(i) != '_') {
+                seat++;
+                continue;
+            }
+            int block = seat - blockStart;
+            for (int n = 1; n <= block; n++) {
+                long mask = lowBits(block - n + 1) << blockStart;
+                for (int r = 0; r < rowsPerWord; r++) {
+                    starts[n] |= mask << (r * seatsPerRow);
+                }
+            }
+            blockStart = seat;
+        }
+        return starts;
+    }
+
+    static long lowBits(int n) {
+        return n >= WORD_BITS ? -1L : (1L << n) - 1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public List<String> getCabins() {
+        return List.of(cabinNames);
+    }
+
+    // cabins and fare classes, everything bookSeats accepts
+    public List<String> getFareClasses() {
+        return List.of(fareNames);
+    }
+
+    int cabins() {
+        return cabinNames.length;
+    }
+
+    int words() {
+        return words;
+    }
+
+    int seatsPerRow(int cabin) {
+        return letters[cabin].length();
+    }
+
+    int rowsPerWord(int cabin) {
+        return WORD_BITS / letters[cabin].length();
+    }
+
+    int rows(int cabin) {
+        return rows[cabin];
+    }
+
+    int firstWord(int cabin) {
+        return firstWords[cabin];
+    }
+
+    int wordCount(int cabin) {
+        return (rows[cabin] + rowsPerWord(cabin) - 1) / rowsPerWord(cabin);
+    }
+
+    int cabinCapacity(int cabin) {
+        return rows[cabin] * letters[cabin].length();
+    }
+
+    // 0 where no run of n seats fits between aisles
+    long runStarts(int cabin, int n) {
+        long[] starts = runStarts[cabin];
+        return n < starts.length ? starts[n] : 0;
+    }
+
+    // the bits of every seat in one word of the cabin; the last word may hold fewer rows
+    long seatBits(int cabin, int wordInCabin) {
+        int rowsHere = Math.min(rowsPerWord(cabin), rows[cabin] - wordInCabin * rowsPerWord(cabin));
+        return lowBits(rowsHere * seatsPerRow(cabin));
+    }
+
+    // fare class (or cabin) by name, case-insensitive; -1 if the layout has none
+    int fareClass(String name) {
+        return indexOf(fareNames, fareNames.length, name.trim());
+    }
+
+    int fareClasses() {
+        return fareNames.length;
+    }
+
+    String fareName(int fare) {
+        return fareNames[fare];
+    }
+
+    int fareCabin(int fare) {
+        return fareCabins[fare];
+    }
+
+    int fareQuota(int fare) {
+        return fareQuotas[fare];
+    }
+
+    int cabinOf(int ordinal) {
+        int c = firstOrdinals.length - 1;
+        while (firstOrdinals[c] > ordinal) {
+            c--;
+        }
+        return c;
+    }
+
+    // bit position in the seat map of a seat ordinal, and back
+    int bit(int ordinal) {
+        int c = cabinOf(ordinal);
+        int inCabin = ordinal - firstOrdinals[c];
+        int row = inCabin / seatsPerRow(c);
+        int word = firstWords[c] + row / rowsPerWord(c);
+        return word * WORD_BITS + (row % rowsPerWord(c)) * seatsPerRow(c) + inCabin % seatsPerRow(c);
+    }
+
+    int ordinal(int cabin, int bit) {
+        int inWord = bit - firstWords[cabin] * WORD_BITS;
+        int word = inWord / WORD_BITS;
+        int offset = inWord % WORD_BITS;
+        int row = word * rowsPerWord(cabin) + offset / seatsPerRow(cabin);
+        return firstOrdinals[cabin] + row * seatsPerRow(cabin) + offset % seatsPerRow(cabin);
+    }
+
+    // "12A"
+    public String seatNumber(int ordinal) {
+        if (ordinal < 0 || ordinal >= capacity) {
+            throw new IllegalArgumentException("Err: no seat " + ordinal);
+        }
+        int c = cabinOf(ordinal);
+        int inCabin = ordinal - firstOrdinals[c];
+        return (firstRows[c] + inCabin / seatsPerRow(c)) + String.valueOf(letters[c].charAt(inCabin % seatsPerRow(c)));
+    }
+
+    // ordinal of "12A", -1 if the layout has no such seat
+    public int seatOrdinal(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+        char letter = Character.toUpperCase(seatNumber.charAt(seatNumber.length() - 1));
+        int row;
+        try {
+            row = Integer.parseInt(seatNumber.substring(0, seatNumber.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        for (int c = 0; c < cabinNames.length; c++) {
+            int seat = letters[c].indexOf(letter);
+            if (row >= firstRows[c] && row < firstRows[c] + rows[c] && seat >= 0) {
+                return firstOrdinals[c] + (row - firstRows[c]) * seatsPerRow(c) + seat;
+            }
+        }
+        return -1;
+    }
+
+    // the canonical spec, parse(toString()) gives an equal layout
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof SeatLayout && spec.equals(((SeatLayout) o).spec));
+    }
+
+    @Override
+    public int hashCode() {
+        return spec.hashCode();
+    }
+}
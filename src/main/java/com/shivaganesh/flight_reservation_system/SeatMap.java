@@ -0,0 +1,212 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Which seats of one flight are free, one bit per seat (1 = free) laid out as SeatLayout describes, plus
+//how many seats each fare class has sold. A 400 seat aircraft is 7 longs and a few ints, not 400 objects.
+//
+//Adjacent seats are found with word-level bit tricks: and-ing the free bits with themselves shifted by
+//1..n-1 leaves a bit where n free seats start, masked to starts that do not cross an aisle or a row.
+//All seats of a claim are in one word, so one compare-and-set takes them all or none.
+//
+//FlightService keeps the flight's seat count (Flight.seatState) in step: a booking takes the count
+//first and the seats after, a cancellation frees the seats first and the count after. So the free
+//bits never drop below the count, and a booking that already holds the count can always find seats
+//anywhere on the aircraft.
+
+final class SeatMap {
+
+    private final SeatLayout layout;
+    private final AtomicLongArray free;
+    private final AtomicIntegerArray fareSold;
+
+    SeatMap(SeatLayout layout) {
+        this.layout = layout;
+        this.free = new AtomicLongArray(layout.words());
+        for (int c = 0; c < layout.cabins(); c++) {
+            for (int w = 0; w < layout.wordCount(c); w++) {
+                free.set(layout.firstWord(c) + w, layout.seatBits(c, w));
+            }
+        }
+        this.fareSold = new AtomicIntegerArray(layout.fareClasses());
+    }
+
+    SeatLayout layout() {
+        return layout;
+    }
+
+    // n adjacent seats in the cabin, front rows and left seats first; null when no row has them
+    int[] claimAdjacent(int cabin, int n) {
+        long starts = layout.runStarts(cabin, n);
+        if (starts == 0) {
+            return null;
+        }
+        long run = SeatLayout.lowBits(n);
+        int first = layout.firstWord(cabin);
+        int end = first + layout.wordCount(cabin);
+        for (int w = first; w < end; w++) {
+            while (true) {
+                long bits = free.get(w);
+                long candidates = runs(bits, n) & starts;
+                if (candidates == 0) {
+                    break;
+                }
+                int start = Long.numberOfTrailingZeros(candidates);
+                if (free.compareAndSet(w, bits, bits & ~(run << start))) {
+                    int[] seats = new int[n];
+                    for (int i = 0; i < n; i++) {
+                        seats[i] = layout.ordinal(cabin, w * SeatLayout.WORD_BITS + start + i);
+                    }
+                    return seats;
+                }
+            }
+        }
+        return null;
+    }
+
+    // n adjacent seats in the cabin, or in the first cabin that has them for -1
+    int[] claimTogether(int cabin, int n) {
+        int from = cabin < 0 ? 0 : cabin;
+        int to = cabin < 0 ? layout.cabins() : cabin + 1;
+        for (int c = from; c < to; c++) {
+            int[] together = claimAdjacent(c, n);
+            if (together != null) {
+                return together;
+            }
+        }
+        return null;
+    }
+
+    // bits where n set bits in a row start
+    private static long runs(long bits, int n) {
+        long runs = bits;
+        for (int i = 1; i < n && runs != 0; i++) {
+            runs &= bits >>> i;
+        }
+        return runs;
+    }
+
+    // n seats in the cabin (any cabin for -1), together if some row has them, else wherever they are free;
+    // null, with nothing taken, if the cabin does not have n free seats
+    int[] claimAny(int cabin, int n) {
+        int[] together = claimTogether(cabin, n);
+        if (together != null) {
+            return together;
+        }
+        int from = cabin < 0 ? 0 : cabin;
+        int to = cabin < 0 ? layout.cabins() : cabin + 1;
+        int[] seats = new int[n];
+        int taken = 0;
+        for (int c = from; c < to && taken < n; c++) {
+            int first = layout.firstWord(c);
+            int end = first + layout.wordCount(c);
+            for (int w = first; w < end && taken < n; w++) {
+                long bits = free.get(w);
+                while (bits != 0 && taken < n) {
+                    long seat = Long.lowestOneBit(bits);
+                    if (free.compareAndSet(w, bits, bits & ~seat)) {
+                        seats[taken++] = layout.ordinal(c, w * SeatLayout.WORD_BITS + Long.numberOfTrailingZeros(seat));
+                        bits &= ~seat;
+                    } else {
+                        bits = free.get(w);
+                    }
+                }
+            }
+        }
+        if (taken < n) {
+            release(Arrays.copyOf(seats, taken));
+            return null;
+        }
+        return seats;
+    }
+
+    // exactly these seats, e.g. when a journal is replayed; false, with nothing taken, if one is not free
+    boolean claim(int[] seats) {
+        for (int i = 0; i < seats.length; i++) {
+            if (seats[i] < 0 || seats[i] >= layout.capacity() || !claimBit(layout.bit(seats[i]))) {
+                release(Arrays.copyOf(seats, i));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean claimBit(int bit) {
+        int w = bit / SeatLayout.WORD_BITS;
+        long mask = 1L << (bit % SeatLayout.WORD_BITS);
+        while (true) {
+            long bits = free.get(w);
+            if ((bits & mask) == 0) {
+                return false;
+            }
+            if (free.compareAndSet(w, bits, bits & ~mask)) {
+                return true;
+            }
+        }
+    }
+
+    void release(int[] seats) {
+        for (int seat : seats) {
+            int bit = layout.bit(seat);
+            int w = bit / SeatLayout.WORD_BITS;
+            long mask = 1L << (bit % SeatLayout.WORD_BITS);
+            while (true) {
+                long bits = free.get(w);
+                if (free.compareAndSet(w, bits, bits | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    boolean isFree(int seat) {
+        int bit = layout.bit(seat);
+        return (free.get(bit / SeatLayout.WORD_BITS) & (1L << (bit % SeatLayout.WORD_BITS))) != 0;
+    }
+
+    int freeSeats(int cabin) {
+        int count = 0;
+        int first = layout.firstWord(cabin);
+        for (int w = first; w < first + layout.wordCount(cabin); w++) {
+            count += Long.bitCount(free.get(w));
+        }
+        return count;
+    }
+
+    int freeSeats() {
+        int count = 0;
+        for (int w = 0; w < free.length(); w++) {
+            count += Long.bitCount(free.get(w));
+        }
+        return count;
+    }
+
+    // counts n seats against the fare class quota; false if that would go over it
+    boolean takeFare(int fare, int n) {
+        int quota = layout.fareQuota(fare);
+        while (true) {
+            int sold = fareSold.get(fare);
+            if (sold + n > quota) {
+                return false;
+            }
+            if (fareSold.compareAndSet(fare, sold, sold + n)) {
+                return true;
+            }
+        }
+    }
+
+    void releaseFare(int fare, int n) {
+        fareSold.addAndGet(fare, -n);
+    }
+
+    int fareSold(int fare) {
+        return fareSold.get(fare);
+    }
+
+    // what the fare class can still sell: its quota left, but never more than its cabin has free
+    int fareAvailable(int fare) {
+        return Math.max(0, Math.min(layout.fareQuota(fare) - fareSold.get(fare), freeSeats(layout.fareCabin(fare))));
+    }
+}
@@ -0,0 +1,12 @@
+package com.shivaganesh.flight_reservation_system;
+
+//Thrown when a booking or hold asks for more seats than the flight has left.
+//Still an IllegalArgumentException, so existing callers keep working; the HTTP API uses it
+//to answer 409 instead of 400.
+
+public class SeatsUnavailableException extends IllegalArgumentException {
+
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,210 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+//FlightService API over N independent FlightPartitions.
+//
+//A flight lives in partition floorMod(flightNumber.hashCode(), N), and so do all its reservations;
+//String.hashCode is fixed by the language, so the routing is the same in every process. Reservation
+//ids carry their partition (id % N), so id lookups and cancellations go straight to the owner.
+//Searches and per-customer lookups are sent to every partition at once and merged.
+//
+//Not supported across partitions: bookFlights (atomic batches) and seat holds; use a single
+//FlightService for those.
+
+public class ShardedFlightService implements AutoCloseable {
+
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator.comparing(Flight::getDepartureTime)
+            .thenComparing(Flight::getFlightNumber);
+
+    private final List<FlightPartition> partitions;
+    // read pool created by local(), null when the caller brought its own partitions
+    private final ExecutorService ownedReads;
+
+    // partition i must hand out reservation ids with id % partitions.size() == i
+    public ShardedFlightService(List<FlightPartition> partitions) {
+        this(partitions, null);
+    }
+
+    private ShardedFlightService(List<FlightPartition> partitions, ExecutorService ownedReads) {
+        if (partitions == null || partitions.isEmpty()) {
+            throw new IllegalArgumentException("Err: partitions must not be empty");
+        }
+        this.partitions = List.copyOf(partitions);
+        this.ownedReads = ownedReads;
+    }
+
+    // n in-process partitions sharing one read pool sized to the machine
+    public static ShardedFlightService local(int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Err: partitions must be > 0");
+        }
+        AtomicInteger readers = new AtomicInteger();
+        ExecutorService reads = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "flight-partition-reader-" + readers.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<FlightPartition> local = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            local.add(new LocalFlightPartition(i, partitions, reads));
+        }
+        return new ShardedFlightService(local, reads);
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    int partitionOf(String flightNumber) {
+        return Math.floorMod(flightNumber.hashCode(), partitions.size());
+    }
+
+    private FlightPartition owner(String flightNumber) {
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("Err: flightNumber must not be blank");
+        }
+        return partitions.get(partitionOf(flightNumber));
+    }
+
+    private FlightPartition owner(long reservationId) {
+        if (reservationId <= 0) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " does not exist");
+        }
+        return partitions.get((int) (reservationId % partitions.size()));
+    }
+
+    public void addFlight(Flight flight) {
+        Objects.requireNonNull(flight, " Err: flight must not be null");
+        await(owner(flight.getFlightNumber()).addFlight(flight));
+    }
+
+    public Optional<Flight> findFlight(String flightNumber) {
+        return await(owner(flightNumber).findFlight(flightNumber));
+    }
+
+    public List<Flight> searchFlights(String destination, LocalDateTime date) {
+        if (destination == null || destination.isBlank()) {
+            throw new IllegalArgumentException("Err: destination must not be blank");
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("date must not be null");
+        }
+        List<Flight> found = gather(p -> p.searchFlights(destination, date.toLocalDate()));
+        found.sort(BY_DEPARTURE);
+        return found;
+    }
+
+    // like FlightService.searchFlights(destinations, from, to).limit(limit): every partition returns
+    // its first "limit" flights and the merge keeps the first "limit" overall
+    public List<Flight> searchFlights(Collection<String> destinations, LocalDateTime from, LocalDateTime to, int limit) {
+        if (destinations == null || destinations.isEmpty()) {
+            throw new IllegalArgumentException("Err: destinations must not be empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Err: limit must be > 0");
+        }
+        Set<String> wanted = new LinkedHashSet<>(destinations);
+        List<Flight> found = gather(p -> p.searchFlights(wanted, from, to, limit));
+        found.sort(BY_DEPARTURE);
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    public Reservation bookFlight(String customerName, String flightNumber, int seats) {
+        return await(owner(flightNumber).bookFlight(customerName, flightNumber, seats));
+    }
+
+    public Reservation bookFlight(String customerName, Flight flight, int seats) {
+        Objects.requireNonNull(flight, "flight must not be null");
+        return bookFlight(customerName, flight.getFlightNumber(), seats);
+    }
+
+    public Reservation cancelReservation(long reservationId) {
+        return await(owner(reservationId).cancelReservation(reservationId));
+    }
+
+    public Optional<Reservation> findReservation(long reservationId) {
+        if (reservationId <= 0) {
+            return Optional.empty();
+        }
+        return await(owner(reservationId).findReservation(reservationId));
+    }
+
+    public List<Reservation> findReservationsByCustomer(String customerName) {
+        if (customerName == null || customerName.isBlank()) {
+            throw new IllegalArgumentException(" Err: customerName must not be blank");
+        }
+        List<Reservation> found = gather(p -> p.findReservationsByCustomer(customerName));
+        found.sort(Comparator.comparingLong(Reservation::getId));
+        return found;
+    }
+
+    public List<Flight> getAllFlights() {
+        return gather(FlightPartition::getAllFlights);
+    }
+
+    //ordered by reservation id, which is not booking order (see FlightService.getAllReservations)
+    public List<Reservation> getAllReservations() {
+        List<Reservation> all = gather(FlightPartition::getAllReservations);
+        all.sort(Comparator.comparingLong(Reservation::getId));
+        return all;
+    }
+
+    // sends the call to every partition before waiting on any of them
+    private <T> List<T> gather(Function<FlightPartition, CompletableFuture<List<T>>> call) {
+        List<CompletableFuture<List<T>>> pending = new ArrayList<>(partitions.size());
+        for (FlightPartition partition : partitions) {
+            pending.add(call.apply(partition));
+        }
+        List<T> all = new ArrayList<>();
+        for (CompletableFuture<List<T>> part : pending) {
+            all.addAll(await(part));
+        }
+        return all;
+    }
+
+    // waits and rethrows what the partition threw, e.g. SeatsUnavailableException, unwrapped
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Err: interrupted waiting for a partition", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Err: partition call failed", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (FlightPartition partition : partitions) {
+            partition.close();
+        }
+        if (ownedReads != null) {
+            ownedReads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.shivaganesh.flight_reservation_system;
+
+//What a FlightEventFeed does when a subscriber cannot keep up. Publishing never waits either way.
+
+public enum SubscriberPolicy {
+
+    // the subscriber does not hold the feed back; if it falls a whole ring behind it skips to the oldest
+    // event still in the ring and gets onGap for what it missed
+    DROP,
+
+    // the ring never overwrites events this subscriber has not seen; while it is full, new events are
+    // rejected (counted in FlightEventFeed.getRejected) and every subscriber gets onGap for them
+    BACKPRESSURE
+}
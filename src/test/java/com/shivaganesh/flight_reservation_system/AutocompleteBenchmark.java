@@ -0,0 +1,126 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Typeahead latency, top 10 completions for prefixes as a user types them.
+//
+//trieDestinations: completeDestinations over 2,000 destinations (zipf, 200,000 flights), every one of them
+//starting with "destination ", so short prefixes match hundreds.
+//scanDestinations: what the front end did before, getAllFlights() filtered and summed per destination.
+//trieCustomers: completeCustomers' NameTrie with 1,000,000 made up customer names, 1 to 3 letter prefixes.
+//skipListCustomers: the same names and counts in a ConcurrentSkipListMap keyed by the lower cased name, top 10
+//picked from subMap(prefix, prefix + '\uffff'). It has no bounds to stop early, so it reads every match.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutocompleteBenchmark {
+
+    private static final String[] DESTINATION_PREFIXES = {"d", "Dest", "destination 1", "destination 12", "DESTINATION 123"};
+    private static final String[] SYLLABLES = {"al", "be", "cor", "da", "el", "fin", "ga", "ha", "is", "jo", "ka",
+            "li", "mar", "no", "ol", "pe", "qui", "ro", "sa", "tu", "ur", "vi", "wen", "xa", "yo", "ze"};
+    private static final int CUSTOMERS = 1_000_000;
+
+    private FlightService flightService;
+    private NameTrie customers;
+    private ConcurrentSkipListMap<String, AtomicLong> customerList;
+    private String[] customerPrefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        flightService = BenchmarkSchedules.schedule(200_000, 2_000, "zipf", 100);
+
+        SplittableRandom random = new SplittableRandom(42);
+        customers = new NameTrie();
+        customerList = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customer = name(random) + " " + name(random);
+            int count = 1 + random.nextInt(20);
+            customers.add(customer, count);
+            customerList.computeIfAbsent(customer.toLowerCase(Locale.ROOT), k -> new AtomicLong()).addAndGet(count);
+        }
+        customerPrefixes = new String[256];
+        for (int i = 0; i < customerPrefixes.length; i++) {
+            String name = name(random);
+            customerPrefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(3, name.length())));
+        }
+    }
+
+    private static String name(SplittableRandom random) {
+        StringBuilder name = new StringBuilder();
+        for (int s = 1 + random.nextInt(3); s > 0; s--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    @Benchmark
+    public List<Completion> trieDestinations() {
+        return flightService.completeDestinations(DESTINATION_PREFIXES[next++ % DESTINATION_PREFIXES.length], 10);
+    }
+
+    @Benchmark
+    public List<String> scanDestinations() {
+        String prefix = DESTINATION_PREFIXES[next++ % DESTINATION_PREFIXES.length];
+        Map<String, Long> seats = new HashMap<>();
+        for (Flight flight : flightService.getAllFlights()) {
+            if (flight.getDestination().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                seats.merge(flight.getDestination(), (long) flight.getAvailableSeats(), Long::sum);
+            }
+        }
+        List<String> top = new ArrayList<>(seats.keySet());
+        top.sort((a, b) -> Long.compare(seats.get(b), seats.get(a)));
+        return top.subList(0, Math.min(10, top.size()));
+    }
+
+    @Benchmark
+    public List<Completion> trieCustomers() {
+        return customers.complete(customerPrefixes[next++ & (customerPrefixes.length - 1)], 10);
+    }
+
+    @Benchmark
+    public List<String> skipListCustomers() {
+        String prefix = customerPrefixes[next++ & (customerPrefixes.length - 1)].toLowerCase(Locale.ROOT);
+        PriorityQueue<Map.Entry<String, AtomicLong>> top = new PriorityQueue<>(11,
+                (a, b) -> Long.compare(a.getValue().get(), b.getValue().get()));
+        for (Map.Entry<String, AtomicLong> entry : customerList.subMap(prefix, prefix + '\uffff').entrySet()) {
+            if (entry.getValue().get() > 0) {
+                top.add(entry);
+                if (top.size() > 10) {
+                    top.poll();
+                }
+            }
+        }
+        List<String> names = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            names.add(top.poll().getKey());
+        }
+        return names;
+    }
+}
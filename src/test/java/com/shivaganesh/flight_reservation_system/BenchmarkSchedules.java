@@ -0,0 +1,92 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//Synthetic schedules and query streams shared by the *Benchmark classes.
+//Everything is seeded, so two runs with the same parameters see the same data.
+
+final class BenchmarkSchedules {
+
+    static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    static final int DAYS = 365;
+
+    private BenchmarkSchedules() {
+    }
+
+    static String destination(int i) {
+        return "Destination " + i;
+    }
+
+    static String flightNumber(int i) {
+        return "BF" + i;
+    }
+
+    //picks destinations either uniformly or with a Zipf(1) skew, so a few are very popular
+    static final class DestinationSampler {
+
+        private final double[] cumulative;
+
+        DestinationSampler(int destinations, String skew) {
+            cumulative = new double[destinations];
+            double total = 0;
+            for (int i = 0; i < destinations; i++) {
+                total += switch (skew) {
+                    case "uniform" -> 1.0;
+                    case "zipf" -> 1.0 / (i + 1);
+                    default -> throw new IllegalArgumentException("Err: unknown skew " + skew);
+                };
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < destinations; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        int next(SplittableRandom random) {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(i < 0 ? -i - 1 : i, cumulative.length - 1);
+        }
+    }
+
+    //fills a service with flights spread over DAYS days; seat counts are large enough that
+    //booking benchmarks never sell a flight out
+    static FlightService schedule(int flights, int destinations, String skew, int seats) {
+        return schedule(new FlightService(), flights, destinations, skew, seats);
+    }
+
+    static FlightService schedule(FlightService flightService, int flights, int destinations, String skew, int seats) {
+        DestinationSampler sampler = new DestinationSampler(destinations, skew);
+        SplittableRandom random = new SplittableRandom(42);
+        int minutesInRange = DAYS * 24 * 60;
+        for (int i = 0; i < flights; i++) {
+            // spread evenly over the year, in time order, like a real schedule load
+            LocalDateTime departure = FIRST_DEPARTURE.plusMinutes((long) i * minutesInRange / flights);
+            flightService.addFlight(new Flight(flightNumber(i), destination(sampler.next(random)), departure, seats));
+        }
+        return flightService;
+    }
+
+    //flights with a route between "airports" places, origins and destinations picked with skew so
+    //"zipf" gives a few hubs; 1 to 6 hours in the air
+    static List<Flight> routedSchedule(int flights, int airports, String skew, int seats) {
+        DestinationSampler sampler = new DestinationSampler(airports, skew);
+        SplittableRandom random = new SplittableRandom(42);
+        int minutesInRange = DAYS * 24 * 60;
+        List<Flight> schedule = new ArrayList<>(flights);
+        for (int i = 0; i < flights; i++) {
+            int origin = sampler.next(random);
+            int destination = sampler.next(random);
+            while (destination == origin) {
+                destination = random.nextInt(airports);
+            }
+            LocalDateTime departure = FIRST_DEPARTURE.plusMinutes((long) i * minutesInRange / flights);
+            schedule.add(new Flight(flightNumber(i), destination(origin), destination(destination), departure,
+                    departure.plusMinutes(60 + random.nextInt(300)), seats));
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,71 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Group booking throughput: one bookFlights call against the same requests booked one by one.
+//Scores are per booked request so both modes compare directly.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBatchBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    // how many different flights one batch touches
+    @Param({"1", "10", "50"})
+    public int flightsPerBatch;
+
+    private FlightService flightService;
+    private List<BookingRequest> batch;
+
+    // a fresh service per iteration keeps the reservation list from growing without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        flightService = new FlightService();
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 20, 9, 0);
+        for (int i = 0; i < flightsPerBatch; i++) {
+            flightService.addFlight(new Flight("BM" + i, "London", departure.plusMinutes(i), Integer.MAX_VALUE));
+        }
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new BookingRequest("Agency customer " + i, "BM" + (i % flightsPerBatch), 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void singleBookings(Blackhole bh) {
+        for (BookingRequest request : batch) {
+            bh.consume(flightService.bookFlight(request.getCustomerName(), request.getFlightNumber(), request.getSeats()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Reservation> batchBooking() {
+        return flightService.bookFlights(batch);
+    }
+}
@@ -0,0 +1,76 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DestinationIdsTest {
+
+    @Test
+    void idsIgnoreCaseAndSurroundingSpaces() {
+        DestinationIds ids = new DestinationIds();
+        int id = ids.intern("Rio de Janeiro");
+
+        assertEquals(id, ids.find("  rio DE janeiro\t"));
+        assertEquals(id, ids.intern("RIO DE JANEIRO"));
+        assertNotEquals(id, ids.intern("Rio de Janeiro Galeao"));
+        assertEquals(DestinationIds.UNKNOWN, ids.find("Rio"));
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    void idsSurviveTableGrowth() {
+        DestinationIds ids = new DestinationIds();
+        int first = ids.intern("Growth 0");
+        for (int i = 1; i < 500; i++) {
+            ids.intern("Growth " + i);
+        }
+        assertEquals(first, ids.find("growth 0"));
+        assertEquals(ids.intern("Growth 499"), ids.find(" GROWTH 499 "));
+        assertEquals(500, ids.size());
+    }
+
+    // every service has its own table, what one interns the others never see
+    @Test
+    void tablesAreNotShared() {
+        DestinationIds a = new DestinationIds();
+        DestinationIds b = new DestinationIds();
+        a.intern("Lisbon");
+        a.intern("Porto");
+
+        assertEquals(DestinationIds.UNKNOWN, b.find("lisbon"));
+        assertEquals(0, b.intern("Porto"));
+        assertEquals(1, b.size());
+
+        FlightService first = new FlightService();
+        FlightService second = new FlightService();
+        first.addFlight(new Flight("FL901", "Faro", LocalDateTime.of(2025, 12, 20, 9, 0), 1));
+        assertEquals(1, first.searchFlights("faro", LocalDateTime.of(2025, 12, 20, 0, 0)).size());
+        assertTrue(second.searchFlights("faro", LocalDateTime.of(2025, 12, 20, 0, 0)).isEmpty());
+
+        // a service taking over an inventory that already has flights learns their places from it
+        HeapFlightInventory filled = new HeapFlightInventory();
+        filled.add(new Flight("FL903", "Braga", LocalDateTime.of(2025, 12, 20, 9, 0), 1));
+        FlightService taken = new FlightService(filled);
+        assertEquals(1, taken.searchFlights(" BRAGA", LocalDateTime.of(2025, 12, 20, 0, 0)).size());
+        assertEquals(1, taken.searchFlights("braga", LocalDateTime.of(2025, 12, 20, 0, 0)).size());
+        assertEquals(1, taken.getMetrics().getSearchCache().getHits());
+    }
+
+    @Test
+    void samePlaceUsesTheSameRules() {
+        assertTrue(DestinationIds.samePlace(" Lisbon ", "LISBON"));
+        assertFalse(DestinationIds.samePlace("Lisbon", "Lisbo"));
+        assertThrows(IllegalArgumentException.class, () -> new Flight("FL902", " lisbon", "Lisbon ",
+                LocalDateTime.of(2025, 12, 20, 9, 0), LocalDateTime.of(2025, 12, 20, 10, 0), 1));
+    }
+
+    @Test
+    void flightCarriesPrecomputedDay() {
+        Flight f = new Flight("FL900", " Lisbon ", LocalDateTime.of(2025, 12, 20, 23, 59), 1);
+
+        assertEquals(LocalDateTime.of(2025, 12, 20, 0, 0).toLocalDate().toEpochDay(), f.getDepartureEpochDay());
+    }
+}
@@ -0,0 +1,262 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 12, 20);
+
+    @TempDir
+    Path dir;
+
+    private static Flight flight(String number, int dayOffset, int seats) {
+        return new Flight(number, "London", DAY.plusDays(dayOffset).atTime(9, 0), seats);
+    }
+
+    private FlightService archivedService() throws IOException {
+        FlightService service = new FlightService();
+        service.setArchive(FlightArchive.open(dir));
+        return service;
+    }
+
+    @Test
+    void archiveDeparted_movesFlightsAndReservationsToOneSegmentPerDay() throws IOException {
+        FlightService service = archivedService();
+        service.addFlight(flight("FL100", 0, 5));
+        service.addFlight(flight("FL101", 0, 5));
+        service.addFlight(flight("FL200", 1, 5));
+        service.addFlight(flight("FL300", 2, 5));
+        Reservation old = service.bookFlight("Alice", "FL100", 2);
+        service.bookFlight("Bob", "FL101", 1);
+        Reservation nextDay = service.bookFlight("Alice", "FL200", 1);
+        Reservation upcoming = service.bookFlight("Alice", "FL300", 3);
+        service.searchFlights("London", DAY.atStartOfDay());
+
+        List<ArchivedDay> archived = service.archiveDeparted(DAY.plusDays(2));
+
+        assertEquals(List.of(DAY, DAY.plusDays(1)), archived.stream().map(ArchivedDay::getDate).toList());
+        assertEquals(2, archived.get(0).getFlights());
+        assertEquals(2, archived.get(0).getReservations());
+        assertTrue(archived.get(0).getEstimatedHeapBytes() > archived.get(1).getEstimatedHeapBytes());
+        assertTrue(archived.get(0).getSegmentBytes() > 0);
+        assertEquals(List.of("FL300"), service.getAllFlights().stream().map(Flight::getFlightNumber).toList());
+        assertTrue(service.findFlight("FL100").isEmpty());
+        assertTrue(service.searchFlights("London", DAY.atStartOfDay()).isEmpty());
+        assertEquals(List.of(upcoming), service.getAllReservations());
+        assertThrows(IllegalArgumentException.class, () -> service.cancelReservation(old.getId()));
+
+        List<Reservation> alice = service.findReservationsByCustomer(" ALICE ");
+        assertEquals(List.of(old.getId(), nextDay.getId(), upcoming.getId()), alice.stream().map(Reservation::getId).toList());
+        assertEquals("FL100", alice.get(0).getFlight().getFlightNumber());
+        assertEquals(3, alice.get(0).getFlight().getAvailableSeats());
+        assertEquals(2, alice.get(0).getSeatsBooked());
+        assertEquals(1, service.findReservationsByCustomer("bob").size());
+        assertTrue(service.findReservationsByCustomer("Carol").isEmpty());
+
+        // nothing departed since, nothing to do
+        assertTrue(service.archiveDeparted(DAY.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void archive_isReadLazilyAfterReopenAndKeepsRoutesAndSeats() throws IOException {
+        LocalDateTime departure = DAY.atTime(7, 0);
+        FlightService service = archivedService();
+        service.addFlight(new Flight("FL400", "Paris", "London", departure, departure.plusHours(1),
+                SeatLayout.parse("Y:10-12:ABC_DEF | B=Y/2")));
+        Reservation seats = service.bookSeats("Alice", "FL400", "B", 2, true);
+        service.archiveDeparted(DAY.plusDays(1));
+
+        // a date archived again gets a second segment
+        service.addFlight(flight("FL401", 0, 4));
+        service.bookFlight("Alice", "FL401", 4);
+        service.archiveDeparted(DAY.plusDays(1));
+
+        FlightService reopened = new FlightService();
+        FlightArchive archive = FlightArchive.open(dir);
+        reopened.setArchive(archive);
+        assertEquals(List.of(DAY), archive.getDates());
+        List<Reservation> alice = reopened.findReservationsByCustomer("alice");
+        assertEquals(2, alice.size());
+        assertEquals(seats.getSeatNumbers(), alice.get(0).getSeatNumbers());
+        assertEquals("B", alice.get(0).getFareClass());
+        Flight archived = alice.get(0).getFlight();
+        assertEquals("Paris", archived.getOrigin());
+        assertEquals(departure.plusHours(1), archived.getArrivalTime());
+        assertEquals(16, archived.getAvailableSeats());
+        assertEquals(0, alice.get(1).getFlight().getAvailableSeats());
+    }
+
+    // a lookup only maps the segments whose customer filter may hold the customer, and keeps a bounded
+    // number of them mapped
+    @Test
+    void customerLookup_mapsOnlyMatchingSegments() throws IOException {
+        FlightService service = archivedService();
+        int days = FlightArchive.MAPPED_SEGMENTS + 6;
+        for (int d = 0; d < days; d++) {
+            service.addFlight(flight("FL" + d, d, 5));
+            service.bookFlight("Everyone", "FL" + d, 1);
+        }
+        service.bookFlight("Alice", "FL3", 1);
+        service.archiveDeparted(DAY.plusDays(days));
+
+        FlightService reopened = new FlightService();
+        FlightArchive archive = FlightArchive.open(dir);
+        reopened.setArchive(archive);
+        assertEquals(1, reopened.findReservationsByCustomer("alice").size());
+        assertEquals(1, archive.mappedSegmentCount());
+        assertTrue(reopened.findReservationsByCustomer("nobody").isEmpty());
+        assertEquals(days, reopened.findReservationsByCustomer("everyone").size());
+        assertEquals(FlightArchive.MAPPED_SEGMENTS, archive.mappedSegmentCount());
+        assertEquals(days, reopened.findReservationsByCustomer("everyone").size());
+    }
+
+    @Test
+    void corruptSegment_failsTheLookup() throws IOException {
+        FlightService service = archivedService();
+        service.addFlight(flight("FL100", 0, 5));
+        service.bookFlight("Alice", "FL100", 2);
+        service.archiveDeparted(DAY.plusDays(1));
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(f -> f.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), 40);
+        }
+
+        FlightService reopened = new FlightService();
+        reopened.setArchive(FlightArchive.open(dir));
+        assertThrows(UncheckedIOException.class, () -> reopened.findReservationsByCustomer("Alice"));
+    }
+
+    @Test
+    void archiveDeparted_needsAnArchiveAndARemovableInventory() throws IOException {
+        FlightService plain = new FlightService();
+        assertThrows(IllegalStateException.class, () -> plain.archiveDeparted(DAY));
+        assertThrows(IllegalStateException.class, () -> FlightArchiver.start(plain, Duration.ofMinutes(1)));
+
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(dir.resolve("flights.inv"), 10)) {
+            FlightService mapped = new FlightService(inventory);
+            FlightArchive archive = FlightArchive.open(dir.resolve("archive"));
+            assertThrows(IllegalArgumentException.class, () -> mapped.setArchive(archive));
+            assertThrows(IllegalStateException.class, () -> mapped.archiveDeparted(DAY));
+        }
+    }
+
+    // a durable service snapshots after archiving, so a restart does not bring the archived days back;
+    // holds on archived flights end and do not leave their seats in the destination's typeahead count
+    @Test
+    void archiveDeparted_survivesRestartAndEndsHolds() throws IOException {
+        Path data = dir.resolve("data");
+        SeatHold hold;
+        try (FlightPersistence persistence = FlightPersistence.open(data, FsyncPolicy.NONE)) {
+            FlightService service = persistence.getFlightService();
+            service.setArchive(FlightArchive.open(dir.resolve("archive")));
+            service.addFlights(List.of(flight("FL1", 0, 10), flight("FL2", 1, 10), flight("FL3", 5, 10)));
+            service.bookFlight("Alice", "FL1", 2);
+            service.bookFlight("Alice", "FL3", 1);
+            hold = service.holdSeats("Bob", "FL2", 3, Duration.ofMinutes(10));
+
+            assertEquals(2, service.archiveDeparted(DAY.plusDays(2)).size());
+            assertFalse(hold.isActive());
+            assertFalse(service.releaseHold(hold.getId()));
+            assertEquals(9, service.completeDestinations("lon", 1).get(0).getCount());
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(data, FsyncPolicy.NONE)) {
+            FlightService service = persistence.getFlightService();
+            service.setArchive(FlightArchive.open(dir.resolve("archive")));
+            assertEquals(List.of("FL3"), service.getAllFlights().stream().map(Flight::getFlightNumber).toList());
+            assertEquals(1, service.getAllReservations().size());
+            assertEquals(2, service.findReservationsByCustomer("alice").size());
+            assertTrue(service.archiveDeparted(DAY.plusDays(2)).isEmpty());
+        }
+        try (Stream<Path> segments = Files.list(dir.resolve("archive"))) {
+            assertEquals(2, segments.count());
+        }
+    }
+
+    // bookings on upcoming flights keep going while the archiver empties past days; nothing is lost or doubled
+    @Test
+    void archiving_doesNotStopOrLoseBookings() throws Exception {
+        FlightService service = archivedService();
+        List<Flight> flights = new ArrayList<>();
+        for (int d = 0; d < 30; d++) {
+            for (int f = 0; f < 20; f++) {
+                flights.add(flight("FL" + d + "-" + f, d, 1_000));
+            }
+        }
+        service.addFlights(flights);
+        for (int d = 0; d < 20; d++) {
+            for (int f = 0; f < 20; f++) {
+                service.bookFlight("Customer " + (f % 5), "FL" + d + "-" + f, 1);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> bookers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String customer = "Customer " + t;
+            bookers.add(pool.submit(() -> {
+                int booked = 0;
+                for (int i = 0; i < 2_000; i++) {
+                    service.bookFlight(customer, "FL" + (20 + i % 10) + "-" + (i % 20), 1);
+                    booked++;
+                }
+                return booked;
+            }));
+        }
+        Clock clock = Clock.fixed(DAY.plusDays(20).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        List<ArchivedDay> archived;
+        try (FlightArchiver archiver = FlightArchiver.start(service, Duration.ofMillis(5), clock)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (archiver.getReports().size() < 20 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            archived = archiver.getReports();
+            assertTrue(archiver.getEstimatedHeapBytes() > 0);
+        }
+        int booked = 400;
+        for (Future<Integer> booker : bookers) {
+            booked += booker.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(20, archived.size());
+        assertEquals(400, archived.stream().mapToInt(ArchivedDay::getReservations).sum());
+        assertEquals(200, service.getAllFlights().size());
+        Set<Long> ids = new HashSet<>();
+        for (int c = 0; c < 5; c++) {
+            for (Reservation reservation : service.findReservationsByCustomer("Customer " + c)) {
+                assertTrue(ids.add(reservation.getId()));
+            }
+        }
+        assertEquals(booked, ids.size());
+    }
+}
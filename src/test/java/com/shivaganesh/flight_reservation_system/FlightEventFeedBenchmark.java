@@ -0,0 +1,73 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//What the event feed adds to the booking path: bookFlight with no subscriber, a DROP subscriber and a
+//BACKPRESSURE subscriber, next to a bare publish on its own (the part of bookFlight that is the feed).
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightEventFeedBenchmark {
+
+    @Param({"none", "DROP", "BACKPRESSURE"})
+    public String subscriber;
+
+    private FlightService flightService;
+    private FlightEventFeed feed;
+    private Flight flight;
+    private FlightEventSubscription serviceSubscription;
+    private FlightEventSubscription feedSubscription;
+
+    // a fresh service per iteration keeps the reservation maps from growing without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        flightService = new FlightService();
+        flight = new Flight("EV100", "London", LocalDateTime.of(2025, 12, 20, 9, 0), Integer.MAX_VALUE);
+        flightService.addFlight(flight);
+        feed = new FlightEventFeed();
+        if (!"none".equals(subscriber)) {
+            SubscriberPolicy policy = SubscriberPolicy.valueOf(subscriber);
+            FlightEventListener consumer = (List<FlightEvent> events) -> { };
+            serviceSubscription = flightService.getEvents().subscribe(consumer, policy);
+            feedSubscription = feed.subscribe(consumer, policy);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (serviceSubscription != null) {
+            serviceSubscription.close();
+            feedSubscription.close();
+        }
+    }
+
+    @Benchmark
+    public Reservation bookFlight() {
+        return flightService.bookFlight("Benchmark customer", "EV100", 1);
+    }
+
+    @Benchmark
+    public void publishOnly() {
+        feed.publish(FlightEvent.Type.SEATS_BOOKED, flight, 1, flight.seatState(), 1);
+    }
+}
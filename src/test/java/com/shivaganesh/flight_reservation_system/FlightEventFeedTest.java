@@ -0,0 +1,288 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightEventFeedTest {
+
+    private static final Flight FLIGHT = new Flight("FL500", "Paris", LocalDateTime.of(2025, 12, 20, 9, 0), 100);
+
+    // collects what a subscription delivers; optionally stuck in onEvents until released
+    private static final class Recorder implements FlightEventListener {
+        final List<FlightEvent> events = new ArrayList<>();
+        final AtomicLong missed = new AtomicLong();
+        final CountDownLatch release;
+
+        Recorder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onEvents(List<FlightEvent> batch) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (events) {
+                events.addAll(batch);
+            }
+        }
+
+        @Override
+        public void onGap(long missed) {
+            this.missed.addAndGet(missed);
+        }
+
+        int count() {
+            synchronized (events) {
+                return events.size();
+            }
+        }
+
+        List<FlightEvent> events() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void flightService_publishesInventoryChangesInOrder() throws InterruptedException {
+        FlightService flightService = new FlightService();
+        Recorder recorder = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription subscription =
+                     flightService.getEvents().subscribe(recorder, SubscriberPolicy.BACKPRESSURE)) {
+            flightService.addFlight(new Flight("FL100", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 3));
+            Reservation r = flightService.bookFlight("Alice", "FL100", 3);
+            assertThrows(SeatsUnavailableException.class, () -> flightService.bookFlight("Bob", "FL100", 1));
+            flightService.cancelReservation(r.getId());
+
+            await(() -> recorder.count() == 4);
+            List<FlightEvent> events = recorder.events();
+            assertEquals(List.of(FlightEvent.Type.FLIGHT_ADDED, FlightEvent.Type.SEATS_BOOKED,
+                    FlightEvent.Type.SOLD_OUT, FlightEvent.Type.SEATS_RELEASED),
+                    events.stream().map(FlightEvent::getType).toList());
+            assertEquals(List.of(1L, 2L, 3L, 4L), events.stream().map(FlightEvent::getSequence).toList());
+            assertEquals(r.getId(), events.get(1).getReservationId());
+            assertEquals(0, events.get(1).getAvailableSeats());
+            assertEquals(3, events.get(3).getAvailableSeats());
+            assertEquals(1, events.get(1).getVersion());
+            assertEquals(2, events.get(3).getVersion());
+            assertEquals(0, recorder.missed.get());
+            assertEquals(5, subscription.getNextSequence());
+        }
+    }
+
+    // racing bookings: every event has the seats and version its own booking left, not a later one's
+    @Test
+    void concurrentBookings_eachEventCarriesItsOwnState() throws InterruptedException {
+        FlightService flightService = new FlightService();
+        Recorder recorder = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription ignored =
+                     flightService.getEvents().subscribe(recorder, SubscriberPolicy.BACKPRESSURE)) {
+            flightService.addFlight(new Flight("FL100", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 200));
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        flightService.bookFlight("Alice", "FL100", 1);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            await(() -> recorder.count() == 202);
+            List<FlightEvent> booked = recorder.events().stream()
+                    .filter(e -> e.getType() == FlightEvent.Type.SEATS_BOOKED).toList();
+            assertEquals(200, booked.size());
+            assertEquals(200, booked.stream().mapToInt(FlightEvent::getVersion).distinct().count());
+            for (FlightEvent e : booked) {
+                assertEquals(200 - e.getVersion(), e.getAvailableSeats());
+            }
+            assertEquals(1, recorder.events().stream().filter(e -> e.getType() == FlightEvent.Type.SOLD_OUT).count());
+        }
+    }
+
+    // a booking between hold and confirm must not show up in the confirmed hold's event
+    @Test
+    void confirmedHold_reportsTheStateItsHoldSet() throws InterruptedException {
+        FlightService flightService = new FlightService();
+        Recorder recorder = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription ignored =
+                     flightService.getEvents().subscribe(recorder, SubscriberPolicy.BACKPRESSURE)) {
+            flightService.addFlight(new Flight("FL100", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 10));
+            SeatHold hold = flightService.holdSeats("Alice", "FL100", 2, Duration.ofMinutes(15));
+            Reservation booked = flightService.bookFlight("Bob", "FL100", 3);
+            Reservation confirmed = flightService.confirmHold(hold.getId());
+
+            await(() -> recorder.count() == 3);
+            FlightEvent bob = recorder.events().get(1);
+            FlightEvent alice = recorder.events().get(2);
+            assertEquals(booked.getId(), bob.getReservationId());
+            assertEquals(confirmed.getId(), alice.getReservationId());
+            assertEquals(2, bob.getVersion());
+            assertEquals(5, bob.getAvailableSeats());
+            assertEquals(1, alice.getVersion());
+            assertEquals(8, alice.getAvailableSeats());
+        }
+    }
+
+    // a bulk load is one event, however many flights it brings
+    @Test
+    void addFlights_publishesOneEventForTheBatch() throws InterruptedException {
+        FlightService flightService = new FlightService();
+        Recorder recorder = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription ignored =
+                     flightService.getEvents().subscribe(recorder, SubscriberPolicy.BACKPRESSURE)) {
+            LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 11, 0);
+            flightService.addFlights(List.of(new Flight("FL100", "London", departure, 3),
+                    new Flight("FL101", "london ", departure, 4), new Flight("FL102", "Paris", departure, 5)));
+
+            await(() -> recorder.count() == 1);
+            FlightEvent event = recorder.events().get(0);
+            assertEquals(FlightEvent.Type.FLIGHTS_ADDED, event.getType());
+            assertNull(event.getFlightNumber());
+            assertEquals(3, event.getSeats());
+            assertEquals(7, flightService.completeDestinations("lon", 5).get(0).getCount());
+            assertEquals(1, flightService.completeDestinations("lon", 5).size());
+        }
+    }
+
+    @Test
+    void dropSubscriber_isOvertakenAndToldWhatItMissed() throws InterruptedException {
+        FlightEventFeed feed = new FlightEventFeed(8);
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder slow = new Recorder(release);
+        try (FlightEventSubscription ignored = feed.subscribe(slow, SubscriberPolicy.DROP)) {
+            feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), 1);
+            // the listener is now stuck on event 1 while 99 more go through the 8 slot ring
+            await(() -> feed.slot(1) != null);
+            Thread.sleep(20);
+            for (int i = 2; i <= 100; i++) {
+                feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), i);
+            }
+            release.countDown();
+
+            await(() -> slow.count() + slow.missed.get() == 100);
+            List<FlightEvent> events = slow.events();
+            assertTrue(slow.missed.get() > 0);
+            assertEquals(100, events.get(events.size() - 1).getSequence());
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence());
+            }
+            assertEquals(0, feed.getRejected());
+        }
+    }
+
+    @Test
+    void backpressureSubscriber_holdsRingAndPublishersRejectInsteadOfWaiting() throws InterruptedException {
+        FlightEventFeed feed = new FlightEventFeed(8);
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder slow = new Recorder(release);
+        Recorder fast = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription subscription = feed.subscribe(slow, SubscriberPolicy.BACKPRESSURE);
+             FlightEventSubscription ignored = feed.subscribe(fast, SubscriberPolicy.DROP)) {
+            for (int i = 1; i <= 100; i++) {
+                feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), i);
+            }
+            assertTrue(feed.getRejected() > 0);
+            release.countDown();
+            // once the ring has drained, the next event goes in behind a gap marker for the rejected ones
+            await(() -> subscription.getNextSequence() == feed.getLastSequence() + 1);
+            feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), 101);
+
+            await(() -> slow.missed.get() == feed.getRejected() && slow.events().stream()
+                    .anyMatch(e -> e.getReservationId() == 101));
+            // nothing the ring accepted was lost to the slow subscriber
+            List<Long> ids = slow.events().stream().map(FlightEvent::getReservationId).toList();
+            assertEquals(101 - feed.getRejected(), ids.size());
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i) > ids.get(i - 1));
+            }
+            await(() -> fast.missed.get() == feed.getRejected() && fast.count() == ids.size());
+        }
+    }
+
+    @Test
+    void subscribe_resumesFromSequence() throws InterruptedException {
+        FlightEventFeed feed = new FlightEventFeed(64);
+        Recorder first = new Recorder(new CountDownLatch(0));
+        long resumeAt;
+        try (FlightEventSubscription subscription = feed.subscribe(first, SubscriberPolicy.DROP)) {
+            for (int i = 1; i <= 10; i++) {
+                feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), i);
+            }
+            await(() -> first.count() == 10);
+            resumeAt = subscription.getNextSequence();
+        }
+        for (int i = 11; i <= 20; i++) {
+            feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), i);
+        }
+
+        Recorder second = new Recorder(new CountDownLatch(0));
+        try (FlightEventSubscription ignored = feed.subscribe(second, SubscriberPolicy.DROP, resumeAt)) {
+            await(() -> second.count() == 10);
+            assertEquals(11, second.events().get(0).getSequence());
+            assertEquals(0, second.missed.get());
+        }
+    }
+
+    @Test
+    void concurrentPublishers_everyEventDeliveredOrCountedMissed() throws Exception {
+        FlightEventFeed feed = new FlightEventFeed(256);
+        Recorder recorder = new Recorder(new CountDownLatch(0));
+        int threads = 4;
+        int perThread = 20_000;
+        try (FlightEventSubscription subscription = feed.subscribe(recorder, SubscriberPolicy.BACKPRESSURE)) {
+            List<Thread> publishers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread publisher = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), 1);
+                    }
+                });
+                publisher.start();
+                publishers.add(publisher);
+            }
+            for (Thread publisher : publishers) {
+                publisher.join();
+            }
+            if (feed.getRejected() > 0) {
+                // let the ring drain, then flush the last gap marker
+                await(() -> subscription.getNextSequence() == feed.getLastSequence() + 1);
+                feed.publish(FlightEvent.Type.SEATS_BOOKED, FLIGHT, 1, FLIGHT.seatState(), 1);
+                await(() -> recorder.count() + recorder.missed.get() == threads * perThread + 1);
+            } else {
+                await(() -> recorder.count() == threads * perThread);
+            }
+            List<FlightEvent> events = recorder.events();
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence());
+            }
+            assertEquals(feed.getRejected(), recorder.missed.get());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightHttpServerTest {
+
+    private FlightService flightService;
+    private FlightHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        flightService = new FlightService();
+        flightService.addFlight(new Flight("FL201", "London", LocalDateTime.of(2025, 12, 21, 8, 0), 3));
+        server = new FlightHttpServer(flightService, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path, String form) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        if (form != null) {
+            request.header("Content-Type", "application/x-www-form-urlencoded");
+        }
+        request.method(method, form == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(form));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void searchBookAndViewOverHttp() throws Exception {
+        HttpResponse<String> search = send("GET", "/flights?destination=london&date=2025-12-21", null);
+        assertEquals(200, search.statusCode());
+        assertTrue(search.body().contains("\"flightNumber\":\"FL201\""), search.body());
+
+        HttpResponse<String> booking = send("POST", "/bookings", "customer=Alice+Smith&flightNumber=FL201&seats=2");
+        assertEquals(201, booking.statusCode(), booking.body());
+        assertTrue(booking.body().contains("\"seatsBooked\":2"), booking.body());
+        assertEquals(1, flightService.getAllFlights().get(0).getAvailableSeats());
+
+        HttpResponse<String> reservations = send("GET", "/reservations?customer=alice%20smith", null);
+        assertEquals(200, reservations.statusCode());
+        assertTrue(reservations.body().contains("\"customerName\":\"Alice Smith\""), reservations.body());
+    }
+
+    @Test
+    void soldOutIsConflictAndBadInputIsBadRequest() throws Exception {
+        assertEquals(409, send("POST", "/bookings", "customer=Bob&flightNumber=FL201&seats=5").statusCode());
+        assertEquals(400, send("POST", "/bookings", "customer=Bob&flightNumber=FL999&seats=1").statusCode());
+        assertEquals(400, send("POST", "/bookings", "customer=Bob&flightNumber=FL201&seats=two").statusCode());
+        assertEquals(400, send("GET", "/flights?destination=London&date=tomorrow", null).statusCode());
+        assertEquals(405, send("GET", "/bookings", null).statusCode());
+        assertEquals(3, flightService.getAllFlights().get(0).getAvailableSeats());
+    }
+
+    @Test
+    void deleteCancelsReservation() throws Exception {
+        Reservation r = flightService.bookFlight("Carol", "FL201", 3);
+
+        HttpResponse<String> cancelled = send("DELETE", "/reservations/" + r.getId(), null);
+        assertEquals(200, cancelled.statusCode(), cancelled.body());
+        assertEquals(3, flightService.getAllFlights().get(0).getAvailableSeats());
+        assertEquals(400, send("DELETE", "/reservations/" + r.getId(), null).statusCode());
+    }
+
+    @Test
+    void itinerariesOverHttp() throws Exception {
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 6, 0);
+        flightService.addFlight(new Flight("FL301", "Paris", "Brussels", departure, departure.plusHours(1), 3));
+        flightService.addFlight(new Flight("FL302", "Brussels", "London", departure.plusHours(2),
+                departure.plusHours(3), 3));
+
+        HttpResponse<String> found = send("GET",
+                "/itineraries?origin=Paris&destination=London&departure=2025-12-21T05:00&minConnection=45", null);
+        assertEquals(200, found.statusCode(), found.body());
+        assertTrue(found.body().startsWith("[{\"stops\":1,"), found.body());
+        assertTrue(found.body().contains("\"origin\":\"Brussels\""), found.body());
+        assertTrue(found.body().contains("\"arrivalTime\":\"2025-12-21T09:00\""), found.body());
+
+        assertEquals(400, send("GET", "/itineraries?origin=Paris&destination=London&departure=2025-12-21T05:00"
+                + "&maxLegs=9", null).statusCode());
+    }
+
+    @Test
+    void seatMappedBookingsOverHttp() throws Exception {
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 6, 0);
+        flightService.addFlight(new Flight("FL401", "Paris", "London", departure, departure.plusHours(1),
+                SeatLayout.parse("Y:10-12:ABC_DEF | B=Y/2")));
+
+        HttpResponse<String> booking = send("POST", "/bookings",
+                "customer=Dave&flightNumber=FL401&seats=2&fareClass=B&adjacent=true");
+        assertEquals(201, booking.statusCode(), booking.body());
+        assertTrue(booking.body().contains("\"fareClass\":\"B\",\"seats\":[\"10A\",\"10B\"]"), booking.body());
+        assertEquals(409, send("POST", "/bookings", "customer=Dave&flightNumber=FL401&seats=1&fareClass=B").statusCode());
+        assertEquals(400, send("POST", "/bookings", "customer=Dave&flightNumber=FL201&seats=1&adjacent=true").statusCode());
+    }
+
+    @Test
+    void metricsAreServedInPrometheusFormat() throws Exception {
+        send("POST", "/bookings", "customer=Bob&flightNumber=FL201&seats=5");
+
+        HttpResponse<String> metrics = send("GET", "/metrics", null);
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        assertTrue(metrics.body().contains("flight_booking_seconds_count{outcome=\"sold_out\"} 1"), metrics.body());
+    }
+
+    @Test
+    void completionsOverHttp() throws Exception {
+        flightService.addFlight(new Flight("FL202", "Los Angeles", LocalDateTime.of(2025, 12, 21, 9, 0), 9));
+        flightService.bookFlight("Erin", "FL201", 1);
+
+        HttpResponse<String> destinations = send("GET", "/completions/destinations?prefix=LO&limit=5", null);
+        assertEquals(200, destinations.statusCode(), destinations.body());
+        assertEquals("[{\"name\":\"Los Angeles\",\"count\":9},{\"name\":\"London\",\"count\":2}]",
+                destinations.body());
+        assertEquals("[{\"name\":\"Erin\",\"count\":1}]",
+                send("GET", "/completions/customers?prefix=e", null).body());
+        assertEquals(400, send("GET", "/completions/customers?prefix=e&limit=0", null).statusCode());
+        assertEquals(404, send("GET", "/completions/flights?prefix=e", null).statusCode());
+    }
+
+    @Test
+    void oversizedBodyIsRefusedAndInternalErrorsStayOnTheServer() throws Exception {
+        String big = "customer=" + "a".repeat(FlightHttpServer.MAX_BODY_BYTES) + "&flightNumber=FL201&seats=1";
+        HttpResponse<String> tooLarge = send("POST", "/bookings", big);
+        assertEquals(413, tooLarge.statusCode(), tooLarge.body());
+        assertEquals(3, flightService.getAllFlights().get(0).getAvailableSeats());
+
+        FlightService failing = new FlightService() {
+            @Override
+            public List<Flight> searchFlights(String destination, LocalDateTime date) {
+                throw new IllegalStateException("secret inventory detail");
+            }
+        };
+        FlightHttpServer failingServer = new FlightHttpServer(failing, 0);
+        failingServer.start();
+        try {
+            HttpResponse<String> failed = client.send(HttpRequest.newBuilder(URI.create("http://localhost:"
+                    + failingServer.getPort() + "/flights?destination=London&date=2025-12-21")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(500, failed.statusCode());
+            assertEquals("{\"error\":\"Internal error\"}", failed.body());
+        } finally {
+            failingServer.stop();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightPersistenceTest {
+
+    @TempDir
+    Path dir;
+
+    private static Flight flight(String number, int seats) {
+        return new Flight(number, "London", LocalDateTime.of(2025, 12, 21, 11, 0), seats);
+    }
+
+    @Test
+    void reopen_replaysJournalIntoFreshService() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL200", 8));
+            service.addFlight(flight("FL201", 4));
+            service.bookFlight("Alice", "FL200", 3);
+            service.bookFlights(List.of(
+                    new BookingRequest("Bob", "FL200", 1),
+                    new BookingRequest("Bob", "FL201", 2)));
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(4, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+            assertEquals(2, service.findFlight("FL201").orElseThrow().getAvailableSeats());
+            assertEquals(3, service.getAllReservations().size());
+            assertEquals(2, service.findReservationsByCustomer("bob").size());
+        }
+    }
+
+    @Test
+    void addFlights_bulkLoadIsJournaled() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlights(List.of(flight("FL200", 8), flight("FL201", 4), flight("FL202", 2)));
+            service.bookFlight("Alice", "FL202", 2);
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(3, service.getAllFlights().size());
+            assertEquals(0, service.findFlight("FL202").orElseThrow().getAvailableSeats());
+        }
+    }
+
+    // a crash while the batch is being written loses all of it, never just its tail
+    @Test
+    void addFlights_tornBatchIsNotReplayedInPart() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL100", 8));
+            service.addFlights(List.of(flight("FL200", 8), flight("FL201", 4), flight("FL202", 2)));
+        }
+
+        Path journal;
+        try (Stream<Path> files = Files.list(dir)) {
+            journal = files.filter(p -> p.getFileName().toString().startsWith("journal-")).findFirst().orElseThrow();
+        }
+        // cut inside the last flight of the batch, so the first two are complete on disk
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(List.of("FL100"), service.getAllFlights().stream().map(Flight::getFlightNumber).toList());
+            service.addFlights(List.of(flight("FL200", 8), flight("FL201", 4)));
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            assertEquals(3, persistence.getFlightService().getAllFlights().size());
+        }
+    }
+
+    @Test
+    void routes_surviveJournalAndSnapshot() throws IOException {
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 7, 0);
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(new Flight("FL100", "Paris", "London", departure, departure.plusMinutes(75), 4));
+            service.addFlight(flight("FL200", 8));
+            persistence.snapshot();
+            service.addFlight(new Flight("FL101", "London", "Dublin", departure.plusHours(2), departure.plusHours(3), 4));
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            Flight fromSnapshot = service.findFlight("FL100").orElseThrow();
+            assertEquals("Paris", fromSnapshot.getOrigin());
+            assertEquals(departure.plusMinutes(75), fromSnapshot.getArrivalTime());
+            assertFalse(service.findFlight("FL200").orElseThrow().hasRoute());
+            assertEquals("London", service.findFlight("FL101").orElseThrow().getOrigin());
+            assertEquals(1, service.searchItineraries("Paris", "Dublin", departure, 2, Duration.ofMinutes(30)).size());
+        }
+    }
+
+    @Test
+    void seatMaps_surviveJournalAndSnapshot() throws IOException {
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 7, 0);
+        SeatLayout layout = SeatLayout.parse("J:1-2:AC_DF; Y:10-13:ABC_DEF | B=Y/4");
+        List<String> snapshotted;
+        List<String> journaled;
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(new Flight("FL100", "Paris", "London", departure, departure.plusMinutes(75), layout));
+            snapshotted = service.bookSeats("Alice", "FL100", "B", 3, true).getSeatNumbers();
+            service.holdSeats("Bob", "FL100", 2, Duration.ofMinutes(10));
+            persistence.snapshot();
+            journaled = service.bookFlights(List.of(new BookingRequest("Carol", "FL100", 2))).get(0).getSeatNumbers();
+            service.cancelReservation(service.bookSeats("Dave", "FL100", "J", 2, false).getId());
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            Flight flight = service.findFlight("FL100").orElseThrow();
+            assertEquals(layout, flight.getSeatLayout());
+            assertEquals(27, flight.getAvailableSeats());
+            assertEquals(1, flight.getAvailableSeats("B"));
+            Reservation alice = service.findReservationsByCustomer("Alice").get(0);
+            assertEquals("B", alice.getFareClass());
+            assertEquals(snapshotted, alice.getSeatNumbers());
+            assertEquals(journaled, service.findReservationsByCustomer("Carol").get(0).getSeatNumbers());
+            for (String seat : snapshotted) {
+                assertFalse(flight.isSeatFree(seat), seat);
+            }
+            service.cancelReservation(alice.getId());
+            assertEquals(4, flight.getAvailableSeats("B"));
+            assertEquals(30, flight.getAvailableSeats());
+        }
+    }
+
+    // state = snapshot + journal written after it, older journals are gone
+    @Test
+    void snapshot_compactsJournalAndKeepsLaterBookings() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.EVERY_WRITE)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL200", 8));
+            service.bookFlight("Alice", "FL200", 3);
+            persistence.snapshot();
+            service.bookFlight("Carol", "FL200", 2);
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count(), "one snapshot and one journal should remain");
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.EVERY_WRITE)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(3, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+            assertEquals(2, service.getAllReservations().size());
+            assertEquals(1, service.findReservationsByCustomer("carol").size());
+        }
+    }
+
+    // a record cut off by a crash is dropped, everything before it survives
+    @Test
+    void reopen_ignoresTornRecordAtEndOfJournal() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            persistence.getFlightService().addFlight(flight("FL200", 8));
+            persistence.getFlightService().bookFlight("Alice", "FL200", 3);
+        }
+
+        Path journal;
+        try (Stream<Path> files = Files.list(dir)) {
+            journal = files.filter(p -> p.getFileName().toString().startsWith("journal-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(5, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+            service.bookFlight("Bob", "FL200", 1);
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            assertEquals(4, persistence.getFlightService().findFlight("FL200").orElseThrow().getAvailableSeats());
+        }
+    }
+
+    @Test
+    void failedBooking_isNotJournaled() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.NONE)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL200", 2));
+            assertThrows(IllegalArgumentException.class, () -> service.bookFlight("Alice", "FL200", 3));
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.NONE)) {
+            assertEquals(2, persistence.getFlightService().findFlight("FL200").orElseThrow().getAvailableSeats());
+            assertTrue(persistence.getFlightService().getAllReservations().isEmpty());
+        }
+    }
+
+    // a change whose record cannot be written is rolled back and never shows up in memory
+    @Test
+    void journalFailure_leavesNoTraceOfTheChange() throws IOException {
+        FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.NONE);
+        FlightService service = persistence.getFlightService();
+        service.addFlight(flight("FL200", 8));
+        Reservation kept = service.bookFlight("Alice", "FL200", 2);
+        SeatHold hold = service.holdSeats("Bob", "FL200", 3, Duration.ofMinutes(10));
+        persistence.close();
+
+        assertThrows(IllegalStateException.class, () -> service.bookFlight("Carol", "FL200", 1));
+        assertThrows(IllegalStateException.class, () -> service.bookFlights(List.of(
+                new BookingRequest("Carol", "FL200", 1))));
+        assertThrows(IllegalStateException.class, () -> service.cancelReservation(kept.getId()));
+        assertThrows(IllegalStateException.class, () -> service.confirmHold(hold.getId()));
+
+        // the hold is used up and its seats are back on sale, nothing else changed
+        assertFalse(hold.isActive());
+        assertEquals(6, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+        assertEquals(List.of(kept), service.getAllReservations());
+        assertEquals(List.of(kept), service.findReservationsByCustomer("alice"));
+        assertTrue(service.findReservationsByCustomer("carol").isEmpty());
+        assertEquals(6, service.completeDestinations("lon", 1).get(0).getCount());
+        assertTrue(service.completeCustomers("car", 5).isEmpty());
+        assertEquals(1, service.getMetrics().getBookFailed().getCount());
+    }
+
+    // holds are not durable: only their confirmation is journaled, and snapshots count held seats as free
+    @Test
+    void seatHolds_surviveRestartOnlyOnceConfirmed() throws IOException {
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL200", 8));
+            SeatHold confirmed = service.holdSeats("Alice", "FL200", 2, Duration.ofMinutes(10));
+            service.confirmHold(confirmed.getId());
+            service.holdSeats("Bob", "FL200", 3, Duration.ofMinutes(10));
+            persistence.snapshot();
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(6, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+            assertEquals(1, service.getAllReservations().size());
+        }
+    }
+
+    @Test
+    void cancellations_andReservationIds_surviveRestart() throws IOException {
+        long keptId;
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            service.addFlight(flight("FL200", 8));
+            keptId = service.bookFlight("Alice", "FL200", 2).getId();
+            persistence.snapshot();
+            long cancelledId = service.bookFlight("Bob", "FL200", 3).getId();
+            service.cancelReservation(cancelledId);
+        }
+
+        try (FlightPersistence persistence = FlightPersistence.open(dir, FsyncPolicy.GROUP_COMMIT)) {
+            FlightService service = persistence.getFlightService();
+            assertEquals(6, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+            assertEquals("Alice", service.findReservation(keptId).orElseThrow().getCustomerName());
+            assertEquals(1, service.getAllReservations().size());
+            // ids handed out after a restart never clash with restored ones
+            assertTrue(service.bookFlight("Carol", "FL200", 1).getId() > keptId);
+            service.cancelReservation(keptId);
+            assertEquals(7, service.findFlight("FL200").orElseThrow().getAvailableSeats());
+        }
+    }
+}
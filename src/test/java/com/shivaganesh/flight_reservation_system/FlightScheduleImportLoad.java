@@ -0,0 +1,61 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//Writes a synthetic schedule CSV, imports it with FlightScheduleImporter and prints rows/s and peak heap,
+//then adds the same flights one addFlight at a time for comparison. Not a JMH benchmark, run it through
+//the benchmark profile with -Dbenchmark.main.
+//
+//  args: [rows=1000000] [destinations=500]
+
+public class FlightScheduleImportLoad {
+
+    private static final DateTimeFormatter DEPARTURE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int destinations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        Path file = Files.createTempFile("schedule", ".csv");
+        try {
+            SplittableRandom random = new SplittableRandom(42);
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("flightNumber,destination,departure,availableSeats\n");
+                for (int i = 0; i < rows; i++) {
+                    out.write("FL" + i + ",City " + random.nextInt(destinations) + ","
+                            + start.plusMinutes(random.nextInt(365 * 24 * 60)).format(DEPARTURE) + ","
+                            + random.nextInt(1, 300) + "\n");
+                }
+            }
+            System.out.printf("%s: %,d MB, %d cores%n", file, Files.size(file) >> 20,
+                    ForkJoinPool.commonPool().getParallelism());
+
+            // first run warms up the JIT
+            FlightScheduleImporter.importCsv(file, new FlightService());
+            System.gc();
+            System.out.println(FlightScheduleImporter.importCsv(file, new FlightService()));
+
+            List<Flight> flights = FlightScheduleImporter.parse(file, ForkJoinPool.commonPool());
+            FlightService oneByOne = new FlightService();
+            long began = System.nanoTime();
+            for (Flight flight : flights) {
+                oneByOne.addFlight(flight);
+            }
+            long nanos = System.nanoTime() - began;
+            System.out.printf("addFlight one at a time (already parsed): %,d ms, %,.0f rows/s%n",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), rows * 1e9 / nanos);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
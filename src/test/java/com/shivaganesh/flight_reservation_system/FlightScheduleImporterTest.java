@@ -0,0 +1,111 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightScheduleImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importCsv_loadsFlightsAndMakesThemSearchable() throws IOException {
+        Path file = dir.resolve("schedule.csv");
+        Files.writeString(file, "flightNumber,destination,departure,availableSeats\r\n"
+                + "FL101,New York,2025-12-20 15:30,5\r\n"
+                + "\r\n"
+                + "FL100,New York,2025-12-20T09:00,10\r\n"
+                + "FL200,São Paulo,2025-12-21 11:00,0");
+        FlightService flightService = new FlightService();
+        flightService.addFlight(new Flight("FL099", "New York", LocalDateTime.of(2025, 12, 20, 12, 0), 3));
+
+        ImportReport report = FlightScheduleImporter.importCsv(file, flightService);
+
+        assertEquals(3, report.getRows());
+        assertTrue(report.getPeakHeapBytes() > 0);
+        assertEquals(List.of("FL100", "FL099", "FL101"), flightService.searchFlights("new york",
+                LocalDateTime.of(2025, 12, 20, 0, 0)).stream().map(Flight::getFlightNumber).toList());
+        Flight saoPaulo = flightService.findFlight("FL200").orElseThrow();
+        assertEquals("São Paulo", saoPaulo.getDestination());
+        assertEquals(0, saoPaulo.getAvailableSeats());
+    }
+
+    @Test
+    void importCsv_readsRoutedLinesNextToPlainOnes() throws IOException {
+        Path file = dir.resolve("routes.csv");
+        Files.writeString(file, "FL100,Paris,London,2025-12-20 09:00,2025-12-20 10:15,10\n"
+                + "FL101,London,2025-12-20 15:30,5\n");
+        FlightService flightService = new FlightService();
+
+        FlightScheduleImporter.importCsv(file, flightService);
+
+        Flight routed = flightService.findFlight("FL100").orElseThrow();
+        assertEquals("Paris", routed.getOrigin());
+        assertEquals(LocalDateTime.of(2025, 12, 20, 10, 15), routed.getArrivalTime());
+        assertFalse(flightService.findFlight("FL101").orElseThrow().hasRoute());
+
+        Files.writeString(file, "FL200,Paris,London,2025-12-20 09:00,10\n");
+        assertThrows(IllegalArgumentException.class, () -> FlightScheduleImporter.importCsv(file, flightService));
+        Files.writeString(file, "FL200,Paris,London,2025-12-20 09:00,2025-12-20 08:00,10\n");
+        assertThrows(IllegalArgumentException.class, () -> FlightScheduleImporter.importCsv(file, flightService));
+    }
+
+    // several mapped chunks parsed in parallel: no row lost or doubled at the chunk edges, file order kept
+    @Test
+    void parse_largeFileAcrossChunksKeepsEveryRowInOrder() throws IOException {
+        Path file = dir.resolve("big.csv");
+        int rows = 200_000;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                out.write("FL" + i + ",Destination " + (i % 50) + ",2025-12-" + (10 + i % 20) + " 08:"
+                        + (10 + i % 50) + "," + (i % 300) + "\n");
+            }
+        }
+        assertTrue(Files.size(file) > 8 << 20, "test needs more than two chunks");
+
+        List<Flight> flights = FlightScheduleImporter.parse(file, new ForkJoinPool(4));
+
+        assertEquals(rows, flights.size());
+        for (int i = 0; i < rows; i += 997) {
+            Flight f = flights.get(i);
+            assertEquals("FL" + i, f.getFlightNumber());
+            assertEquals("Destination " + (i % 50), f.getDestination());
+            assertEquals(LocalDateTime.of(2025, 12, 10 + i % 20, 8, 10 + i % 50), f.getDepartureTime());
+            assertEquals(i % 300, f.getAvailableSeats());
+        }
+        assertEquals("FL" + (rows - 1), flights.get(rows - 1).getFlightNumber());
+    }
+
+    @Test
+    void importCsv_badRowOrDuplicateAddsNothing() throws IOException {
+        FlightService flightService = new FlightService();
+        flightService.addFlight(new Flight("FL100", "London", LocalDateTime.of(2025, 12, 20, 9, 0), 3));
+
+        Path badDate = dir.resolve("bad-date.csv");
+        Files.writeString(badDate, "FL101,London,2025-12-20 10:00,4\nFL102,London,2025-13-20 10:00,4\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FlightScheduleImporter.importCsv(badDate, flightService));
+        assertTrue(e.getMessage().contains("byte 32"), e.getMessage());
+
+        Path badSeats = dir.resolve("bad-seats.csv");
+        Files.writeString(badSeats, "FL101,London,2025-12-20 10:00,four\n");
+        assertThrows(IllegalArgumentException.class, () -> FlightScheduleImporter.importCsv(badSeats, flightService));
+
+        Path duplicate = dir.resolve("duplicate.csv");
+        Files.writeString(duplicate, "FL101,London,2025-12-20 10:00,4\nFL100,London,2025-12-20 11:00,4\n");
+        assertThrows(IllegalArgumentException.class, () -> FlightScheduleImporter.importCsv(duplicate, flightService));
+
+        assertEquals(1, flightService.getAllFlights().size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.shivaganesh.flight_reservation_system;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//Load generator for FlightHttpServer: N concurrent clients share one server and one FlightService,
+//each sending a mix of 80% searches and 20% single-seat bookings. Prints throughput and latency
+//percentiles. Not a JMH benchmark, run it through the benchmark profile with -Dbenchmark.main.
+//
+//  args: [clients=32] [requests=20000] [flights=10000]
+
+public class FlightServerLoadClient {
+
+    private static final int DESTINATIONS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int flights = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        FlightService flightService = BenchmarkSchedules.schedule(flights, DESTINATIONS, "uniform", 1_000_000);
+        // as FlightReservationApp --server does
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        FlightHttpServer server = new FlightHttpServer(flightService, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+
+        try {
+            // warm up the server and the JIT before measuring
+            run(http, base, clients, Math.max(requests / 5, clients), flights);
+            long[] latencies = new long[requests];
+            long start = System.nanoTime();
+            int errors = run(http, base, clients, requests, flights, latencies);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("clients=%d requests=%d flights=%d errors=%d%n", clients, requests, flights, errors);
+            System.out.printf("throughput: %.0f requests/s%n", requests / (elapsed / 1e9));
+            System.out.printf("latency: p50=%.2f ms  p99=%.2f ms  p99.9=%.2f ms  max=%.2f ms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e6);
+        } finally {
+            server.stop();
+            System.exit(0);
+        }
+    }
+
+    private static void run(HttpClient http, String base, int clients, int requests, int flights) throws Exception {
+        run(http, base, clients, requests, flights, new long[requests]);
+    }
+
+    // each client fills its own stripe of latencies, so no synchronization is needed while measuring
+    private static int run(HttpClient http, String base, int clients, int requests, int flights,
+                           long[] latencies) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            futures.add(pool.submit(() -> {
+                start.await();
+                SplittableRandom random = new SplittableRandom(client);
+                int errors = 0;
+                for (int i = client; i < requests; i += clients) {
+                    HttpRequest request = random.nextInt(5) == 0
+                            ? booking(base, client, random.nextInt(flights))
+                            : search(base, random);
+                    long sent = System.nanoTime();
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies[i] = System.nanoTime() - sent;
+                    if (response.statusCode() >= 400) {
+                        errors++;
+                    }
+                }
+                return errors;
+            }));
+        }
+        start.countDown();
+        int errors = 0;
+        for (Future<Integer> future : futures) {
+            errors += future.get(10, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return errors;
+    }
+
+    private static HttpRequest search(String base, SplittableRandom random) {
+        String destination = BenchmarkSchedules.destination(random.nextInt(DESTINATIONS)).replace(' ', '+');
+        LocalDate date = BenchmarkSchedules.FIRST_DEPARTURE.toLocalDate().plusDays(random.nextInt(BenchmarkSchedules.DAYS));
+        return HttpRequest.newBuilder(URI.create(base + "/flights?destination=" + destination + "&date=" + date)).GET().build();
+    }
+
+    private static HttpRequest booking(String base, int client, int flight) {
+        String form = "customer=Client+" + client + "&flightNumber=" + BenchmarkSchedules.flightNumber(flight) + "&seats=1";
+        return HttpRequest.newBuilder(URI.create(base + "/bookings"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,174 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+//Hot paths of FlightService over a synthetic year of flights.
+//
+//  inventorySize   flights in the service (1k .. 10M; 10M needs the 6g heap set below)
+//  reservations    reservations booked before measuring, spread over CUSTOMERS customers
+//  skew            how destinations (and customers) are picked: "uniform" or "zipf"
+//
+//Run with the GC profiler (the benchmark profile does by default) to get alloc rate per operation:
+//  mvn -Pbenchmark test-compile exec:exec -Dbenchmark=FlightServiceBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class FlightServiceBenchmark {
+
+    private static final int DESTINATIONS = 200;
+    private static final int CUSTOMERS = 10_000;
+    private static final int QUERIES = 4096;
+    // flexible search: any of FLEX_DESTINATIONS destinations, +-FLEX_DAYS days, first FLEX_LIMIT results
+    private static final int FLEX_DESTINATIONS = 5;
+    private static final int FLEX_DAYS = 3;
+    private static final int FLEX_LIMIT = 20;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int inventorySize;
+
+    @Param({"0", "1000000"})
+    public int reservations;
+
+    @Param({"uniform", "zipf"})
+    public String skew;
+
+    private FlightService flightService;
+    private String[] destinations;
+    private LocalDateTime[] dates;
+    private String[] flightNumbers;
+    private String[] customers;
+    private List<List<String>> flexibleDestinations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        flightService = BenchmarkSchedules.schedule(inventorySize, DESTINATIONS, skew, Integer.MAX_VALUE / 2);
+
+        BenchmarkSchedules.DestinationSampler customerSampler = new BenchmarkSchedules.DestinationSampler(CUSTOMERS, skew);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < reservations; i++) {
+            flightService.bookFlight(customer(customerSampler.next(random)),
+                    BenchmarkSchedules.flightNumber(random.nextInt(inventorySize)), 1);
+        }
+
+        // queries are generated up front so the benchmarks measure the service, not the data generator
+        BenchmarkSchedules.DestinationSampler destinationSampler =
+                new BenchmarkSchedules.DestinationSampler(DESTINATIONS, skew);
+        destinations = new String[QUERIES];
+        dates = new LocalDateTime[QUERIES];
+        flightNumbers = new String[QUERIES];
+        customers = new String[QUERIES];
+        flexibleDestinations = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            destinations[i] = BenchmarkSchedules.destination(destinationSampler.next(random));
+            dates[i] = BenchmarkSchedules.FIRST_DEPARTURE.plusDays(random.nextInt(BenchmarkSchedules.DAYS));
+            flightNumbers[i] = BenchmarkSchedules.flightNumber(random.nextInt(inventorySize));
+            customers[i] = customer(customerSampler.next(random));
+            List<String> flexible = new ArrayList<>(FLEX_DESTINATIONS);
+            for (int d = 0; d < FLEX_DESTINATIONS; d++) {
+                flexible.add(BenchmarkSchedules.destination(destinationSampler.next(random)));
+            }
+            flexibleDestinations.add(flexible);
+        }
+    }
+
+    private static String customer(int i) {
+        return "Customer " + i;
+    }
+
+    // each benchmark thread walks the query arrays from its own random offset
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = new SplittableRandom().nextInt(QUERIES);
+        // reused by searchFlightsInto, so only the search itself can allocate
+        private final List<Flight> buffer = new ArrayList<>(1024);
+        private final Consumer<Flight> sink = buffer::add;
+
+        int next() {
+            next = (next + 1) & (QUERIES - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public List<Flight> searchFlights(Cursor cursor) {
+        int i = cursor.next();
+        return flightService.searchFlights(destinations[i], dates[i]);
+    }
+
+    // the consumer variant: should report ~0 B/op in gc.alloc.rate.norm however many flights it scans
+    @Benchmark
+    public int searchFlightsInto(Cursor cursor) {
+        int i = cursor.next();
+        cursor.buffer.clear();
+        return flightService.searchFlights(destinations[i], dates[i], cursor.sink);
+    }
+
+    @Benchmark
+    public List<Flight> flexibleSearch(Cursor cursor) {
+        int i = cursor.next();
+        return flightService.searchFlights(flexibleDestinations.get(i),
+                dates[i].minusDays(FLEX_DAYS), dates[i].plusDays(FLEX_DAYS + 1)).limit(FLEX_LIMIT).toList();
+    }
+
+    // the same query answered the old way: one exact-date search per destination and day, then sort
+    @Benchmark
+    public List<Flight> flexibleSearchPerDay(Cursor cursor) {
+        int i = cursor.next();
+        List<Flight> all = new ArrayList<>();
+        for (String destination : flexibleDestinations.get(i)) {
+            for (int day = -FLEX_DAYS; day <= FLEX_DAYS; day++) {
+                all.addAll(flightService.searchFlights(destination, dates[i].plusDays(day)));
+            }
+        }
+        all.sort(Comparator.comparing(Flight::getDepartureTime));
+        return all.size() > FLEX_LIMIT ? all.subList(0, FLEX_LIMIT) : all;
+    }
+
+    @Benchmark
+    public Optional<Flight> findFlight(Cursor cursor) {
+        return flightService.findFlight(flightNumbers[cursor.next()]);
+    }
+
+    @Benchmark
+    public Reservation bookFlight(Cursor cursor) {
+        int i = cursor.next();
+        return flightService.bookFlight(customers[i], flightNumbers[i], 1);
+    }
+
+    @Benchmark
+    public List<Reservation> findReservationsByCustomer(Cursor cursor) {
+        return flightService.findReservationsByCustomer(customers[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Reservation concurrentBookFlight(Cursor cursor) {
+        int i = cursor.next();
+        return flightService.bookFlight(customers[i], flightNumbers[i], 1);
+    }
+}
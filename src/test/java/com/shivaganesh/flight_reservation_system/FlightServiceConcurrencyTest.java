@@ -0,0 +1,248 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightServiceConcurrencyTest {
+
+    private static final int THREADS = 48;
+    private static final int BOOKINGS_PER_THREAD = 2_000;
+    private static final int HOT_SEATS = 150;
+    private static final int COLD_FLIGHTS = 64;
+    private static final int COLD_SEATS = 400;
+
+    // many threads fight over one hot flight while also spreading bookings over cold ones
+    @Test
+    void bookFlight_neverOversellsUnderConcurrentLoad() throws Exception {
+        FlightService flightService = new FlightService();
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 20, 9, 0);
+
+        Flight hot = new Flight("HOT1", "London", departure, HOT_SEATS);
+        flightService.addFlight(hot);
+
+        List<Flight> cold = new ArrayList<>();
+        for (int i = 0; i < COLD_FLIGHTS; i++) {
+            Flight f = new Flight("COLD" + i, "Destination " + (i % 8), departure.plusMinutes(i), COLD_SEATS);
+            flightService.addFlight(f);
+            cold.add(f);
+        }
+
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            String customer = "Customer " + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    Flight target = random.nextBoolean() ? hot : cold.get(random.nextInt(COLD_FLIGHTS));
+                    try {
+                        flightService.bookFlight(customer, target, 1 + random.nextInt(3));
+                    } catch (IllegalArgumentException e) {
+                        assertTrue(e.getMessage().contains("Not enough seats"), e.getMessage());
+                        soldOut.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        Map<Flight, Integer> seatsSold = new HashMap<>();
+        for (Reservation r : flightService.getAllReservations()) {
+            seatsSold.merge(r.getFlight(), r.getSeatsBooked(), Integer::sum);
+        }
+
+        // the hot flight is heavily oversubscribed, so it has to end up (almost) full but never over
+        int hotSold = seatsSold.getOrDefault(hot, 0);
+        assertTrue(hotSold <= HOT_SEATS);
+        assertTrue(hotSold > HOT_SEATS - 3, "hot flight should be close to sold out, sold " + hotSold);
+        assertEquals(HOT_SEATS - hotSold, hot.getAvailableSeats());
+        assertTrue(soldOut.get() > 0);
+
+        for (Flight f : cold) {
+            int sold = seatsSold.getOrDefault(f, 0);
+            assertTrue(sold <= COLD_SEATS);
+            assertEquals(COLD_SEATS - sold, f.getAvailableSeats());
+        }
+    }
+
+    // bookings and cancellations racing on one flight: whatever is still booked plus what is left
+    // always adds up to the capacity, and every reservation is cancelled at most once
+    @Test
+    void cancelReservation_staysConsistentWithConcurrentBookings() throws Exception {
+        FlightService flightService = new FlightService();
+        Flight hot = new Flight("HOT1", "London", LocalDateTime.of(2025, 12, 20, 9, 0), HOT_SEATS);
+        flightService.addFlight(hot);
+
+        AtomicInteger cancelled = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            String customer = "Customer " + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    try {
+                        Reservation r = flightService.bookFlight(customer, hot, 1 + random.nextInt(3));
+                        if (random.nextInt(3) > 0) {
+                            flightService.cancelReservation(r.getId());
+                            cancelled.incrementAndGet();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        assertTrue(e.getMessage().contains("Not enough seats"), e.getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        int stillBooked = flightService.getAllReservations().stream().mapToInt(Reservation::getSeatsBooked).sum();
+        assertTrue(cancelled.get() > 0);
+        assertEquals(HOT_SEATS, stillBooked + hot.getAvailableSeats());
+    }
+
+    // searches racing with bookings and cancellations that sell flights out and bring them back:
+    // once things settle, the cached result has to match a fresh search of the inventory
+    @Test
+    void searchCache_neverKeepsStaleResultsUnderConcurrentBookings() throws Exception {
+        HeapFlightInventory inventory = new HeapFlightInventory();
+        FlightService flightService = new FlightService(inventory, 16);
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 20, 9, 0);
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Flight f = new Flight("SC" + i, "London", departure.plusMinutes(i), 2);
+            flightService.addFlight(f);
+            flights.add(f);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean searcher = t % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    if (searcher) {
+                        flightService.searchFlights("London", departure);
+                        continue;
+                    }
+                    try {
+                        Reservation r = flightService.bookFlight("Customer", flights.get(random.nextInt(flights.size())), 2);
+                        flightService.cancelReservation(r.getId());
+                    } catch (SeatsUnavailableException e) {
+                        // another thread holds that flight right now
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(inventory.searchAvailable("London", departure.toLocalDate()),
+                flightService.searchFlights("London", departure));
+        assertEquals(flights.size(), flightService.searchFlights("London", departure).size());
+    }
+
+    // readers take (seats, version) in one read while bookings and cancellations storm the flight:
+    // versions only move forward, each version has exactly one seat count, and every change bumps it
+    @Test
+    void seatState_readersSeeConsistentVersionedSnapshots() throws Exception {
+        FlightService flightService = new FlightService();
+        Flight hot = new Flight("HOT1", "London", LocalDateTime.of(2025, 12, 20, 9, 0), 10);
+        flightService.addFlight(hot);
+
+        int writers = 4;
+        int cyclesPerWriter = 5_000;
+        AtomicInteger changes = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < cyclesPerWriter; i++) {
+                    try {
+                        Reservation r = flightService.bookFlight("Customer", "HOT1", 3);
+                        flightService.cancelReservation(r.getId());
+                        changes.addAndGet(2);
+                    } catch (SeatsUnavailableException e) {
+                        // sold out for the moment
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<Map<Integer, Integer>> reader = pool.submit(() -> {
+            start.await();
+            Map<Integer, Integer> seatsByVersion = new HashMap<>();
+            int lastVersion = -1;
+            while (!done.get()) {
+                long state = hot.seatState();
+                int version = Flight.versionOf(state);
+                int seats = Flight.seatsOf(state);
+                assertTrue(version >= lastVersion, "version went back from " + lastVersion + " to " + version);
+                assertTrue(seats >= 0 && seats <= 10 && (10 - seats) % 3 == 0, "torn seat count " + seats);
+                Integer seen = seatsByVersion.putIfAbsent(version, seats);
+                assertTrue(seen == null || seen == seats, "version " + version + " had two seat counts");
+                lastVersion = version;
+                Thread.onSpinWait();
+            }
+            return seatsByVersion;
+        });
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        assertFalse(reader.get(60, TimeUnit.SECONDS).isEmpty());
+        pool.shutdown();
+
+        assertEquals(10, hot.getAvailableSeats());
+        assertEquals(changes.get(), hot.getVersion());
+    }
+}
@@ -3,7 +3,9 @@ package com.shivaganesh.flight_reservation_system;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -99,6 +101,15 @@ class FlightServiceTest {
         assertTrue(charliesReservations.stream()
                 .allMatch(r -> r.getCustomerName().equals("Charlie")));
     }
+
+    @Test
+    void findReservationsByCustomer_ignoresCaseAndSurroundingSpaces() {
+        Reservation first = flightService.bookFlight(" Charlie ", nyFlightMorning, 2);
+        Reservation second = flightService.bookFlight("CHARLIE", nyFlightEvening, 1);
+
+        assertEquals(List.of(first, second), flightService.findReservationsByCustomer("charlie"));
+        assertTrue(flightService.findReservationsByCustomer("Dana").isEmpty());
+    }
     
     // destination with case sensitive
     @Test
@@ -154,5 +165,225 @@ class FlightServiceTest {
                 () -> flightService.bookFlight("Alice", otherFlight, 1));
     }
 
+    // flights added out of order still come back ordered by departure time
+    @Test
+    void searchFlights_returnsFlightsOrderedByDepartureTime() {
+        Flight nyFlightEarly = new Flight(
+                "FL099",
+                "New York",
+                LocalDateTime.of(2025, 12, 20, 6, 15), 4);
+        flightService.addFlight(nyFlightEarly);
+
+        List<Flight> results = flightService.searchFlights("  NEW YORK ", LocalDateTime.of(2025, 12, 20, 0, 0));
+
+        assertEquals(List.of(nyFlightEarly, nyFlightMorning, nyFlightEvening), results);
+    }
+
+    // flights leaving at the same minute keep the order they were added in, one by one or in bulk
+    @Test
+    void searchFlights_keepsInsertionOrderForEqualDepartureTimes() {
+        LocalDateTime nine = LocalDateTime.of(2025, 12, 20, 9, 0);
+        Flight second = new Flight("FL110", "New York", nine, 3);
+        Flight third = new Flight("FL111", "New York", nine, 3);
+        Flight fourth = new Flight("FL112", "New York", nine, 3);
+        flightService.addFlight(second);
+        flightService.addFlights(List.of(third, fourth));
+
+        List<Flight> results = flightService.searchFlights("New York", nine);
+
+        assertEquals(List.of(nyFlightMorning, second, third, fourth, nyFlightEvening), results);
+        assertEquals(results, flightService.searchFlights(List.of("New York"), nine.toLocalDate().atStartOfDay(),
+                nine.plusDays(1)).toList());
+    }
+
+    @Test
+    void findFlight_returnsManagedFlightByNumber() {
+        assertSame(nyFlightMorning, flightService.findFlight("FL100").orElseThrow());
+        assertTrue(flightService.findFlight("XX999").isEmpty());
+    }
+
+    // booking by number (or with an equal copy) always updates the flight the service manages
+    @Test
+    void bookFlight_byFlightNumberUpdatesManagedInstance() {
+        Reservation reservation = flightService.bookFlight("Alice", "FL101", 2);
+
+        assertSame(nyFlightEvening, reservation.getFlight());
+        assertEquals(3, nyFlightEvening.getAvailableSeats());
+
+        Flight copy = new Flight("FL101", "New York", LocalDateTime.of(2025, 12, 20, 15, 30), 5);
+        flightService.bookFlight("Bob", copy, 1);
+
+        assertEquals(2, nyFlightEvening.getAvailableSeats());
+        assertEquals(5, copy.getAvailableSeats());
+    }
+
+    @Test
+    void addFlight_rejectsDuplicateFlightNumber() {
+        Flight duplicate = new Flight("FL100", "Paris", LocalDateTime.of(2025, 12, 22, 8, 0), 3);
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.addFlight(duplicate));
+        assertEquals(3, flightService.getAllFlights().size());
+    }
+
+    @Test
+    void bookFlights_booksWholeBatch() {
+        List<Reservation> booked = flightService.bookFlights(List.of(
+                new BookingRequest("Alice", "FL100", 2),
+                new BookingRequest("Bob", nyFlightMorning, 3),
+                new BookingRequest("Alice", "FL101", 1)));
+
+        assertEquals(3, booked.size());
+        assertEquals(5, nyFlightMorning.getAvailableSeats());
+        assertEquals(4, nyFlightEvening.getAvailableSeats());
+        assertEquals(3, flightService.getAllReservations().size());
+        assertEquals(2, flightService.findReservationsByCustomer("alice").size());
+    }
+
+    // one short flight fails the whole batch and leaves every seat count untouched
+    @Test
+    void bookFlights_rollsBackWhenAnyFlightIsShort() {
+        List<BookingRequest> batch = List.of(
+                new BookingRequest("Alice", "FL100", 4),
+                new BookingRequest("Bob", "FL101", 3),
+                new BookingRequest("Carol", "FL101", 3));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> flightService.bookFlights(batch));
+
+        assertTrue(ex.getMessage().contains("Not enough seats"));
+        assertEquals(10, nyFlightMorning.getAvailableSeats());
+        assertEquals(5, nyFlightEvening.getAvailableSeats());
+        assertTrue(flightService.getAllReservations().isEmpty());
+    }
 
+    @Test
+    void bookFlights_rejectsUnknownFlightBeforeTakingSeats() {
+        List<BookingRequest> batch = List.of(
+                new BookingRequest("Alice", "FL100", 4),
+                new BookingRequest("Bob", "XX999", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlights(batch));
+        assertEquals(10, nyFlightMorning.getAvailableSeats());
+    }
+
+    @Test
+    void cancelReservation_returnsSeatsAndRemovesReservation() {
+        Reservation kept = flightService.bookFlight("Alice", nyFlightMorning, 2);
+        Reservation cancelled = flightService.bookFlight("Alice", nyFlightMorning, 3);
+        assertNotEquals(kept.getId(), cancelled.getId());
+        assertSame(cancelled, flightService.findReservation(cancelled.getId()).orElseThrow());
+
+        assertSame(cancelled, flightService.cancelReservation(cancelled.getId()));
+
+        assertEquals(8, nyFlightMorning.getAvailableSeats());
+        assertTrue(flightService.findReservation(cancelled.getId()).isEmpty());
+        assertEquals(List.of(kept), flightService.findReservationsByCustomer("Alice"));
+        assertEquals(List.of(kept), flightService.getAllReservations());
+        assertThrows(IllegalArgumentException.class, () -> flightService.cancelReservation(cancelled.getId()));
+        assertEquals(8, nyFlightMorning.getAvailableSeats());
+    }
+
+    @Test
+    void searchFlights_rangeMergesDestinationsInDepartureOrder() {
+        Flight londonEarly = new Flight("FL201", "London", LocalDateTime.of(2025, 12, 20, 7, 0), 3);
+        Flight londonSoldOut = new Flight("FL202", "London", LocalDateTime.of(2025, 12, 20, 12, 0), 0);
+        Flight parisLate = new Flight("FL300", "Paris", LocalDateTime.of(2025, 12, 22, 8, 0), 3);
+        flightService.addFlight(londonEarly);
+        flightService.addFlight(londonSoldOut);
+        flightService.addFlight(parisLate);
+
+        List<Flight> results = flightService.searchFlights(List.of("new york", " LONDON ", "London"),
+                        LocalDateTime.of(2025, 12, 20, 0, 0), LocalDateTime.of(2025, 12, 22, 8, 0))
+                .toList();
+
+        assertEquals(List.of("FL201", "FL100", "FL101", "FL200"),
+                results.stream().map(Flight::getFlightNumber).toList());
+    }
+
+    @Test
+    void searchFlights_rangeIsHalfOpenAndLimitStopsEarly() {
+        LocalDateTime morning = nyFlightMorning.getDepartureTime();
+
+        assertEquals(List.of(nyFlightMorning), flightService.searchFlights(List.of("New York"), morning,
+                nyFlightEvening.getDepartureTime()).toList());
+        assertEquals(List.of(nyFlightMorning), flightService.searchFlights(List.of("New York", "London"),
+                morning.minusDays(3), morning.plusDays(4)).limit(1).toList());
+        assertTrue(flightService.searchFlights(List.of("Tokyo"), morning, morning.plusDays(1)).findAny().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.searchFlights(List.of("London"), morning, morning.minusMinutes(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.searchFlights(List.of(), morning, morning.plusDays(1)));
+    }
+
+    @Test
+    void searchFlights_consumerVariantFillsCallersBuffer() {
+        List<Flight> buffer = new ArrayList<>();
+        nyFlightEvening.setAvailableSeats(0);
+
+        int found = flightService.searchFlights(" NEW YORK", LocalDateTime.of(2025, 12, 20, 18, 0), buffer::add);
+
+        assertEquals(1, found);
+        assertEquals(List.of(nyFlightMorning), buffer);
+        assertEquals(0, flightService.searchFlights("Tokyo", LocalDateTime.of(2025, 12, 20, 0, 0), buffer::add));
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.searchFlights(" ", LocalDateTime.of(2025, 12, 20, 0, 0), buffer::add));
+    }
+
+    @Test
+    void getMetrics_countsBookingOutcomesSearchesAndLookups() {
+        flightService.bookFlight("Alice", nyFlightEvening, 5);
+        assertThrows(SeatsUnavailableException.class, () -> flightService.bookFlight("Bob", nyFlightEvening, 1));
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Bob", "XX999", 1));
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight(" ", "FL100", 1));
+        flightService.searchFlights("New York", LocalDateTime.of(2025, 12, 20, 0, 0));
+        flightService.findReservationsByCustomer("Alice");
+
+        FlightMetricsSnapshot metrics = flightService.getMetrics();
+        assertEquals(1, metrics.getBookSucceeded().getCount());
+        assertEquals(1, metrics.getBookSoldOut().getCount());
+        assertEquals(2, metrics.getBookRejected().getCount());
+        assertEquals(1, metrics.getSearch().getCount());
+        assertEquals(1, metrics.getFindReservations().getCount());
+        assertTrue(metrics.getBookSucceeded().getMaxNanos() > 0);
+
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("# TYPE flight_booking_seconds summary"), text);
+        assertTrue(text.contains("flight_booking_seconds_count{outcome=\"sold_out\"} 1"), text);
+        assertTrue(text.contains("flight_booking_seconds_count{outcome=\"rejected\"} 2"), text);
+        assertTrue(text.contains("flight_search_seconds{quantile=\"0.99\"}"), text);
+        assertTrue(text.contains("flight_search_cache_misses_total 1"), text);
+    }
+
+    @Test
+    void completions_followSeatsAndBookings() {
+        flightService.addFlight(new Flight("FL300", "Newark", LocalDateTime.of(2025, 12, 22, 7, 0), 20));
+        assertEquals(List.of("Newark", "New York"), names(flightService.completeDestinations(" new", 5)));
+        assertEquals(15, flightService.completeDestinations("NEW Y", 5).get(0).getCount());
+
+        // booking, holding and cancelling move the seat counts, and with them the order
+        Reservation booked = flightService.bookFlight("Alice", "FL300", 10);
+        SeatHold hold = flightService.holdSeats("alice", "FL100", 1, Duration.ofMinutes(5));
+        flightService.bookFlight("Albert", "FL200", 1);
+        flightService.bookFlight("Albert", "FL200", 1);
+        assertEquals(List.of("New York", "Newark"), names(flightService.completeDestinations("new", 5)));
+        assertEquals(14, flightService.completeDestinations("new york", 1).get(0).getCount());
+        assertEquals(List.of("Albert", "Alice"), names(flightService.completeCustomers("al", 5)));
+
+        flightService.cancelReservation(booked.getId());
+        flightService.releaseHold(hold.getId());
+        assertEquals(List.of("Newark", "New York", "London"), names(flightService.completeDestinations("", 5)));
+        // Alice has nothing booked any more, so she is no longer suggested
+        assertTrue(flightService.completeCustomers("ALI", 5).isEmpty());
+        assertEquals(List.of("Albert"), names(flightService.completeCustomers("al", 5)));
+        assertTrue(flightService.completeDestinations("paris", 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> flightService.completeCustomers("a", 0));
+    }
+
+    private static List<String> names(List<Completion> completions) {
+        List<String> names = new ArrayList<>();
+        for (Completion completion : completions) {
+            names.add(completion.getName());
+        }
+        return names;
+    }
 }
@@ -0,0 +1,124 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Search latency on a hot flight while three threads book and cancel it as fast as they can.
+//
+//quiet / storm: searchFlights for the hot flight's destination and day alone, and next to the booking
+//storm (search cache off, so every search reads the flights' seat state).
+//lockFree / locked: reading one flight's seats and version during a storm of seat changes, with the
+//versioned compare-and-set state Flight uses, against the same counter behind a read-write lock.
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotFlightContentionBenchmark {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2025, 12, 20, 9, 0);
+
+    private FlightService flightService;
+    private Flight hot;
+
+    // the design Flight avoids: readers and writers share one lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int lockedSeats = Integer.MAX_VALUE;
+    private int lockedVersion;
+
+    // a fresh service per iteration keeps the reservation maps small
+    @Setup(Level.Iteration)
+    public void setUp() {
+        flightService = new FlightService(new HeapFlightInventory(), 0);
+        hot = new Flight("HOT1", "London", DEPARTURE, Integer.MAX_VALUE);
+        flightService.addFlight(hot);
+        for (int i = 0; i < 20; i++) {
+            flightService.addFlight(new Flight("LON" + i, "London", DEPARTURE.plusMinutes(i + 1), 100));
+        }
+    }
+
+    @Benchmark
+    @Group("quiet")
+    public List<Flight> searchAlone() {
+        return flightService.searchFlights("London", DEPARTURE);
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(1)
+    public List<Flight> search() {
+        return flightService.searchFlights("London", DEPARTURE);
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(3)
+    public Reservation bookAndCancel() {
+        return flightService.cancelReservation(flightService.bookFlight("Storm", "HOT1", 1).getId());
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public long readLockFree() {
+        return hot.seatState();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public int writeLockFree() {
+        hot.tryReserveSeats(1);
+        return Flight.seatsOf(hot.releaseSeats(1));
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public long readLocked() {
+        lock.readLock().lock();
+        try {
+            return ((long) lockedVersion << 32) | lockedSeats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public int writeLocked() {
+        lock.writeLock().lock();
+        try {
+            lockedSeats--;
+            lockedVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            lockedVersion++;
+            return ++lockedSeats;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//searchItineraries over a year of routed flights, reported as a latency distribution (p50/p99/max).
+//
+//  airports    places in the network; fewer airports means more connections through each one
+//  maxLegs     1 is a plain direct-flight lookup, 3 allows two stops
+//
+//Origins and destinations are Zipf skewed, so a few hubs carry most flights, like real networks.
+//"addFlight" adds one more flight into the built connection index and measures that incremental update.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class ItinerarySearchBenchmark {
+
+    private static final int FLIGHTS = 1_000_000;
+    private static final int SEATS = 100;
+    private static final int QUERIES = 1 << 14;
+    private static final Duration MIN_CONNECTION = Duration.ofMinutes(45);
+
+    @Param({"200", "2000"})
+    public int airports;
+
+    @Param({"1", "3"})
+    public int maxLegs;
+
+    private FlightService flightService;
+    private String[] origins;
+    private String[] destinations;
+    private LocalDateTime[] departures;
+    private int next;
+    private int added;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        flightService = new FlightService();
+        flightService.addFlights(BenchmarkSchedules.routedSchedule(FLIGHTS, airports, "zipf", SEATS));
+
+        SplittableRandom random = new SplittableRandom(11);
+        origins = new String[QUERIES];
+        destinations = new String[QUERIES];
+        departures = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int origin = random.nextInt(airports);
+            int destination = (origin + 1 + random.nextInt(airports - 1)) % airports;
+            origins[i] = BenchmarkSchedules.destination(origin);
+            destinations[i] = BenchmarkSchedules.destination(destination);
+            departures[i] = BenchmarkSchedules.FIRST_DEPARTURE.plusMinutes(random.nextInt(BenchmarkSchedules.DAYS * 24 * 60));
+        }
+
+        long start = System.nanoTime();
+        flightService.searchItineraries(origins[0], destinations[0], departures[0], maxLegs, MIN_CONNECTION);
+        System.out.printf("%nconnection index over %,d flights built in %,d ms%n", FLIGHTS,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Benchmark
+    public List<Itinerary> search() {
+        int i = next++ & (QUERIES - 1);
+        return flightService.searchItineraries(origins[i], destinations[i], departures[i], maxLegs, MIN_CONNECTION);
+    }
+
+    @Benchmark
+    public void addFlight() {
+        int i = added++;
+        LocalDateTime departure = departures[i & (QUERIES - 1)];
+        flightService.addFlight(new Flight("ADD" + i, origins[i & (QUERIES - 1)], destinations[i & (QUERIES - 1)],
+                departure, departure.plusHours(2), SEATS));
+    }
+}
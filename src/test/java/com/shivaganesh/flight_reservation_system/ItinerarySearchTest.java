@@ -0,0 +1,121 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItinerarySearchTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 20, 0, 0);
+
+    private static Flight leg(String number, String origin, String destination, int departHour, int departMinute,
+                              int arriveHour, int arriveMinute, int seats) {
+        return new Flight(number, origin, destination, DAY.plusHours(departHour).plusMinutes(departMinute),
+                DAY.plusHours(arriveHour).plusMinutes(arriveMinute), seats);
+    }
+
+    private static List<String> numbers(Itinerary itinerary) {
+        return itinerary.getLegs().stream().map(Flight::getFlightNumber).toList();
+    }
+
+    private FlightService schedule() {
+        FlightService service = new FlightService();
+        service.addFlight(leg("DIR1", "Paris", "London", 16, 0, 18, 0, 5));
+        service.addFlight(leg("PA1", "Paris", "Brussels", 8, 0, 9, 0, 5));
+        service.addFlight(leg("BR1", "Brussels", "London", 10, 0, 11, 0, 5));
+        // too tight to catch from PA1 with a 45 minute connection, lands earlier than BR1
+        service.addFlight(leg("BR0", "Brussels", "London", 9, 15, 10, 0, 5));
+        service.addFlight(leg("PA2", "Paris", "Amsterdam", 6, 0, 7, 0, 5));
+        service.addFlight(leg("AM1", "Amsterdam", "Brussels", 7, 30, 8, 15, 5));
+        service.addFlight(leg("BR2", "Brussels", "London", 8, 45, 9, 45, 5));
+        // a flight without a route is never part of an itinerary
+        service.addFlight(new Flight("OLD1", "London", DAY.plusHours(7), 5));
+        return service;
+    }
+
+    @Test
+    void searchItineraries_returnsFastestItineraryPerNumberOfLegs() {
+        FlightService service = schedule();
+
+        List<Itinerary> found = service.searchItineraries("paris", "LONDON", DAY, 3, Duration.ofMinutes(30));
+
+        assertEquals(3, found.size(), found::toString);
+        assertEquals(List.of("DIR1"), numbers(found.get(0)));
+        assertEquals(List.of("PA1", "BR1"), numbers(found.get(1)));
+        assertEquals(List.of("PA2", "AM1", "BR2"), numbers(found.get(2)));
+        assertEquals(2, found.get(2).getStops());
+        assertEquals(DAY.plusHours(9).plusMinutes(45), found.get(2).getArrivalTime());
+        assertEquals(Duration.ofMinutes(225), found.get(2).getDuration());
+    }
+
+    @Test
+    void searchItineraries_respectsMinConnectionMaxLegsAndDeparture() {
+        FlightService service = schedule();
+
+        // 45 minutes rules out PA2 -> AM1 and PA1 -> BR0, but PA1 -> BR1 still works
+        List<Itinerary> found = service.searchItineraries("Paris", "London", DAY, 3, Duration.ofMinutes(45));
+        assertEquals(List.of(List.of("DIR1"), List.of("PA1", "BR1")), found.stream().map(ItinerarySearchTest::numbers).toList());
+
+        found = service.searchItineraries("Paris", "London", DAY, 1, Duration.ZERO);
+        assertEquals(List.of(List.of("DIR1")), found.stream().map(ItinerarySearchTest::numbers).toList());
+
+        found = service.searchItineraries("Paris", "London", DAY.plusHours(7), 3, Duration.ZERO);
+        assertEquals(List.of(List.of("DIR1"), List.of("PA1", "BR0")), found.stream().map(ItinerarySearchTest::numbers).toList());
+
+        assertTrue(service.searchItineraries("London", "Paris", DAY, 3, Duration.ZERO).isEmpty());
+        assertTrue(service.searchItineraries("Nowhere", "Paris", DAY, 3, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void searchItineraries_followsSellOutsAndNewFlights() {
+        FlightService service = schedule();
+        service.searchItineraries("Paris", "London", DAY, 3, Duration.ofMinutes(30));
+
+        service.bookFlight("Alice", "AM1", 5);
+        List<Itinerary> found = service.searchItineraries("Paris", "London", DAY, 3, Duration.ofMinutes(30));
+        assertEquals(List.of(List.of("DIR1"), List.of("PA1", "BR1")), found.stream().map(ItinerarySearchTest::numbers).toList());
+
+        // added after the index was built, goes straight in
+        service.addFlight(leg("DIR0", "Paris", "London", 7, 0, 8, 30, 5));
+        found = service.searchItineraries("Paris", "London", DAY, 3, Duration.ofMinutes(30));
+        assertEquals(List.of(List.of("DIR0")), found.stream().map(ItinerarySearchTest::numbers).toList());
+
+        service.bookFlight("Bob", "DIR0", 5);
+        service.cancelReservation(service.findReservationsByCustomer("Alice").get(0).getId());
+        found = service.searchItineraries("Paris", "London", DAY, 3, Duration.ofMinutes(30));
+        assertEquals(List.of("PA2", "AM1", "BR2"), numbers(found.get(2)));
+    }
+
+    @Test
+    void searchItineraries_bulkAddedFlightsAcrossMidnight() {
+        FlightService service = new FlightService();
+        service.addFlight(leg("OS0", "Oslo", "Berlin", 1, 0, 2, 0, 1));
+        assertTrue(service.searchItineraries("Oslo", "Berlin", DAY.plusHours(2), 2, Duration.ZERO).isEmpty());
+        service.addFlights(List.of(
+                leg("OS1", "Oslo", "Berlin", 22, 0, 23, 50, 1),
+                leg("BE1", "Berlin", "Rome", 25, 0, 27, 0, 1),
+                leg("BE0", "Berlin", "Rome", 24, 10, 26, 0, 1)));
+
+        List<Itinerary> found = service.searchItineraries("Oslo", "Rome", DAY.plusHours(20), 2, Duration.ofMinutes(30));
+
+        assertEquals(1, found.size());
+        assertEquals(List.of("OS1", "BE1"), numbers(found.get(0)));
+        assertEquals(2, service.getMetrics().getItinerarySearch().getCount());
+    }
+
+    @Test
+    void flightRoute_isValidated() {
+        assertThrows(IllegalArgumentException.class, () -> leg("X1", "Paris", "paris ", 8, 0, 9, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> leg("X1", "Paris", "London", 8, 0, 8, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Flight("X1", " ", "London", DAY, DAY.plusHours(1), 1));
+        FlightService service = new FlightService();
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchItineraries("Paris", "London", DAY, 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchItineraries("Paris", "London", DAY, 2, Duration.ofMinutes(-1)));
+    }
+}
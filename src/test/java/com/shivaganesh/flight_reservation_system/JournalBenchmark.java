@@ -0,0 +1,74 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//Bookings per second on a durable FlightService for each fsync policy.
+//Runs with 16 threads so GROUP_COMMIT has waiters to batch; the journal goes to java.io.tmpdir
+//unless -Djournal.dir points at the disk you actually want to measure.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final int FLIGHTS = 1_000;
+
+    @Param({"EVERY_WRITE", "GROUP_COMMIT", "NONE"})
+    public FsyncPolicy policy;
+
+    private Path dir;
+    private FlightPersistence persistence;
+    private FlightService flightService;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        String base = System.getProperty("journal.dir", System.getProperty("java.io.tmpdir"));
+        dir = Files.createTempDirectory(Path.of(base), "journal-bench");
+        persistence = FlightPersistence.open(dir, policy);
+        flightService = persistence.getFlightService();
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 20, 9, 0);
+        for (int i = 0; i < FLIGHTS; i++) {
+            flightService.addFlight(new Flight("JB" + i, "London", departure.plusMinutes(i), Integer.MAX_VALUE));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        persistence.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Reservation bookFlight() {
+        int flight = ThreadLocalRandom.current().nextInt(FLIGHTS);
+        return flightService.bookFlight("Benchmark customer", "JB" + flight, 1);
+    }
+}
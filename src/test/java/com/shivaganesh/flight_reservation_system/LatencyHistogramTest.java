@@ -0,0 +1,41 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndWithinSixPercent() {
+        int previous = -1;
+        for (long v = 0; v < 1_000_000; v += 1 + v / 50) {
+            int index = LatencyHistogram.index(v);
+            assertTrue(index >= previous, "index must not go down at " + v);
+            long highest = LatencyHistogram.highestValue(index);
+            assertTrue(highest >= v, "bucket of " + v + " ends at " + highest);
+            assertTrue(highest - v <= Math.max(0, v / 16), "bucket of " + v + " too wide: " + highest);
+            previous = index;
+        }
+        assertTrue(LatencyHistogram.highestValue(LatencyHistogram.index(LatencyHistogram.MAX_NANOS))
+                >= LatencyHistogram.MAX_NANOS);
+    }
+
+    @Test
+    void percentilesFollowRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1001, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+        assertEquals(0, snapshot.getPercentileNanos(0));
+        assertEquals(500_000, snapshot.getPercentileNanos(0.5), 500_000 / 16.0);
+        assertEquals(990_000, snapshot.getPercentileNanos(0.99), 990_000 / 16.0);
+        assertEquals(1_000_000, snapshot.getPercentileNanos(1.0));
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentileNanos(0.99));
+    }
+}
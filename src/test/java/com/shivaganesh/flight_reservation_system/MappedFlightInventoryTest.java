@@ -0,0 +1,150 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFlightInventoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void flightServiceOverMappedInventory_searchesAndBooksLikeHeapInventory() throws IOException {
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(dir.resolve("flights.inv"), 100)) {
+            FlightService flightService = new FlightService(inventory);
+            flightService.addFlight(new Flight("FL101", "New York", LocalDateTime.of(2025, 12, 20, 15, 30), 5));
+            flightService.addFlight(new Flight("FL100", "New York", LocalDateTime.of(2025, 12, 20, 9, 0), 10));
+            flightService.addFlight(new Flight("FL200", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 8));
+
+            List<Flight> results = flightService.searchFlights(" new york", LocalDateTime.of(2025, 12, 20, 0, 0));
+            assertEquals(List.of("FL100", "FL101"), results.stream().map(Flight::getFlightNumber).toList());
+
+            Reservation reservation = flightService.bookFlight("Alice", "FL101", 5);
+            assertEquals("New York", reservation.getFlight().getDestination());
+            assertEquals(0, flightService.findFlight("FL101").orElseThrow().getAvailableSeats());
+            assertEquals(1, flightService.searchFlights("New York", LocalDateTime.of(2025, 12, 20, 0, 0)).size());
+
+            assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Bob", "FL101", 1));
+            assertThrows(IllegalArgumentException.class, () -> flightService.addFlight(
+                    new Flight("FL100", "Paris", LocalDateTime.of(2025, 12, 22, 8, 0), 3)));
+        }
+    }
+
+    @Test
+    void searchFlights_rangeOverMappedInventoryMatchesHeapOrder() throws IOException {
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(dir.resolve("flights.inv"), 100)) {
+            FlightService flightService = new FlightService(inventory);
+            flightService.addFlight(new Flight("FL101", "New York", LocalDateTime.of(2025, 12, 20, 15, 30), 5));
+            flightService.addFlight(new Flight("FL100", "New York", LocalDateTime.of(2025, 12, 20, 9, 0), 10));
+            flightService.addFlight(new Flight("FL200", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 8));
+            flightService.addFlight(new Flight("FL201", "London", LocalDateTime.of(2025, 12, 20, 12, 0), 0));
+
+            // the upper bound is exclusive even with seconds: 11:00 < 11:00:30
+            List<Flight> results = flightService.searchFlights(List.of("London", "new york"),
+                    LocalDateTime.of(2025, 12, 20, 9, 0, 1), LocalDateTime.of(2025, 12, 21, 11, 0, 30)).toList();
+            assertEquals(List.of("FL101", "FL200"), results.stream().map(Flight::getFlightNumber).toList());
+        }
+    }
+
+    @Test
+    void addFlights_bulkLoadMergesIntoExistingRowsAndSurvivesReopen() throws IOException {
+        Path file = dir.resolve("flights.inv");
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(file, 10)) {
+            FlightService flightService = new FlightService(inventory);
+            flightService.addFlight(new Flight("FL100", "New York", LocalDateTime.of(2025, 12, 20, 12, 0), 10));
+            flightService.addFlights(List.of(
+                    new Flight("FL102", "New York", LocalDateTime.of(2025, 12, 20, 18, 0), 5),
+                    new Flight("FL101", "New York", LocalDateTime.of(2025, 12, 20, 9, 0), 5),
+                    new Flight("FL300", "Oslo", LocalDateTime.of(2025, 12, 20, 7, 0), 5)));
+
+            assertEquals(List.of("FL101", "FL100", "FL102"), flightService.searchFlights("New York",
+                    LocalDateTime.of(2025, 12, 20, 0, 0)).stream().map(Flight::getFlightNumber).toList());
+            assertThrows(IllegalStateException.class, () -> flightService.addFlights(List.of(
+                    new Flight("FL400", "Rome", LocalDateTime.of(2025, 12, 20, 7, 0), 5),
+                    new Flight("FL401", "Rome", LocalDateTime.of(2025, 12, 20, 8, 0), 5),
+                    new Flight("FL402", "Rome", LocalDateTime.of(2025, 12, 20, 9, 0), 5),
+                    new Flight("FL403", "Rome", LocalDateTime.of(2025, 12, 20, 10, 0), 5),
+                    new Flight("FL404", "Rome", LocalDateTime.of(2025, 12, 20, 11, 0), 5),
+                    new Flight("FL405", "Rome", LocalDateTime.of(2025, 12, 20, 12, 0), 5),
+                    new Flight("FL406", "Rome", LocalDateTime.of(2025, 12, 20, 13, 0), 5))));
+            assertEquals(4, flightService.getAllFlights().size());
+        }
+        try (MappedFlightInventory reopened = MappedFlightInventory.open(file)) {
+            assertEquals(4, reopened.all().size());
+            assertEquals("FL300", reopened.find("FL300").getFlightNumber());
+        }
+    }
+
+    // reopening maps the same file: seat counts updated in place are still there
+    @Test
+    void open_seesSeatCountsWrittenInPlace() throws IOException {
+        Path file = dir.resolve("flights.inv");
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(file, 10)) {
+            FlightService flightService = new FlightService(inventory);
+            flightService.addFlight(new Flight("FL200", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 8));
+            flightService.bookFlight("Alice", "FL200", 3);
+        }
+
+        try (MappedFlightInventory inventory = MappedFlightInventory.open(file)) {
+            assertEquals(1, inventory.size());
+            Flight flight = inventory.find("FL200");
+            assertEquals(5, flight.getAvailableSeats());
+            assertEquals(LocalDateTime.of(2025, 12, 21, 11, 0), flight.getDepartureTime());
+            assertEquals(1, inventory.searchAvailable("LONDON", flight.getDepartureTime().toLocalDate()).size());
+
+            inventory.add(new Flight("FL201", "London", LocalDateTime.of(2025, 12, 21, 7, 0), 2));
+            assertEquals(List.of("FL201", "FL200"), inventory.searchAvailable("London",
+                    flight.getDepartureTime().toLocalDate()).stream().map(Flight::getFlightNumber).toList());
+        }
+    }
+
+    @Test
+    void routes_surviveReopenAndFeedItinerarySearch() throws IOException {
+        Path file = dir.resolve("flights.inv");
+        LocalDateTime departure = LocalDateTime.of(2025, 12, 21, 7, 0);
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(file, 10)) {
+            inventory.add(new Flight("FL100", "Paris", "Brussels", departure, departure.plusHours(1), 4));
+            inventory.add(new Flight("FL101", "London", departure, 4));
+        }
+
+        try (MappedFlightInventory inventory = MappedFlightInventory.open(file)) {
+            Flight routed = inventory.find("FL100");
+            assertEquals("Paris", routed.getOrigin());
+            assertEquals(departure.plusHours(1), routed.getArrivalTime());
+            assertFalse(inventory.find("FL101").hasRoute());
+
+            FlightService service = new FlightService(inventory);
+            service.addFlight(new Flight("FL102", "Brussels", "London", departure.plusHours(2),
+                    departure.plusHours(3), 4));
+            List<Itinerary> found = service.searchItineraries("Paris", "London", departure, 2, Duration.ofMinutes(30));
+            assertEquals(1, found.size());
+            assertEquals(List.of("FL100", "FL102"),
+                    found.get(0).getLegs().stream().map(Flight::getFlightNumber).toList());
+
+            service.bookFlight("Alice", "FL100", 4);
+            assertTrue(service.searchItineraries("Paris", "London", departure, 2, Duration.ofMinutes(30)).isEmpty());
+        }
+    }
+
+    @Test
+    void add_rejectsRowsThatDoNotFitTheColumns() throws IOException {
+        try (MappedFlightInventory inventory = MappedFlightInventory.create(dir.resolve("flights.inv"), 1)) {
+            assertThrows(IllegalArgumentException.class, () -> inventory.add(
+                    new Flight("FLIGHT-NUMBER-TOO-LONG", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 8)));
+            assertThrows(IllegalArgumentException.class, () -> inventory.add(
+                    new Flight("FL1", "London", LocalDateTime.of(2025, 12, 21, 11, 0, 30), 8)));
+
+            inventory.add(new Flight("FL1", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 8));
+            assertThrows(IllegalStateException.class, () -> inventory.add(
+                    new Flight("FL2", "London", LocalDateTime.of(2025, 12, 21, 12, 0), 8)));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrieTest {
+
+    private static List<String> complete(NameTrie trie, String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        for (Completion completion : trie.complete(prefix, limit)) {
+            names.add(completion.getName() + "=" + completion.getCount());
+        }
+        return names;
+    }
+
+    @Test
+    void splitsLabelsAndIgnoresCase() {
+        NameTrie trie = new NameTrie();
+        trie.add("London", 5);
+        trie.add("Los Angeles", 7);
+        trie.add(" LONDON ", 1);
+        trie.add("Lo", 2);
+        trie.add("Long Beach", 3);
+
+        assertEquals(4, trie.size());
+        assertEquals(6, trie.count("london"));
+        assertEquals(List.of("Los Angeles=7", "London=6", "Long Beach=3", "Lo=2"), complete(trie, "l", 10));
+        assertEquals(List.of("London=6", "Long Beach=3"), complete(trie, "  lOn", 10));
+        assertEquals(List.of("London=6"), complete(trie, "LONDO", 10));
+        assertEquals(List.of("Los Angeles=7", "London=6"), complete(trie, "", 2));
+        assertEquals(List.of("Los Angeles=7"), complete(trie, "los ", 10));
+        assertTrue(complete(trie, "lost", 10).isEmpty());
+        assertTrue(complete(trie, "x", 10).isEmpty());
+        assertEquals(0, trie.count("Lon"));
+    }
+
+    @Test
+    void rankingFollowsCountsGoingDown() {
+        NameTrie trie = new NameTrie();
+        trie.add("Madrid", 100);
+        trie.add("Malaga", 50);
+        trie.add("Manila", 10);
+
+        trie.add("Madrid", -95);
+        trie.add("Manila", 30);
+        assertEquals(List.of("Malaga=50", "Manila=40", "Madrid=5"), complete(trie, "ma", 3));
+        assertEquals(List.of("Malaga=50"), complete(trie, "ma", 1));
+    }
+
+    // sold out destinations, customers with every booking cancelled: not suggested, and their subtrees
+    // are dropped from the walk until a count goes up again
+    @Test
+    void drainedNamesAreNotSuggested() {
+        NameTrie trie = new NameTrie();
+        trie.add("Oslo", 20);
+        trie.add("Osaka", 10);
+        trie.add("Ostrava", 5);
+
+        trie.add("Oslo", -20);
+        trie.add("Osaka", -12);
+        assertEquals(List.of("Ostrava=5"), complete(trie, "os", 10));
+        assertEquals(List.of("Ostrava=5"), complete(trie, "os", 10));
+        trie.add("Ostrava", -5);
+        assertTrue(complete(trie, "", 10).isEmpty());
+
+        trie.add("Oslo", 1);
+        assertEquals(List.of("Oslo=1"), complete(trie, "o", 10));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void manyNamesAcrossPages() {
+        NameTrie trie = new NameTrie();
+        for (int i = 0; i < 20_000; i++) {
+            trie.add("Customer " + i, i % 1000);
+        }
+        trie.add("customer 7", 5_000);
+
+        assertEquals(20_000, trie.size());
+        List<String> top = complete(trie, "customer", 21);
+        assertEquals("Customer 7=5007", top.get(0));
+        assertTrue(top.subList(1, 21).stream().allMatch(name -> name.endsWith("=999")), top.toString());
+        assertEquals(List.of("Customer 1998=998", "Customer 19989=989"), complete(trie, "Customer 1998", 2));
+    }
+
+    // names split while other threads raise counts along the same paths; no raise may get lost
+    @Test
+    void concurrentAddsKeepBoundsAndCounts() throws Exception {
+        NameTrie trie = new NameTrie();
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(pool.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    // thread t adds its own names, longest first so later ones split them, and keeps bumping
+                    // a name every thread shares
+                    trie.add("name " + thread + " " + (5_000 - i), 1);
+                    trie.add("name " + (i % 50), 1);
+                    trie.complete("name " + thread, 3);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(threads * 5_000 + 50, trie.size());
+        List<String> shared = complete(trie, "NAME", 50);
+        assertEquals(50, shared.size());
+        for (String name : shared) {
+            // 4 threads x 5_000 adds over 50 names; a bound left below 400 would rank a count of 1 above one
+            assertTrue(name.endsWith("=400") && name.split(" ").length == 2, shared.toString());
+        }
+    }
+
+    // queries lowering bounds while other threads drain and refill counts; a lowered bound must never hide
+    // a count that went up meanwhile
+    @Test
+    void concurrentLoweringKeepsRaisedCounts() throws Exception {
+        NameTrie trie = new NameTrie();
+        for (int i = 0; i < 200; i++) {
+            trie.add("flight " + i, 10);
+        }
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                for (int round = 0; round < 2_000; round++) {
+                    for (int i = thread; i < 200; i += threads) {
+                        trie.add("flight " + i, -10);
+                        trie.complete("flight " + (i / 10), 5);
+                        trie.add("flight " + i, 10);
+                    }
+                    trie.complete("flight", 5);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<String> all = complete(trie, "FLIGHT", 300);
+        assertEquals(200, all.size());
+        assertTrue(all.stream().allMatch(name -> name.endsWith("=10")), all.toString());
+    }
+}
@@ -0,0 +1,44 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationIdGeneratorTest {
+
+    // a fresh thread per booking, as with a virtual thread per request: ids stay unique and dense
+    @Test
+    void shortLivedThreads_doNotBurnIds() throws InterruptedException {
+        ReservationIdGenerator ids = new ReservationIdGenerator(1, 0, 8);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 2_000; i++) {
+            Thread thread = new Thread(() -> seen.add(ids.next()));
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(2_000, seen.size());
+        assertTrue(seen.stream().allMatch(id -> id > 0));
+        // each thread takes one id, so the largest is bounded by how unevenly threads hash over the stripes
+        assertTrue(seen.stream().mapToLong(Long::longValue).max().orElseThrow() < 2_000 * 2);
+    }
+
+    @Test
+    void partitions_andRestoredIds() {
+        ReservationIdGenerator partition = new ReservationIdGenerator(3, 2, 4);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, partition.next() % 3);
+        }
+
+        partition.advancePast(10_000);
+        for (int i = 0; i < 100; i++) {
+            long id = partition.next();
+            assertTrue(id > 10_000);
+            assertEquals(2, id % 3);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ReservationIdGenerator(2, 0, 3));
+    }
+}
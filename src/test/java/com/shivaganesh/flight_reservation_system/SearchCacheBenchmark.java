@@ -0,0 +1,97 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Repeated searches for popular (destination, date) pairs, with and without the search cache.
+//
+//  cacheEntries    0 turns the cache off
+//  skew            how destinations and days are picked: "uniform" or "zipf"
+//
+//"mixed" books seats on a searched flight every BOOK_EVERY operations, roughly the 100:1
+//search/book ratio we see; the popular flights sell out during the run and invalidate their
+//cached search. Cache counters are printed at the end of each iteration.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchCacheBenchmark {
+
+    // about 55 flights per destination and day, so an uncached search has real work to do
+    private static final int FLIGHTS = 1_000_000;
+    private static final int DESTINATIONS = 50;
+    private static final int SEATS = 100;
+    private static final int QUERIES = 1 << 16;
+    private static final int BOOK_EVERY = 100;
+
+    @Param({"0", "4096"})
+    public int cacheEntries;
+
+    @Param({"uniform", "zipf"})
+    public String skew;
+
+    private FlightService flightService;
+    private String[] destinations;
+    private LocalDateTime[] dates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        flightService = BenchmarkSchedules.schedule(new FlightService(new HeapFlightInventory(), cacheEntries),
+                FLIGHTS, DESTINATIONS, skew, SEATS);
+
+        BenchmarkSchedules.DestinationSampler destinationSampler =
+                new BenchmarkSchedules.DestinationSampler(DESTINATIONS, skew);
+        // near dates are searched far more often than dates months out
+        BenchmarkSchedules.DestinationSampler daySampler =
+                new BenchmarkSchedules.DestinationSampler(BenchmarkSchedules.DAYS, skew);
+        SplittableRandom random = new SplittableRandom(11);
+        destinations = new String[QUERIES];
+        dates = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            destinations[i] = BenchmarkSchedules.destination(destinationSampler.next(random));
+            dates[i] = BenchmarkSchedules.FIRST_DEPARTURE.plusDays(daySampler.next(random));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStats() {
+        System.out.println();
+        System.out.println(flightService.getSearchCacheStats());
+    }
+
+    @Benchmark
+    public List<Flight> search() {
+        int i = next = (next + 1) & (QUERIES - 1);
+        return flightService.searchFlights(destinations[i], dates[i]);
+    }
+
+    @Benchmark
+    public Object mixed() {
+        int i = next = (next + 1) & (QUERIES - 1);
+        List<Flight> results = flightService.searchFlights(destinations[i], dates[i]);
+        if (i % BOOK_EVERY == 0 && !results.isEmpty()) {
+            return flightService.bookFlight("Customer " + i, results.get(0), 10);
+        }
+        return results;
+    }
+}
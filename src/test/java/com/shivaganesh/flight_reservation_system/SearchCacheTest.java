@@ -0,0 +1,81 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCacheTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 20, 0, 0);
+
+    private FlightService flightService;
+    private Flight nyMorning;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(new HeapFlightInventory(), 64);
+        nyMorning = new Flight("FL100", "New York", DAY.withHour(9), 2);
+        flightService.addFlight(nyMorning);
+        flightService.addFlight(new Flight("FL101", "New York", DAY.withHour(15), 5));
+        flightService.addFlight(new Flight("FL200", "London", DAY.withHour(11), 8));
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        List<Flight> first = flightService.searchFlights("New York", DAY);
+        List<Flight> second = flightService.searchFlights(" new york ", DAY.withHour(18));
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.remove(0));
+        SearchCacheStats stats = flightService.getSearchCacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void sellingOutEvictsOnlyThatDestinationAndDate() {
+        flightService.searchFlights("New York", DAY);
+        List<Flight> londonResults = flightService.searchFlights("London", DAY.plusDays(1));
+
+        flightService.bookFlight("Alice", nyMorning, 1);
+        assertEquals(0, flightService.getSearchCacheStats().getInvalidations());
+
+        flightService.bookFlight("Alice", nyMorning, 1);
+        assertEquals(List.of("FL101"), flightService.searchFlights("New York", DAY).stream()
+                .map(Flight::getFlightNumber).toList());
+        assertSame(londonResults, flightService.searchFlights("London", DAY.plusDays(1)));
+        assertEquals(1, flightService.getSearchCacheStats().getInvalidations());
+    }
+
+    @Test
+    void addedFlightsAndReturnedSeatsShowUpAgain() {
+        Reservation soldOut = flightService.bookFlight("Alice", nyMorning, 2);
+        assertEquals(1, flightService.searchFlights("New York", DAY).size());
+
+        flightService.cancelReservation(soldOut.getId());
+        assertEquals(2, flightService.searchFlights("New York", DAY).size());
+
+        flightService.addFlight(new Flight("FL102", "New York", DAY.withHour(20), 3));
+        assertEquals(3, flightService.searchFlights("New York", DAY).size());
+    }
+
+    @Test
+    void cacheIsBoundedAndCanBeTurnedOff() {
+        for (int day = 0; day < 200; day++) {
+            flightService.searchFlights("New York", DAY.plusDays(day));
+        }
+        SearchCacheStats stats = flightService.getSearchCacheStats();
+        assertEquals(64, stats.getSize());
+        assertEquals(200 - 64, stats.getEvictions());
+
+        FlightService uncached = new FlightService(new HeapFlightInventory(), 0);
+        uncached.addFlight(new Flight("FL100", "New York", DAY.withHour(9), 2));
+        assertNotSame(uncached.searchFlights("New York", DAY), uncached.searchFlights("New York", DAY));
+        assertEquals(0, uncached.getSearchCacheStats().getHits());
+    }
+}
@@ -0,0 +1,141 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldTest {
+
+    private FlightService flightService;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService();
+        flight = new Flight("FL200", "London", LocalDateTime.of(2025, 12, 21, 11, 0), 4);
+        flightService.addFlight(flight);
+    }
+
+    @Test
+    void holdSeats_takesSeatsOffSaleUntilConfirmed() {
+        SeatHold hold = flightService.holdSeats("Alice", "FL200", 4, Duration.ofMinutes(15));
+
+        assertEquals(0, flight.getAvailableSeats());
+        assertTrue(flightService.searchFlights("London", LocalDateTime.of(2025, 12, 21, 0, 0)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Bob", flight, 1));
+
+        Reservation reservation = flightService.confirmHold(hold.getId());
+
+        assertEquals(4, reservation.getSeatsBooked());
+        assertEquals(0, flight.getAvailableSeats());
+        assertEquals(List.of(reservation), flightService.findReservationsByCustomer("alice"));
+        assertFalse(hold.isActive());
+        assertThrows(IllegalArgumentException.class, () -> flightService.confirmHold(hold.getId()));
+    }
+
+    @Test
+    void releaseHold_putsSeatsBackOnSale() {
+        SeatHold hold = flightService.holdSeats("Alice", "FL200", 3, Duration.ofMinutes(15));
+
+        assertTrue(flightService.releaseHold(hold.getId()));
+        assertFalse(flightService.releaseHold(hold.getId()));
+        assertEquals(4, flight.getAvailableSeats());
+        assertThrows(IllegalArgumentException.class, () -> flightService.confirmHold(hold.getId()));
+        assertTrue(flightService.getAllReservations().isEmpty());
+    }
+
+    @Test
+    void holdSeats_rejectsMoreSeatsThanAvailable() {
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.holdSeats("Alice", "FL200", 5, Duration.ofMinutes(15)));
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.holdSeats("Alice", "FL200", 1, Duration.ZERO));
+        assertEquals(4, flight.getAvailableSeats());
+    }
+
+    // abandoned hold: the shared wheel gives the seats back on its own
+    @Test
+    void expiredHold_returnsSeatsAutomatically() throws InterruptedException {
+        SeatHold hold = flightService.holdSeats("Alice", "FL200", 2, Duration.ofMillis(50));
+        assertEquals(2, flight.getAvailableSeats());
+
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hold.isActive() && System.nanoTime() < giveUp) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(hold.isActive());
+        assertEquals(4, flight.getAvailableSeats());
+        assertThrows(IllegalArgumentException.class, () -> flightService.confirmHold(hold.getId()));
+    }
+
+    // drives a private wheel by hand: holds from milliseconds to days out expire no earlier than
+    // their deadline and no later than one tick after it, across all wheel levels
+    @Test
+    void timingWheel_expiresEachHoldWithinOneTickOfItsDeadline() {
+        long tick = TimeUnit.MILLISECONDS.toNanos(10);
+        HoldExpiryWheel wheel = new HoldExpiryWheel(tick);
+        long base = System.nanoTime();
+
+        FlightService owner = new FlightService();
+        Flight target = new Flight("FL900", "Paris", LocalDateTime.of(2025, 12, 21, 11, 0), 0);
+        owner.addFlight(target);
+
+        SplittableRandom random = new SplittableRandom(1);
+        List<SeatHold> holds = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long delay = (long) Math.pow(10, 6 + random.nextDouble() * 8.5); // 1 ms .. ~3.7 days
+            SeatHold hold = new SeatHold(i, "Customer", target, 1, target.seatState(), Instant.now(), base + delay,
+                    owner);
+            holds.add(hold);
+            wheel.schedule(hold);
+        }
+
+        long now = base;
+        long end = base + TimeUnit.DAYS.toNanos(4);
+        while (now < end) {
+            now += 1 + random.nextLong(TimeUnit.MINUTES.toNanos(20));
+            wheel.advanceTo(now);
+            for (SeatHold hold : holds) {
+                if (hold.getDeadlineNanos() > now) {
+                    assertTrue(hold.isActive(), "expired early");
+                } else if (hold.getDeadlineNanos() <= now - tick) {
+                    assertFalse(hold.isActive(), "expired late");
+                }
+            }
+        }
+        assertEquals(holds.size(), target.getAvailableSeats());
+    }
+
+    // a hold that cannot be expired is counted and logged by its service, the wheel keeps going
+    @Test
+    void timingWheel_failedExpiryGoesToTheServiceMetrics() {
+        long tick = TimeUnit.MILLISECONDS.toNanos(10);
+        HoldExpiryWheel wheel = new HoldExpiryWheel(tick);
+        long base = System.nanoTime();
+        FlightService owner = new FlightService();
+        Flight target = new Flight("FL901", "Paris", LocalDateTime.of(2025, 12, 21, 11, 0), 0);
+        owner.addFlight(target);
+
+        // no flight to give the seats back to
+        SeatHold broken = new SeatHold(1, "Customer", null, 1, 0, Instant.now(), base + tick, owner);
+        SeatHold fine = new SeatHold(2, "Customer", target, 1, target.seatState(), Instant.now(), base + tick, owner);
+        wheel.schedule(broken);
+        wheel.schedule(fine);
+        wheel.advanceTo(base + 3 * tick);
+
+        assertFalse(fine.isActive());
+        assertEquals(1, target.getAvailableSeats());
+        assertEquals(1, owner.getMetrics().getHoldExpiryFailures());
+        assertTrue(owner.getMetrics().toPrometheusText().contains("flight_hold_expiry_failures_total 1"));
+    }
+}
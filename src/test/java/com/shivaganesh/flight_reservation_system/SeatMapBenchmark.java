@@ -0,0 +1,121 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+//Seat assignment latency on a 95% full 400 seat aircraft (J:1-10:AC_DF; Y:11-46:ABC_DEFG_HJK). The 20
+//free seats are the J+K pairs of the last ten rows, so every search has to get to the back of the cabin.
+//
+//bitsetPair / bitsetAny / bitsetTriple: SeatMap claiming two adjacent seats, one seat anywhere, and three
+//adjacent seats that do not exist (a miss scans the whole aircraft), each released again.
+//arrayPair: the same pair search over a boolean per seat behind a lock, the design SeatMap replaces.
+//bookSeats: the whole FlightService path, count and seats, then cancelled.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatMapBenchmark {
+
+    private static final String LAYOUT = "J:1-10:AC_DF; Y:11-46:ABC_DEFG_HJK";
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2025, 12, 20, 9, 0);
+
+    private SeatLayout layout;
+    private SeatMap seatMap;
+    private int economy;
+
+    private final Object lock = new Object();
+    private boolean[] freeSeats;
+    // aisle block of every seat, adjacent seats share a block
+    private int[] blocks;
+
+    private FlightService flightService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        layout = SeatLayout.parse(LAYOUT);
+        economy = layout.getCabins().indexOf("Y");
+        seatMap = new SeatMap(layout);
+        freeSeats = new boolean[layout.capacity()];
+        blocks = new int[layout.capacity()];
+
+        int[] taken = new int[layout.capacity() - 20];
+        int t = 0;
+        for (int seat = 0; seat < layout.capacity(); seat++) {
+            String number = layout.seatNumber(seat);
+            int row = Integer.parseInt(number.substring(0, number.length() - 1));
+            char letter = number.charAt(number.length() - 1);
+            blocks[seat] = row * 4 + (letter <= 'C' ? 0 : letter <= 'G' ? 1 : 2);
+            freeSeats[seat] = row >= 37 && (letter == 'J' || letter == 'K');
+            if (!freeSeats[seat]) {
+                taken[t++] = seat;
+            }
+        }
+        seatMap.claim(taken);
+
+        flightService = new FlightService(new HeapFlightInventory(), 0);
+        flightService.addFlight(new Flight("FL400", "Paris", "London", DEPARTURE, DEPARTURE.plusHours(9), layout));
+        // the same seats sold, without 380 reservations to carry around
+        Flight flight = flightService.findFlight("FL400").orElseThrow();
+        flight.tryReserveSeats(taken.length);
+        flight.seatMap().claim(taken);
+    }
+
+    @Benchmark
+    public int[] bitsetPair() {
+        int[] seats = seatMap.claimAdjacent(economy, 2);
+        seatMap.release(seats);
+        return seats;
+    }
+
+    @Benchmark
+    public int[] bitsetAny() {
+        int[] seats = seatMap.claimAny(-1, 1);
+        seatMap.release(seats);
+        return seats;
+    }
+
+    @Benchmark
+    public int[] bitsetTriple() {
+        return seatMap.claimTogether(-1, 3);
+    }
+
+    @Benchmark
+    public int arrayPair() {
+        int found = -1;
+        synchronized (lock) {
+            for (int seat = 0; seat + 1 < freeSeats.length; seat++) {
+                if (freeSeats[seat] && freeSeats[seat + 1] && blocks[seat] == blocks[seat + 1]) {
+                    freeSeats[seat] = false;
+                    freeSeats[seat + 1] = false;
+                    found = seat;
+                    break;
+                }
+            }
+        }
+        synchronized (lock) {
+            freeSeats[found] = true;
+            freeSeats[found + 1] = true;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Reservation bookSeats() {
+        return flightService.cancelReservation(flightService.bookSeats("Storm", "FL400", "Y", 2, true).getId());
+    }
+}
@@ -0,0 +1,201 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2025, 12, 21, 9, 0);
+    // 8 business seats and 24 economy seats, of which at most 4 sell as B and 10 as M
+    private static final String SMALL = "J:1-2:AC_DF; Y:10-13:ABC_DEF | M=Y/10, B=Y/4";
+    private static final String WIDE_BODY = "J:1-10:AC_DF; Y:11-46:ABC_DEFG_HJK";
+
+    private static FlightService serviceWith(String number, String layout) {
+        FlightService service = new FlightService();
+        service.addFlight(new Flight(number, "Paris", "London", DEPARTURE, DEPARTURE.plusHours(1),
+                SeatLayout.parse(layout)));
+        return service;
+    }
+
+    private static int freeBits(Flight flight) {
+        return flight.seatMap().freeSeats();
+    }
+
+    @Test
+    void seatLayout_parsesAndNumbersSeats() {
+        SeatLayout layout = SeatLayout.parse(" j:1-2:ac_df ;Y:10-13:ABC_DEF|M=y/10,B = Y/4 ");
+
+        assertEquals(32, layout.capacity());
+        assertEquals(List.of("j", "Y"), layout.getCabins());
+        assertEquals(List.of("j", "Y", "M", "B"), layout.getFareClasses());
+        assertEquals("1A", layout.seatNumber(0));
+        assertEquals("2F", layout.seatNumber(7));
+        assertEquals("10A", layout.seatNumber(8));
+        assertEquals("13F", layout.seatNumber(31));
+        for (int seat = 0; seat < layout.capacity(); seat++) {
+            assertEquals(seat, layout.seatOrdinal(layout.seatNumber(seat)));
+        }
+        assertEquals(-1, layout.seatOrdinal("3A"));
+        assertEquals(-1, layout.seatOrdinal("10G"));
+        assertEquals(layout, SeatLayout.parse(layout.toString()));
+        assertEquals(400, SeatLayout.parse(WIDE_BODY).capacity());
+    }
+
+    @Test
+    void seatLayout_rejectsBadSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("J:1-4:AB; Y:3-9:ABC"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:AB_"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:ABA"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:" + "A".repeat(65)));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:ABC | Y=Y/3"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:ABC | M=J/3"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-9:ABC | M=Y/-1"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:9-1:ABC"));
+    }
+
+    @Test
+    void bookSeats_adjacentSeatsNeverCrossAnAisle() {
+        FlightService service = serviceWith("FL300", SMALL);
+        Flight flight = service.findFlight("FL300").orElseThrow();
+
+        assertEquals(List.of("10A", "10B", "10C"), service.bookSeats("Alice", "FL300", "Y", 3, true).getSeatNumbers());
+        assertEquals(List.of("10D", "10E", "10F"), service.bookSeats("Bob", "FL300", "Y", 3, true).getSeatNumbers());
+        assertEquals(List.of("1A", "1C"), service.bookSeats("Carol", "FL300", "J", 2, true).getSeatNumbers());
+
+        assertThrows(SeatsUnavailableException.class, () -> service.bookSeats("Dave", "FL300", "Y", 4, true));
+        assertThrows(SeatsUnavailableException.class, () -> service.bookSeats("Dave", "FL300", null, 4, true));
+        assertEquals(24, flight.getAvailableSeats());
+        assertEquals(flight.getAvailableSeats(), freeBits(flight));
+
+        // not together, the same four seats are fine
+        assertEquals(4, service.bookSeats("Dave", "FL300", "Y", 4, false).getSeatNumbers().size());
+        assertEquals(20, flight.getAvailableSeats());
+        assertFalse(flight.isSeatFree("10B"));
+        assertTrue(flight.isSeatFree("13F"));
+    }
+
+    @Test
+    void bookSeats_fareClassQuotaAndCancelGiveSeatsBack() {
+        FlightService service = serviceWith("FL300", SMALL);
+        Flight flight = service.findFlight("FL300").orElseThrow();
+
+        Reservation cheap = service.bookSeats("Alice", "FL300", "b", 4, false);
+        assertEquals("B", cheap.getFareClass());
+        assertEquals(0, flight.getAvailableSeats("B"));
+        assertEquals(10, flight.getAvailableSeats("M"));
+        assertEquals(20, flight.getAvailableSeats("Y"));
+        assertThrows(SeatsUnavailableException.class, () -> service.bookSeats("Bob", "FL300", "B", 1, false));
+        assertEquals(28, flight.getAvailableSeats());
+
+        service.cancelReservation(cheap.getId());
+        assertEquals(4, flight.getAvailableSeats("B"));
+        assertEquals(32, flight.getAvailableSeats());
+        for (String seat : cheap.getSeatNumbers()) {
+            assertTrue(flight.isSeatFree(seat), seat);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.bookSeats("Bob", "FL300", "F", 1, false));
+        assertThrows(IllegalStateException.class, () -> flight.setAvailableSeats(3));
+        service.addFlight(new Flight("FL301", "London", DEPARTURE, 5));
+        assertThrows(IllegalArgumentException.class, () -> service.bookSeats("Bob", "FL301", "Y", 1, false));
+    }
+
+    @Test
+    void plainBookingsAndHolds_getSeatsFromTheMap() {
+        FlightService service = serviceWith("FL300", SMALL);
+        Flight flight = service.findFlight("FL300").orElseThrow();
+
+        Reservation booked = service.bookFlight("Alice", "FL300", 2);
+        assertEquals(2, booked.getSeatNumbers().size());
+        List<Reservation> batch = service.bookFlights(List.of(new BookingRequest("Bob", "FL300", 25)));
+        assertEquals(25, batch.get(0).getSeatNumbers().size());
+
+        SeatHold hold = service.holdSeats("Carol", "FL300", 5, Duration.ofMinutes(5));
+        assertEquals(0, flight.getAvailableSeats());
+        // held seats are counted but not picked until the hold is confirmed
+        assertEquals(5, freeBits(flight));
+        assertThrows(SeatsUnavailableException.class, () -> service.bookSeats("Dave", "FL300", "J", 1, false));
+        Reservation confirmed = service.confirmHold(hold.getId());
+        assertEquals(5, confirmed.getSeatNumbers().size());
+        assertEquals(0, freeBits(flight));
+
+        Set<String> seats = new HashSet<>();
+        for (Reservation reservation : service.getAllReservations()) {
+            seats.addAll(reservation.getSeatNumbers());
+        }
+        assertEquals(32, seats.size());
+    }
+
+    // adjacent, fare class and plain bookings race with cancellations on a nearly full aircraft
+    @Test
+    void concurrentBookings_neverAssignASeatTwice() throws Exception {
+        FlightService service = serviceWith("FL400", WIDE_BODY + " | M=Y/200");
+        Flight flight = service.findFlight("FL400").orElseThrow();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String customer = "Customer " + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Reservation> mine = new ArrayList<>();
+                for (int i = 0; i < 3_000; i++) {
+                    try {
+                        switch (random.nextInt(4)) {
+                            case 0 -> mine.add(service.bookSeats(customer, "FL400", null, 1 + random.nextInt(3), true));
+                            case 1 -> mine.add(service.bookSeats(customer, "FL400", "M", 1 + random.nextInt(2), false));
+                            case 2 -> mine.add(service.bookFlight(customer, "FL400", 1 + random.nextInt(4)));
+                            default -> {
+                                if (!mine.isEmpty()) {
+                                    service.cancelReservation(mine.remove(random.nextInt(mine.size())).getId());
+                                }
+                            }
+                        }
+                    } catch (SeatsUnavailableException e) {
+                        // sold out or no row with the seats together, fine
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Set<String> taken = new HashSet<>();
+        int booked = 0;
+        int fareM = 0;
+        for (Reservation reservation : service.getAllReservations()) {
+            for (String seat : reservation.getSeatNumbers()) {
+                assertTrue(taken.add(seat), "seat " + seat + " was assigned twice");
+                assertFalse(flight.isSeatFree(seat), seat);
+            }
+            booked += reservation.getSeatsBooked();
+            if ("M".equals(reservation.getFareClass())) {
+                fareM += reservation.getSeatsBooked();
+            }
+        }
+        assertEquals(booked, taken.size());
+        assertEquals(400 - booked, flight.getAvailableSeats());
+        assertEquals(flight.getAvailableSeats(), freeBits(flight));
+        assertEquals(fareM, flight.seatMap().fareSold(flight.seatMap().layout().fareClass("M")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.shivaganesh.flight_reservation_system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedFlightServiceTest {
+
+    private static final int PARTITIONS = 4;
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 20, 0, 0);
+
+    private ShardedFlightService sharded;
+
+    @BeforeEach
+    void setUp() {
+        sharded = ShardedFlightService.local(PARTITIONS);
+        // enough flights that every partition owns some of them
+        for (int i = 0; i < 16; i++) {
+            sharded.addFlight(new Flight("FL" + (300 + i), i % 2 == 0 ? "Paris" : "Rome", DAY.plusHours(i), 5));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sharded.close();
+    }
+
+    @Test
+    void flightsAndReservationsLiveInTheirOwningPartition() {
+        Reservation r = sharded.bookFlight("Alice", "FL305", 2);
+
+        int owner = sharded.partitionOf("FL305");
+        assertEquals(owner, r.getId() % PARTITIONS);
+        assertEquals(3, sharded.findFlight("FL305").orElseThrow().getAvailableSeats());
+        assertEquals(r, sharded.findReservation(r.getId()).orElseThrow());
+        assertEquals(16, sharded.getAllFlights().size());
+    }
+
+    @Test
+    void duplicateFlightNumberIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sharded.addFlight(new Flight("FL300", "Oslo", DAY.plusDays(1), 5)));
+    }
+
+    @Test
+    void searchMergesAllPartitionsInDepartureOrder() {
+        List<Flight> paris = sharded.searchFlights("paris", DAY);
+
+        assertEquals(8, paris.size());
+        for (int i = 1; i < paris.size(); i++) {
+            assertTrue(paris.get(i - 1).getDepartureTime().isBefore(paris.get(i).getDepartureTime()));
+        }
+
+        List<Flight> firstThree = sharded.searchFlights(Set.of("Paris", "Rome"), DAY, DAY.plusDays(1), 3);
+        assertEquals(List.of("FL300", "FL301", "FL302"),
+                firstThree.stream().map(Flight::getFlightNumber).toList());
+    }
+
+    @Test
+    void soldOutAndCancelBehaveLikeFlightService() {
+        Reservation r = sharded.bookFlight("Bob", "FL310", 5);
+
+        assertThrows(SeatsUnavailableException.class, () -> sharded.bookFlight("Carol", "FL310", 1));
+        assertThrows(IllegalArgumentException.class, () -> sharded.bookFlight("Carol", "FL999", 1));
+
+        sharded.cancelReservation(r.getId());
+        assertEquals(5, sharded.findFlight("FL310").orElseThrow().getAvailableSeats());
+        assertTrue(sharded.findReservation(r.getId()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> sharded.cancelReservation(r.getId()));
+    }
+
+    @Test
+    void customerLookupGathersEveryPartition() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            ids.add(sharded.bookFlight("Dana", "FL" + (300 + i), 1).getId());
+        }
+        sharded.bookFlight("Eve", "FL300", 1);
+
+        List<Reservation> dana = sharded.findReservationsByCustomer(" dana ");
+        assertEquals(ids.stream().sorted().toList(), dana.stream().map(Reservation::getId).toList());
+        assertEquals(17, sharded.getAllReservations().size());
+    }
+
+    @Test
+    void concurrentBookingsNeverOversell() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> booked = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            booked.add(pool.submit(() -> {
+                start.await();
+                int seats = 0;
+                for (int i = 0; i < 16; i++) {
+                    try {
+                        seats += sharded.bookFlight("C", "FL" + (300 + i), 1).getSeatsBooked();
+                    } catch (SeatsUnavailableException soldOut) {
+                        // expected once the flight is full
+                    }
+                }
+                return seats;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> f : booked) {
+            total += f.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(16 * 5, total);
+        assertTrue(sharded.getAllFlights().stream().allMatch(f -> f.getAvailableSeats() == 0));
+    }
+}